@@ -0,0 +1,89 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker de la base de datos.
+ *
+ * - CLOSED: las peticiones pasan; cada fallo de disponibilidad consecutivo suma
+ * - OPEN: tras {@code threshold} fallos seguidos las peticiones se rechazan al
+ *   instante (sin esperar timeouts) hasta que una sonda en segundo plano
+ *   confirma que la base de datos responde de nuevo
+ *
+ * No hay estado half-open con tráfico real: la recuperación la decide solo la
+ * sonda, así que ninguna petición de usuario paga el coste de comprobarla.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN }
+
+    private final int threshold;
+    private final long probeIntervalMillis;
+    private final LongSupplier clock;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+
+    /**
+     * @param threshold Fallos consecutivos que abren el circuito
+     * @param probeIntervalMillis Periodo de la sonda de recuperación (para Retry-After)
+     */
+    public CircuitBreaker(int threshold, long probeIntervalMillis) {
+        this(threshold, probeIntervalMillis, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int threshold, long probeIntervalMillis, LongSupplier clock) {
+        this.threshold = Math.max(1, threshold);
+        this.probeIntervalMillis = probeIntervalMillis;
+        this.clock = clock;
+    }
+
+    /** @return true si la petición puede ir a la base de datos */
+    public boolean allowRequest() {
+        return state == State.CLOSED;
+    }
+
+    /** Registra una operación correcta: reinicia la cuenta de fallos. */
+    public void recordSuccess() {
+        if (consecutiveFailures.get() != 0) consecutiveFailures.set(0);
+    }
+
+    /**
+     * Registra un fallo de disponibilidad.
+     *
+     * @return true si este fallo abrió el circuito
+     */
+    public boolean recordFailure() {
+        if (consecutiveFailures.incrementAndGet() >= threshold && state == State.CLOSED) {
+            synchronized (this) {
+                if (state == State.CLOSED) {
+                    openedAt = clock.getAsLong();
+                    state = State.OPEN;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Cierra el circuito (la sonda confirmó la recuperación). */
+    public synchronized void reset() {
+        consecutiveFailures.set(0);
+        state = State.CLOSED;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /** @return Milisegundos que lleva abierto el circuito (0 si está cerrado) */
+    public long openForMillis() {
+        return state == State.OPEN ? clock.getAsLong() - openedAt : 0;
+    }
+
+    /** @return Segundos sugeridos para Retry-After mientras está abierto */
+    public long retryAfterSeconds() {
+        return Math.max(1, (probeIntervalMillis + 999) / 1000);
+    }
+}
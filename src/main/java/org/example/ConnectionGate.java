@@ -0,0 +1,82 @@
+package org.example;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Semáforo justo delante de un pool de conexiones.
+ *
+ * Con hilos virtuales puede haber miles de peticiones intentando tomar una
+ * conexión a la vez; sin un límite previo todas compiten dentro del pool
+ * (reintentos, sondeos de la cola de traspaso). El semáforo deja pasar como
+ * máximo tantas peticiones como conexiones tiene el pool y encola al resto en
+ * orden FIFO con un timeout propio.
+ *
+ * La conexión devuelta libera el permiso al cerrarse (una sola vez).
+ */
+public class ConnectionGate {
+    private final Semaphore permits;
+
+    /**
+     * @param maxConnections Permisos (igual al tamaño máximo del pool)
+     */
+    public ConnectionGate(int maxConnections) {
+        this.permits = new Semaphore(Math.max(1, maxConnections), true);
+    }
+
+    /**
+     * Espera un permiso.
+     *
+     * @param timeoutMillis Espera máxima
+     * @return true si se obtuvo el permiso (hay que liberarlo con {@link #wrap} o {@link #release})
+     * @throws InterruptedException Si el hilo se interrumpe esperando
+     */
+    public boolean acquire(long timeoutMillis) throws InterruptedException {
+        return permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Devuelve un permiso obtenido con {@link #acquire} que no llegó a usarse. */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Envuelve una conexión para que su {@code close()} devuelva el permiso.
+     *
+     * @param conn Conexión obtenida del pool tras {@link #acquire}
+     * @return Conexión que libera el permiso al cerrarse
+     */
+    public Connection wrap(Connection conn) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionGate.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            conn.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) permits.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /** @return Hilos esperando un permiso */
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    /** @return Permisos libres */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+}
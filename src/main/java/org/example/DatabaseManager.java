@@ -2,25 +2,131 @@ package org.example;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.example.logging.RateLimitedLog;
+import org.example.tracing.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.example.service.ServiceBusyException;
+
 import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientConnectionException;
 import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 public class DatabaseManager {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
-    private static HikariDataSource dataSource;
 
     /**
-     * Inicializa la conexión a PostgreSQL
+     * Clases de carga de trabajo, cada una con su propio pool (bulkhead).
+     *
+     * Una consulta lenta en el catálogo o una ráfaga de logins solo agota su
+     * propio pool; las pujas conservan siempre sus conexiones.
+     */
+    public enum Pool {
+        /** Pujas y escrituras del camino de ofertas (primario) */
+        BIDS("bids", "DB_BID_POOL_SIZE", 6, "DB_BID_TIMEOUT_MS", 1000, "DB_BID_STATEMENT_TIMEOUT_MS", 2000),
+        /** Lecturas de catálogo e historial (réplica si DB_READ_URL está definida) */
+        CATALOG("catalog", "DB_READ_POOL_SIZE", 6, "DB_READ_TIMEOUT_MS", 500, "DB_READ_STATEMENT_TIMEOUT_MS", 3000),
+        /** Autenticación y administración de usuarios/items (primario) */
+        ADMIN("admin", "DB_ADMIN_POOL_SIZE", 3, "DB_ADMIN_TIMEOUT_MS", 1000, "DB_ADMIN_STATEMENT_TIMEOUT_MS", 5000);
+
+        final String poolName;
+        final String sizeEnv;
+        final int defaultSize;
+        final String timeoutEnv;
+        final long defaultTimeoutMs;
+        final String statementTimeoutEnv;
+        final long defaultStatementTimeoutMs;
+
+        Pool(String poolName, String sizeEnv, int defaultSize, String timeoutEnv, long defaultTimeoutMs,
+             String statementTimeoutEnv, long defaultStatementTimeoutMs) {
+            this.poolName = poolName;
+            this.sizeEnv = sizeEnv;
+            this.defaultSize = defaultSize;
+            this.timeoutEnv = timeoutEnv;
+            this.defaultTimeoutMs = defaultTimeoutMs;
+            this.statementTimeoutEnv = statementTimeoutEnv;
+            this.defaultStatementTimeoutMs = defaultStatementTimeoutMs;
+        }
+
+        /** @return Nombre del pool en métricas y logs */
+        public String getPoolName() {
+            return poolName;
+        }
+
+        long statementTimeoutMs() {
+            return Long.parseLong(System.getenv().getOrDefault(statementTimeoutEnv, String.valueOf(defaultStatementTimeoutMs)));
+        }
+    }
+
+    private static final Map<Pool, HikariDataSource> pools = new EnumMap<>(Pool.class);
+
+    /** Conexión única para las sondas de salud y del breaker, fuera de los bulkheads */
+    private static volatile HikariDataSource probePool;
+    private static final Map<Pool, LongAdder> rejections = new EnumMap<>(Pool.class);
+
+    /** Media móvil exponencial (α = 1/8) del tiempo de espera por conexión, en microsegundos */
+    private static final Map<Pool, AtomicLong> waitEwmaMicros = new EnumMap<>(Pool.class);
+    /** Instante (nanoTime) de la última muestra de espera de cada pool */
+    private static final Map<Pool, AtomicLong> lastWaitSampleNanos = new EnumMap<>(Pool.class);
+
+    /**
+     * Vida media de la espera media sin muestras nuevas: POOL_WAIT_HALF_LIFE_MS (1000).
+     *
+     * Sin este decaimiento, una ráfaga que dispara el control de admisión dejaría la
+     * media congelada: las peticiones descartadas no piden conexión y nunca la bajan.
+     */
+    private static final long WAIT_HALF_LIFE_NANOS =
+            Math.max(1, Long.parseLong(System.getenv().getOrDefault("POOL_WAIT_HALF_LIFE_MS", "1000"))) * 1_000_000L;
+    private static volatile LongSupplier nanoClock = System::nanoTime;
+
+    /**
+     * Circuit breaker de disponibilidad: se abre tras DB_BREAKER_FAILURES (5) fallos
+     * seguidos y una sonda cada DB_BREAKER_PROBE_MS (1000) lo cierra al recuperarse.
+     */
+    private static final CircuitBreaker breaker = new CircuitBreaker(
+            Integer.parseInt(System.getenv().getOrDefault("DB_BREAKER_FAILURES", "5")),
+            Long.parseLong(System.getenv().getOrDefault("DB_BREAKER_PROBE_MS", "1000")));
+    private static ScheduledExecutorService prober;
+
+    /** Bajo sobrecarga cada petición rechazada avisaría: como mucho un aviso por segundo */
+    private static final RateLimitedLog saturationLog = new RateLimitedLog(1000);
+
+    /** Semáforos delante de cada pool; solo se usan con hilos virtuales (ver {@link #enableConnectionGates()}) */
+    private static final Map<Pool, ConnectionGate> gates = new EnumMap<>(Pool.class);
+    private static volatile boolean gatesEnabled;
+
+    static {
+        for (Pool p : Pool.values()) {
+            rejections.put(p, new LongAdder());
+            waitEwmaMicros.put(p, new AtomicLong());
+            lastWaitSampleNanos.put(p, new AtomicLong(nanoClock.getAsLong()));
+        }
+    }
+
+    /**
+     * Inicializa la conexión a PostgreSQL.
+     *
+     * Crea un pool independiente por clase de carga (ver {@link Pool}), cada uno
+     * con su tamaño y un timeout de adquisición corto: si se agota, la petición
+     * falla rápido con 503 en lugar de esperar 30 s. El pool CATALOG usa la réplica
+     * DB_READ_URL si está definida y responde; si no, el primario.
      */
     public static void init() {
         try {
-            HikariConfig config = new HikariConfig();
-
             // Configuración de conexión a PostgreSQL
             String dbUrl = System.getenv().getOrDefault("DB_URL", "jdbc:postgresql://localhost:5432/auction_store");
             String dbUser = System.getenv().getOrDefault("DB_USER", "postgres");
@@ -34,26 +140,24 @@ public class DatabaseManager {
             logger.info("🔌 Intentando conectar a: {}", dbUrl);
             logger.info("👤 Usuario: {}", dbUser);
 
-            config.setJdbcUrl(dbUrl);
-            config.setUsername(dbUser);
-            config.setPassword(dbPassword);
-            config.setDriverClassName("org.postgresql.Driver");
-
-            // Configuración del pool de conexiones
-            config.setMaximumPoolSize(10);
-            config.setMinimumIdle(2);
-            config.setConnectionTimeout(30000);
-            config.setIdleTimeout(600000);
-            config.setMaxLifetime(1800000);
+            pools.put(Pool.BIDS, createPool(Pool.BIDS, dbUrl, dbUser, dbPassword, false));
+            pools.put(Pool.ADMIN, createPool(Pool.ADMIN, dbUrl, dbUser, dbPassword, false));
+            probePool = createProbePool(dbUrl, dbUser, dbPassword);
 
-            // Propiedades adicionales para PostgreSQL
-            config.addDataSourceProperty("cachePrepStmts", "true");
-            config.addDataSourceProperty("prepStmtCacheSize", "250");
-            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            logger.info("Conexión a PostgreSQL establecida correctamente");
 
-            dataSource = new HikariDataSource(config);
+            String readUrl = System.getenv("DB_READ_URL");
+            boolean replica = readUrl != null && !readUrl.isBlank();
+            try {
+                pools.put(Pool.CATALOG, createPool(Pool.CATALOG, replica ? readUrl : dbUrl, dbUser, dbPassword, true));
+                logger.info("📖 Pool de lectura usando {}", replica ? "réplica " + readUrl : "el primario");
+            } catch (Exception e) {
+                if (!replica) throw e;
+                logger.warn("⚠️ No se pudo conectar a la réplica de lectura ({}); se usará el primario", e.getMessage());
+                pools.put(Pool.CATALOG, createPool(Pool.CATALOG, dbUrl, dbUser, dbPassword, true));
+            }
 
-            logger.info("Conexión a PostgreSQL establecida correctamente");
+            if (gatesEnabled) createGates();
 
             // Crear las tablas
             createTables();
@@ -61,6 +165,8 @@ public class DatabaseManager {
             // Cargar datos iniciales
             loadInitialData();
 
+            startProber();
+
         } catch (Exception e) {
             logger.error("Error al conectar a PostgreSQL: {}", e.getMessage());
             logger.error("Verifica que PostgreSQL esté corriendo y que la contraseña sea correcta");
@@ -68,84 +174,321 @@ public class DatabaseManager {
         }
     }
 
+    private static HikariDataSource createPool(Pool pool, String url, String user, String password, boolean readOnly) {
+        int maxSize = Integer.parseInt(System.getenv().getOrDefault(pool.sizeEnv, String.valueOf(pool.defaultSize)));
+        long timeout = Long.parseLong(System.getenv().getOrDefault(pool.timeoutEnv, String.valueOf(pool.defaultTimeoutMs)));
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("pg-" + pool.poolName);
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setReadOnly(readOnly);
+
+        // Configuración del pool de conexiones (timeout corto: fallar rápido)
+        config.setMaximumPoolSize(maxSize);
+        config.setMinimumIdle(Math.min(2, maxSize));
+        config.setConnectionTimeout(Math.max(250, timeout));
+        config.setIdleTimeout(600000);
+        config.setMaxLifetime(1800000);
+
+        // Timeout por sentencia según la clase de carga: una consulta colgada no
+        // retiene la conexión (ni al hilo de la petición) más de lo previsto
+        config.setConnectionInitSql("SET statement_timeout = " + pool.statementTimeoutMs());
+
+        // Propiedades adicionales para PostgreSQL
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Pool de una sola conexión para {@link #ping(int)}: una ráfaga de logins que
+     * agote el pool de administración no debe hacer fallar readiness.
+     */
+    private static HikariDataSource createProbePool(String url, String user, String password) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("pg-probe");
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setReadOnly(true);
+        config.setMaximumPoolSize(1);
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(1000);
+        config.setIdleTimeout(600000);
+        config.setMaxLifetime(1800000);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Pone un semáforo justo delante de cada pool.
+     *
+     * Con hilos de plataforma el tamaño del pool de Jetty ya limita cuántas
+     * peticiones compiten por una conexión; con hilos virtuales ese límite
+     * desaparece y miles de hilos acabarían esperando dentro de Hikari. El
+     * semáforo los encola en orden y con el mismo timeout que el pool.
+     */
+    public static synchronized void enableConnectionGates() {
+        gatesEnabled = true;
+        createGates();
+    }
+
+    private static synchronized void createGates() {
+        for (Map.Entry<Pool, HikariDataSource> e : pools.entrySet()) {
+            gates.computeIfAbsent(e.getKey(), p -> new ConnectionGate(e.getValue().getMaximumPoolSize()));
+        }
+    }
+
     /**
-     * Obtiene una conexión de la base de datos
+     * Obtiene una conexión del pool de la clase de carga indicada.
+     *
+     * @param pool Clase de carga
+     * @return Conexión del pool
+     * @throws ServiceBusyException Si el pool está saturado (se traduce a 503)
+     * @throws SQLException Si la base de datos no está inicializada o falla la conexión
      */
-    public static Connection getConnection() throws SQLException {
-        if (dataSource == null) {
+    public static Connection getConnection(Pool pool) throws SQLException {
+        HikariDataSource ds = pools.get(pool);
+        if (ds == null) {
             throw new SQLException("Base de datos no inicializada. Llama a init() primero.");
         }
-        return dataSource.getConnection();
+        if (!breaker.allowRequest()) {
+            throw new ServiceBusyException("Base de datos no disponible, intenta de nuevo", breaker.retryAfterSeconds());
+        }
+        long start = System.nanoTime();
+        ConnectionGate gate = gatesEnabled ? gates.get(pool) : null;
+        if (gate != null) acquireGate(pool, gate, ds.getConnectionTimeout(), start);
+        try {
+            Connection conn = ds.getConnection();
+            recordWait(pool, System.nanoTime() - start);
+            return Tracer.traceConnection(gate != null ? gate.wrap(conn) : conn, pool.poolName, start);
+        } catch (SQLTransientConnectionException e) {
+            if (gate != null) gate.release();
+            recordWait(pool, System.nanoTime() - start);
+            rejections.get(pool).increment();
+            // Con causa: el pool no pudo abrir conexiones (BD caída), no solo saturado
+            if (e.getCause() != null) recordFailure(e);
+            long omitted = saturationLog.tryAcquire();
+            if (omitted >= 0) logger.warn("⚠️ Pool '{}' saturado: {} ({} avisos omitidos)", pool.poolName, e.getMessage(), omitted);
+            throw new ServiceBusyException("Servicio ocupado (" + pool.poolName + "), intenta de nuevo", 1);
+        } catch (SQLException | RuntimeException e) {
+            if (gate != null) gate.release();
+            throw e;
+        }
+    }
+
+    private static void acquireGate(Pool pool, ConnectionGate gate, long timeoutMillis, long start) {
+        boolean acquired;
+        try {
+            acquired = gate.acquire(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            recordWait(pool, System.nanoTime() - start);
+            rejections.get(pool).increment();
+            long omitted = saturationLog.tryAcquire();
+            if (omitted >= 0) {
+                logger.warn("⚠️ Pool '{}' saturado: {} peticiones en cola ({} avisos omitidos)",
+                        pool.poolName, gate.getQueueLength(), omitted);
+            }
+            throw new ServiceBusyException("Servicio ocupado (" + pool.poolName + "), intenta de nuevo", 1);
+        }
     }
 
     /**
-     * Crea las tablas necesarias
+     * Registra una operación correcta contra la base de datos (reinicia el breaker).
      */
-    private static void createTables() {
-        logger.info("Creando tablas...");
+    public static void recordSuccess() {
+        breaker.recordSuccess();
+    }
 
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
+    /**
+     * Registra un error de una operación. Solo cuentan para el breaker los errores
+     * de disponibilidad (conexión perdida o rechazada, servidor apagándose), no los
+     * de datos como una restricción única violada ni las sentencias canceladas por
+     * statement_timeout: una consulta lenta del catálogo no debe abrir el breaker
+     * que comparten todos los pools (ni marcar la instancia como no lista).
+     *
+     * @param e Error producido
+     */
+    public static void recordFailure(SQLException e) {
+        if (isAvailabilityError(e) && breaker.recordFailure()) {
+            logger.error("🔴 Circuit breaker abierto: la base de datos no responde ({})", e.getMessage());
+        }
+    }
 
-            // Verificar y reconstruir tabla users si tiene estructura incorrecta
-            try {
-                // Intenta verificar si la tabla existe y tiene la columna id como VARCHAR
-                ResultSet rs = stmt.executeQuery(
-                    "SELECT column_name, data_type FROM information_schema.columns WHERE table_name='users' AND column_name='id'"
-                );
-                if (rs.next()) {
-                    String dataType = rs.getString("data_type");
-                    if (!dataType.toLowerCase().contains("character")) {
-                        // Si id no es VARCHAR, recrear la tabla
-                        logger.warn("⚠️ Tabla 'users' tiene estructura incorrecta. Recreando...");
-                        stmt.execute("DROP TABLE IF EXISTS users CASCADE");
-                    }
-                }
-            } catch (Exception ex) {
-                logger.debug("No se pudo verificar estructura de users: {}", ex.getMessage());
+    static boolean isAvailabilityError(SQLException e) {
+        if (e instanceof SQLTransactionRollbackException) return false; // deadlock/serialización
+        if (e instanceof SQLTransientConnectionException || e instanceof SQLNonTransientConnectionException
+                || e instanceof SQLRecoverableException) return true;
+        // 57014 (query_canceled) y SQLTimeoutException no cuentan: la consulta fue lenta, la BD responde
+        String state = e.getSQLState();
+        if (state == null) return false;
+        return state.startsWith("08")        // connection exception
+                || state.startsWith("57P");  // admin_shutdown, crash_shutdown, cannot_connect_now
+    }
+
+    /** @return Estado del circuit breaker ("CLOSED" u "OPEN") */
+    public static String getBreakerState() {
+        return breaker.getState().name();
+    }
+
+    private static synchronized void startProber() {
+        if (prober != null) return;
+        long interval = Long.parseLong(System.getenv().getOrDefault("DB_BREAKER_PROBE_MS", "1000"));
+        prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-breaker-probe");
+            t.setDaemon(true);
+            return t;
+        });
+        prober.scheduleWithFixedDelay(DatabaseManager::probe, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /** Sonda de recuperación: solo actúa con el circuito abierto. */
+    private static void probe() {
+        if (breaker.allowRequest()) return;
+        try {
+            ping(1);
+            logger.info("🟢 Base de datos recuperada tras {} ms; cerrando circuit breaker", breaker.openForMillis());
+            breaker.reset();
+        } catch (SQLException e) {
+            logger.debug("Sonda de base de datos fallida: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Comprueba que la base de datos responde, sin pasar por el circuit breaker.
+     *
+     * Usa una conexión dedicada (no compite con login ni administración) y
+     * {@link Connection#isValid(int)} (un ping del driver), no una consulta.
+     *
+     * @param timeoutSeconds Tiempo máximo de la validación
+     * @return Latencia de la comprobación en milisegundos
+     * @throws SQLException Si no hay pool o la base de datos no responde
+     */
+    public static long ping(int timeoutSeconds) throws SQLException {
+        HikariDataSource ds = probePool;
+        if (ds == null || ds.isClosed()) {
+            throw new SQLException("Base de datos no inicializada");
+        }
+        long start = System.nanoTime();
+        try (Connection conn = ds.getConnection()) {
+            if (!conn.isValid(timeoutSeconds)) {
+                throw new SQLException("La conexión no respondió en " + timeoutSeconds + " s");
             }
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
 
-            // Crear tabla users
-            String createUsersTable = """
-                CREATE TABLE IF NOT EXISTS users (
-                    id VARCHAR(50) PRIMARY KEY,
-                    name VARCHAR(100) NOT NULL,
-                    email VARCHAR(100) NOT NULL UNIQUE,
-                    password VARCHAR(255),
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-                """;
-
-            String createItemsTable = """
-                CREATE TABLE IF NOT EXISTS items (
-                    id VARCHAR(50) PRIMARY KEY,
-                    name VARCHAR(200) NOT NULL,
-                    description TEXT,
-                    price VARCHAR(50),
-                    image_url VARCHAR(500),
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-                """;
-
-            String createOffersTable = """
-                CREATE TABLE IF NOT EXISTS offers (
-                    id SERIAL PRIMARY KEY,
-                    name VARCHAR(100) NOT NULL,
-                    email VARCHAR(100) NOT NULL,
-                    item_id VARCHAR(50) NOT NULL,
-                    amount DECIMAL(10, 2) NOT NULL,
-                    status VARCHAR(20) DEFAULT 'pending',
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE
-                )
-                """;
-
-            stmt.execute(createUsersTable);
-            stmt.execute(createItemsTable);
-            stmt.execute(createOffersTable);
-
-            logger.info("✅ Tablas creadas/verificadas correctamente");
+    static void recordWait(Pool pool, long nanos) {
+        long sample = nanos / 1000;
+        long now = nanoClock.getAsLong();
+        AtomicLong ewma = waitEwmaMicros.get(pool);
+        AtomicLong last = lastWaitSampleNanos.get(pool);
+        long prev;
+        long base;
+        do {
+            prev = ewma.get();
+            base = decay(prev, now - last.get());
+        } while (!ewma.compareAndSet(prev, base + (sample - base) / 8));
+        last.set(now);
+    }
+
+    private static long decay(long micros, long elapsedNanos) {
+        if (micros == 0 || elapsedNanos <= 0) return micros;
+        return (long) (micros * Math.pow(0.5, (double) elapsedNanos / WAIT_HALF_LIFE_NANOS));
+    }
 
+    /**
+     * Tiempo medio reciente de espera para obtener una conexión del pool.
+     *
+     * La media decae con el tiempo transcurrido desde la última muestra, así que
+     * vuelve a cero aunque nadie pida conexiones a ese pool.
+     *
+     * @param pool Clase de carga
+     * @return Espera media (EWMA) en milisegundos
+     */
+    public static double getAverageWaitMillis(Pool pool) {
+        long elapsed = nanoClock.getAsLong() - lastWaitSampleNanos.get(pool).get();
+        return decay(waitEwmaMicros.get(pool).get(), elapsed) / 1000.0;
+    }
+
+    /** Sustituye el reloj de las medias de espera (pruebas). */
+    static void setNanoClock(LongSupplier clock) {
+        nanoClock = clock;
+        for (Pool p : Pool.values()) {
+            waitEwmaMicros.get(p).set(0);
+            lastWaitSampleNanos.get(p).set(clock.getAsLong());
+        }
+    }
+
+    /**
+     * Número de hilos esperando una conexión del pool en este momento.
+     *
+     * @param pool Clase de carga
+     * @return Hilos en espera (0 si el pool no está inicializado)
+     */
+    public static int getThreadsAwaiting(Pool pool) {
+        HikariDataSource ds = pools.get(pool);
+        if (ds == null || ds.getHikariPoolMXBean() == null) return 0;
+        return ds.getHikariPoolMXBean().getThreadsAwaitingConnection() + gateQueueLength(pool);
+    }
+
+    private static int gateQueueLength(Pool pool) {
+        ConnectionGate gate = gatesEnabled ? gates.get(pool) : null;
+        return gate == null ? 0 : gate.getQueueLength();
+    }
+
+    /**
+     * Estado de saturación de cada pool.
+     *
+     * @return Por pool: conexiones activas, ociosas, hilos esperando, máximo y rechazos acumulados
+     */
+    public static Map<String, Map<String, Object>> getPoolStats() {
+        Map<String, Map<String, Object>> out = new LinkedHashMap<>();
+        for (Pool pool : Pool.values()) {
+            HikariDataSource ds = pools.get(pool);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            if (ds != null && ds.getHikariPoolMXBean() != null) {
+                stats.put("active", ds.getHikariPoolMXBean().getActiveConnections());
+                stats.put("idle", ds.getHikariPoolMXBean().getIdleConnections());
+                stats.put("waiting", ds.getHikariPoolMXBean().getThreadsAwaitingConnection() + gateQueueLength(pool));
+                stats.put("max", ds.getMaximumPoolSize());
+            }
+            stats.put("avgWaitMs", getAverageWaitMillis(pool));
+            stats.put("rejected", rejections.get(pool).sum());
+            out.put(pool.poolName, stats);
+        }
+        return out;
+    }
+
+    /**
+     * Crea/actualiza el esquema aplicando las migraciones versionadas pendientes
+     * (ver {@link MigrationRunner} y {@code src/main/resources/db/migration}).
+     */
+    private static void createTables() {
+        logger.info("Aplicando migraciones de esquema...");
+
+        try (Connection conn = getConnection(Pool.ADMIN)) {
+            // Las migraciones (p. ej. CREATE INDEX) no tienen el límite de las consultas
+            try (Statement st = conn.createStatement()) {
+                st.execute("SET statement_timeout = 0");
+            }
+            try {
+                int applied = new MigrationRunner().migrate(conn);
+                logger.info("✅ Esquema actualizado ({} migraciones nuevas)", applied);
+            } finally {
+                try (Statement st = conn.createStatement()) {
+                    st.execute("SET statement_timeout = " + Pool.ADMIN.statementTimeoutMs());
+                }
+            }
         } catch (SQLException e) {
             logger.error("Error al crear tablas", e);
             throw new RuntimeException("Error al crear tablas", e);
@@ -158,7 +501,7 @@ public class DatabaseManager {
     private static void loadInitialData() {
         logger.info("Cargando datos iniciales...");
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection(Pool.ADMIN);
              Statement stmt = conn.createStatement()) {
 
             // Verificar si ya hay items
@@ -182,17 +525,27 @@ public class DatabaseManager {
      * Cierra la conexión a la base de datos
      */
     public static void close() {
-        if (dataSource != null && !dataSource.isClosed()) {
-            dataSource.close();
-            logger.info("Conexión a PostgreSQL cerrada");
+        synchronized (DatabaseManager.class) {
+            if (prober != null) prober.shutdownNow();
+            prober = null;
+        }
+        boolean closed = false;
+        for (HikariDataSource ds : pools.values()) {
+            if (ds != null && !ds.isClosed()) {
+                ds.close();
+                closed = true;
+            }
         }
+        HikariDataSource probe = probePool;
+        if (probe != null && !probe.isClosed()) probe.close();
+        if (closed) logger.info("Conexión a PostgreSQL cerrada");
     }
 
     /**
      * Método de prueba - ejecuta una consulta simple
      */
     public static void testConnection() {
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection(Pool.ADMIN);
              Statement stmt = conn.createStatement()) {
 
             var rs = stmt.executeQuery("SELECT version()");
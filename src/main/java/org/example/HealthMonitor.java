@@ -0,0 +1,167 @@
+package org.example;
+
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Estado de salud del servicio, calculado en segundo plano.
+ *
+ * Responsabilidades:
+ * - Comprobar las dependencias (PostgreSQL, pools, circuit breaker) cada
+ *   HEALTH_REFRESH_MS (2000 por defecto) en un hilo propio
+ * - Servir el último resultado ya serializado: las sondas del orquestador no
+ *   toman conexiones, y la comprobación periódica usa una conexión dedicada
+ *   ({@link DatabaseManager#ping(int)}), no los pools del tráfico real
+ * - Distinguir liveness (el proceso atiende peticiones) de readiness (puede
+ *   servir tráfico: base de datos accesible y circuito cerrado)
+ *
+ * Si el resultado cacheado es más antiguo que tres periodos (el hilo de
+ * comprobación está bloqueado), readiness se reporta como no disponible.
+ */
+public class HealthMonitor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(HealthMonitor.class);
+    private static final Gson gson = new Gson();
+    private static final String LIVE_JSON = "{\"status\":\"UP\"}";
+
+    /** Resultado inmutable de una comprobación */
+    private static final class Snapshot {
+        final boolean ready;
+        final long checkedAt;
+        final String json;
+
+        Snapshot(boolean ready, long checkedAt, String json) {
+            this.ready = ready;
+            this.checkedAt = checkedAt;
+            this.json = json;
+        }
+    }
+
+    private final Callable<Long> databasePing;
+    private final Supplier<String> breakerState;
+    private final Supplier<Map<String, Map<String, Object>>> poolStats;
+    private final long refreshMillis;
+    private final LongSupplier clock;
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param databasePing Comprobación de la base de datos (latencia en ms), o null si no se usa BD
+     * @param breakerState Estado del circuit breaker
+     * @param poolStats Estadísticas de los pools
+     * @param refreshMillis Periodo de refresco
+     */
+    HealthMonitor(Callable<Long> databasePing, Supplier<String> breakerState,
+                  Supplier<Map<String, Map<String, Object>>> poolStats, long refreshMillis, LongSupplier clock) {
+        this.databasePing = databasePing;
+        this.breakerState = breakerState;
+        this.poolStats = poolStats;
+        this.refreshMillis = refreshMillis;
+        this.clock = clock;
+        this.snapshot = new Snapshot(false, clock.getAsLong(), "{\"status\":\"STARTING\"}");
+    }
+
+    /**
+     * Crea el monitor para el motor de almacenamiento en uso.
+     *
+     * @param databaseEnabled false con el motor en memoria (no hay PostgreSQL que comprobar)
+     * @return Monitor sin arrancar
+     */
+    public static HealthMonitor create(boolean databaseEnabled) {
+        long refresh = Long.parseLong(System.getenv().getOrDefault("HEALTH_REFRESH_MS", "2000"));
+        return new HealthMonitor(databaseEnabled ? () -> DatabaseManager.ping(1) : null,
+                DatabaseManager::getBreakerState, DatabaseManager::getPoolStats, refresh, System::currentTimeMillis);
+    }
+
+    /** Hace una primera comprobación y programa las siguientes. */
+    public synchronized HealthMonitor start() {
+        if (scheduler != null) return this;
+        refresh();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "health-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /** Recalcula el estado de las dependencias y reemplaza el resultado cacheado. */
+    void refresh() {
+        try {
+            Map<String, Object> db = new LinkedHashMap<>();
+            Map<String, Map<String, Object>> pools = null;
+            boolean ready;
+
+            if (databasePing == null) {
+                db.put("status", "IN_MEMORY");
+                ready = true;
+            } else {
+                String breaker = breakerState.get();
+                db.put("breaker", breaker);
+                try {
+                    db.put("latencyMs", databasePing.call());
+                    db.put("status", "UP");
+                    ready = "CLOSED".equals(breaker);
+                } catch (Exception e) {
+                    db.put("status", "DOWN");
+                    db.put("error", e.getMessage());
+                    ready = false;
+                }
+                pools = poolStats.get();
+            }
+
+            long now = clock.getAsLong();
+            Map<String, Object> health = new LinkedHashMap<>();
+            health.put("status", ready ? "UP" : "DOWN");
+            health.put("checkedAt", now);
+            health.put("database", db);
+            if (pools != null) health.put("pools", pools);
+
+            Snapshot previous = snapshot;
+            snapshot = new Snapshot(ready, now, gson.toJson(health));
+            if (previous.ready != ready) {
+                logger.info("{} Readiness: {}", ready ? "🟢" : "🔴", ready ? "UP" : "DOWN");
+            }
+        } catch (Exception e) {
+            logger.warn("⚠️ Error al refrescar el estado de salud: {}", e.getMessage());
+        }
+    }
+
+    /** @return true si el proceso puede servir tráfico según la última comprobación vigente */
+    public boolean isReady() {
+        Snapshot s = snapshot;
+        return s.ready && !isStale(s);
+    }
+
+    /** @return JSON de liveness (constante: si responde, está vivo) */
+    public String livenessJson() {
+        return LIVE_JSON;
+    }
+
+    /** @return JSON con el detalle de la última comprobación */
+    public String readinessJson() {
+        Snapshot s = snapshot;
+        if (!isStale(s)) return s.json;
+        return "{\"status\":\"DOWN\",\"reason\":\"stale\",\"checkedAt\":" + s.checkedAt + "}";
+    }
+
+    private boolean isStale(Snapshot s) {
+        return clock.getAsLong() - s.checkedAt > refreshMillis * 3;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) scheduler.shutdownNow();
+        scheduler = null;
+    }
+}
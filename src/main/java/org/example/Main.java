@@ -7,7 +7,20 @@ import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
 
+import org.example.controller.AdmissionController;
+import org.example.controller.Compression;
+import org.example.controller.EntityTags;
+import org.example.controller.MetricsEndpoint;
+import org.example.controller.PageCache;
+import org.example.controller.StaticAssets;
+import org.example.controller.TemplateRenderer;
 import org.example.controller.PriceUpdateWebSocket;
+import org.example.logging.AccessLog;
+import org.example.metrics.BidEvent;
+import org.example.metrics.HttpMetrics;
+import org.example.tracing.Tracer;
+import org.example.repository.DegradedReads;
+import org.example.repository.Repositories;
 import org.example.model.Item;
 import org.example.model.Offer;
 import org.example.model.User;
@@ -16,13 +29,16 @@ import org.example.service.OfferService;
 import org.example.service.UserService;
 import org.example.service.AuthService;
 import org.example.service.SessionManager;
+import org.example.service.LoginThrottle;
+import org.example.service.ServiceBusyException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import spark.ModelAndView;
-import spark.template.mustache.MustacheTemplateEngine;
+import spark.Route;
 
 import java.util.*;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -73,6 +89,9 @@ public class Main {
             }
         }
 
+        // Hilos virtuales para las peticiones (opt-in con SERVER_THREADS=virtual, Java 21+)
+        VirtualThreadPool virtualPool = VirtualThreadPool.installIfEnabled();
+
         port(finalPort);
         logger.info("Puerto configurado para el servidor: {}", finalPort);
 
@@ -80,33 +99,94 @@ public class Main {
         // ===============================
         // 🗄️ INICIALIZACIÓN BASE DE DATOS
         // ===============================
-        try {
-            logger.info("🚀 Inicializando conexión con PostgreSQL...");
-            DatabaseManager.init();
-            DatabaseManager.testConnection();
-            logger.info("✅ Base de datos lista para usar");
-        } catch (Exception e) {
-            logger.error("❌ Error al inicializar la base de datos", e);
-            logger.error("💡 Verifica que PostgreSQL esté corriendo y la contraseña sea correcta");
-            System.exit(1);
+        Repositories repositories = Repositories.fromEnv();
+        if (!repositories.isInMemory()) {
+            try {
+                logger.info("🚀 Inicializando conexión con PostgreSQL...");
+                DatabaseManager.init();
+                DatabaseManager.testConnection();
+                logger.info("✅ Base de datos lista para usar");
+            } catch (Exception e) {
+                logger.error("❌ Error al inicializar la base de datos", e);
+                logger.error("💡 Verifica que PostgreSQL esté corriendo y la contraseña sea correcta");
+                System.exit(1);
+            }
         }
 
+        HealthMonitor healthMonitor = HealthMonitor.create(!repositories.isInMemory()).start();
+
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("🔌 Cerrando conexión a base de datos...");
+            healthMonitor.close();
+            repositories.close();
             DatabaseManager.close();
         }));
 
         // ===============================
         // 🧩 SERVICIOS
         // ===============================
-        UserService userService = new UserService();
-        ItemService itemService = new ItemService();
-        OfferService offerService = new OfferService();
+        UserService userService = new UserService(repositories.users());
+        ItemService itemService = new ItemService(repositories.items());
+        OfferService offerService = new OfferService(repositories.offers());
         AuthService authService = new AuthService(userService);
+        LoginThrottle loginThrottle = new LoginThrottle();
         SessionManager sessionManager = new SessionManager(userService);
+        if (sessionManager.isStateless()) {
+            PriceUpdateWebSocket.setSessionTokenVerifier(SessionManager.COOKIE_NAME, sessionManager::verifyToken);
+            logger.info("🔐 Modo de sesión sin estado (cookie firmada HMAC)");
+        }
+        // Email del usuario de cada WebSocket, resuelto al conectar (caché de vistas, sin contraseña)
+        PriceUpdateWebSocket.setUserEmailResolver(id -> {
+            User user = userService.getForView(id);
+            return user != null ? user.getEmail() : null;
+        });
 
-        // Archivos estáticos (CSS/JS)
+        // Archivos estáticos (CSS/JS): las URLs sin huella solo se cachean 10 minutos
         staticFiles.location("/public");
+        staticFiles.expireTime(600);
+
+        // Estáticos con huella y precomprimidos, cacheables indefinidamente
+        StaticAssets assets = new StaticAssets("/public");
+        get(StaticAssets.PREFIX + ":file", assets::serve);
+
+        // Métricas por ruta (primer filtro: mide también las peticiones descartadas)
+        HttpMetrics httpMetrics = new HttpMetrics();
+        before(httpMetrics::start);
+        // Marca de lecturas degradadas (datos de respaldo) por petición
+        before((req, res) -> DegradedReads.reset());
+        // Traza por petición (JDBC, espera de pool, render); las lentas quedan en /status/traces
+        before(Tracer::begin);
+
+        // Control de admisión: descartar pronto la carga no prioritaria, priorizando pujas
+        AdmissionController admission = AdmissionController.fromEnv();
+        before(admission::admit);
+
+        // Access log asíncrono y muestreado (antes de finish, que cierra la medición)
+        AccessLog accessLog = AccessLog.fromEnv();
+        // Cierre de la petición en un único filtro: si un paso falla, los siguientes
+        // se ejecutan igualmente (no se filtra la traza del hilo ni el cupo de admisión)
+        afterAfter((req, res) -> {
+            try {
+                accessLog.log(req, res);
+            } finally {
+                try {
+                    httpMetrics.finish(req, res);
+                } finally {
+                    try {
+                        Tracer.end(req, res);
+                    } finally {
+                        admission.complete(req);
+                    }
+                }
+            }
+        });
+
+        // Plantillas compiladas una vez y compartidas por todas las rutas HTML
+        TemplateRenderer templates = TemplateRenderer.fromEnv(Map.of("asset", assets.urls()));
+
+        // Páginas de catálogo cacheadas para visitantes anónimos (se invalidan con cada escritura de items)
+        PageCache pageCache = PageCache.fromEnv(itemService::getCatalogVersion,
+                req -> sessionManager.getLoggedUserId(req) == null);
 
         // Rutas de autenticación (HTML)
         get("/login", (req, res) -> {
@@ -118,11 +198,18 @@ public class Main {
             }
             model.put("currentUser", sessionManager.getLoggedUser(req));
             return new ModelAndView(model, "login.mustache");
-        }, new MustacheTemplateEngine());
+        }, templates.engine());
 
         post("/login", (req, res) -> {
             String email = req.queryParams("email");
             String password = req.queryParams("password");
+            // Rechazar tráfico abusivo antes de tocar la BD o el pool de hashing
+            long loginRetryAfter = loginThrottle.checkLogin(loginThrottle.clientIp(req), email);
+            if (loginRetryAfter > 0) {
+                res.status(429);
+                res.header("Retry-After", String.valueOf(loginRetryAfter));
+                return "Demasiados intentos de inicio de sesión. Intenta de nuevo más tarde.";
+            }
             if (email == null || password == null) {
                 req.session(true).attribute("loginError", "Email y password son requeridos");
                 res.redirect("/login");
@@ -134,7 +221,7 @@ public class Main {
                 res.redirect("/login");
                 return null;
             }
-            sessionManager.loginUser(req, u);
+            sessionManager.loginUser(req, res, u);
             res.redirect("/items");
             return null;
         });
@@ -149,12 +236,18 @@ public class Main {
             }
             model.put("currentUser", sessionManager.getLoggedUser(req));
             return new ModelAndView(model, "register.mustache");
-        }, new MustacheTemplateEngine());
+        }, templates.engine());
 
         post("/register", (req, res) -> {
             String name = req.queryParams("name");
             String email = req.queryParams("email");
             String password = req.queryParams("password");
+            long registerRetryAfter = loginThrottle.checkRegister(loginThrottle.clientIp(req));
+            if (registerRetryAfter > 0) {
+                res.status(429);
+                res.header("Retry-After", String.valueOf(registerRetryAfter));
+                return "Demasiados intentos de registro. Intenta de nuevo más tarde.";
+            }
             if (name == null || email == null || password == null) {
                 req.session(true).attribute("registerError", "name,email,password son requeridos");
                 res.redirect("/register");
@@ -163,7 +256,7 @@ public class Main {
             try {
                 String id = UUID.randomUUID().toString();
                 User user = authService.register(id, name, email, password);
-                sessionManager.loginUser(req, user);
+                sessionManager.loginUser(req, res, user);
                 res.redirect("/items");
                 return null;
             } catch (IllegalArgumentException ex) {
@@ -174,7 +267,7 @@ public class Main {
         });
 
         get("/logout", (req, res) -> {
-            sessionManager.logout(req);
+            sessionManager.logout(req, res);
             res.redirect("/items");
             return null;
         });
@@ -186,7 +279,24 @@ public class Main {
 
         // --- Usuarios ---
         path("/users", () -> {
-            get("", (req, res) -> gson.toJson(userService.getAll()));
+            // Listado paginado por cursor: ?limit=50&cursor=<nextCursor>
+            get("", (req, res) -> {
+                int limit = 50;
+                String limitP = req.queryParams("limit");
+                try {
+                    if (limitP != null && !limitP.isBlank()) limit = Math.max(1, Math.min(200, Integer.parseInt(limitP)));
+                } catch (NumberFormatException ignored) {}
+                try {
+                    UserService.UserPage page = userService.listPage(req.queryParams("cursor"), limit);
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("users", page.getUsers());
+                    response.put("nextCursor", page.getNextCursor());
+                    return gson.toJson(response);
+                } catch (IllegalArgumentException e) {
+                    res.status(400);
+                    return gson.toJson(new Message(e.getMessage()));
+                }
+            });
 
             get("/:id", (req, res) -> {
                 String id = req.params(":id");
@@ -195,6 +305,7 @@ public class Main {
                     res.status(404);
                     return gson.toJson(new Message("User not found"));
                 }
+                u.setPassword(null); // nunca exponer el hash
                 return gson.toJson(u);
             });
 
@@ -213,6 +324,7 @@ public class Main {
                     user.setId(id);
                     userService.add(user);
                     res.status(201);
+                    user.setPassword(null);
                     return gson.toJson(user);
                 } catch (JsonSyntaxException e) {
                     res.status(400);
@@ -230,6 +342,7 @@ public class Main {
                     User user = gson.fromJson(req.body(), User.class);
                     user.setId(id);
                     userService.update(id, user);
+                    user.setPassword(null);
                     return gson.toJson(user);
                 } catch (JsonSyntaxException e) {
                     res.status(400);
@@ -252,6 +365,8 @@ public class Main {
         // --- Items ---
         path("/api/items", () -> {
             get("", (req, res) -> {
+                // GET condicional: 304 sin consultar ni serializar si la versión no cambió
+                if (EntityTags.notModified(req, res, itemService.getSharedVersion())) return "";
                 // Support query params: q (search), minPrice, maxPrice
                 String q = req.queryParams("q");
                 String minP = req.queryParams("minPrice");
@@ -287,11 +402,12 @@ public class Main {
                     m.put("price", it.getPrice());
                     out.add(m);
                 }
-                return gson.toJson(out);
+                return EntityTags.respond(req, res, gson.toJson(out));
             });
 
             get("/:id", (req, res) -> {
                 String id = req.params(":id");
+                if (EntityTags.notModified(req, res, itemService.getSharedVersion())) return "";
                 logger.debug("GET /api/items/:id requested id={}", id);
                 Item it = itemService.get(id);
                 if (it == null) logger.debug("API item not found: {}", id);
@@ -300,7 +416,7 @@ public class Main {
                     res.status(404);
                     return gson.toJson(new Message("Item not found"));
                 }
-                return gson.toJson(it);
+                return EntityTags.respond(req, res, gson.toJson(it));
             });
 
             post("", (req, res) -> {
@@ -346,6 +462,7 @@ public class Main {
                     return gson.toJson(new Message("Item not found"));
                 }
                 itemService.delete(id);
+                templates.invalidate(id);
                 res.status(204);
                 return "";
             });
@@ -379,6 +496,8 @@ public class Main {
                     res.status(200);
                     return gson.toJson(Map.of("success", true, "itemId", id, "newPrice", newPrice));
 
+                } catch (ServiceBusyException e) {
+                    throw e;
                 } catch (Exception e) {
                     res.status(500);
                     return gson.toJson(new Message("Error updating price: " + e.getMessage()));
@@ -390,25 +509,34 @@ public class Main {
         // --- Ofertas ---
         path("/api/offers", () -> {
             post("", (req, res) -> {
+                // Evento JFR de la puja (sin coste si la grabación no lo habilita)
+                BidEvent bid = new BidEvent();
+                bid.begin();
+                String bidItemId = null;
+                String outcome = BidEvent.ERROR;
                 try {
                     Offer offer = gson.fromJson(req.body(), Offer.class);
                     if (offer == null || offer.getName() == null || offer.getEmail() == null ||
                         offer.getId() == null || offer.getAmount() <= 0) {
+                        outcome = BidEvent.INVALID;
                         res.status(400);
                         return gson.toJson(new Message("Invalid offer data"));
                     }
+                    bidItemId = offer.getId();
 
                     if (!itemService.exists(offer.getId())) {
+                        outcome = BidEvent.UNKNOWN_ITEM;
                         res.status(404);
                         return gson.toJson(new Message("Item not found"));
                     }
 
                     // VALIDACIÓN: la oferta debe ser estrictamente mayor que el precio actual
                     Double currentPrice = itemService.getPriceAsDouble(offer.getId());
-                    Offer highestExisting = offerService.getHighestOffer(offer.getId());
+                    Offer highestExisting = offerService.getHighestOfferForBid(offer.getId());
                     double highestOfferAmount = highestExisting != null ? highestExisting.getAmount() : 0.0;
                     double baseline = Math.max(currentPrice != null ? currentPrice : 0.0, highestOfferAmount);
                     if (offer.getAmount() <= baseline) {
+                        outcome = BidEvent.TOO_LOW;
                         res.status(400);
                         String msg = String.format("La oferta debe ser mayor que el precio actual (%.2f).", baseline);
                         return gson.toJson(new Message(msg));
@@ -416,6 +544,7 @@ public class Main {
 
                     // Guardar la oferta
                     offerService.add(offer);
+                    outcome = BidEvent.ACCEPTED;
 
                     // Formatear el nuevo precio
                     String newPrice = String.format("$%.2f USD", offer.getAmount());
@@ -426,6 +555,12 @@ public class Main {
                     // Notificar a través de WebSocket
                     PriceUpdateWebSocket.notifyPriceChange(offer.getId(), newPrice);
 
+                    // Aviso privado al postor que tenía la oferta más alta (solo si tiene cuenta)
+                    if (highestExisting != null && highestExisting.getEmail() != null
+                            && !highestExisting.getEmail().equalsIgnoreCase(offer.getEmail())) {
+                        PriceUpdateWebSocket.notifyOutbid(highestExisting.getEmail(), offer.getId(), newPrice);
+                    }
+
                     // Devolver respuesta con el precio actualizado y la oferta guardada
                     Map<String, Object> response = new HashMap<>();
                     response.put("success", true);
@@ -437,12 +572,18 @@ public class Main {
                     return gson.toJson(response);
 
                 } catch (JsonSyntaxException e) {
+                    outcome = BidEvent.INVALID;
                     res.status(400);
                     return gson.toJson(new Message("Invalid JSON"));
+                } catch (ServiceBusyException e) {
+                    if (!BidEvent.ACCEPTED.equals(outcome)) outcome = BidEvent.BUSY;
+                    throw e; // 503 + Retry-After (manejador global)
                 } catch (Exception e) {
                     logger.error("Error processing offer", e);
                     res.status(500);
                     return gson.toJson(new Message("Server error: " + e.getMessage()));
+                } finally {
+                    bid.commit(bidItemId, outcome);
                 }
             });
 
@@ -454,19 +595,21 @@ public class Main {
 
             get("/item/:itemId", (req, res) -> {
                 String itemId = req.params(":itemId");
+                // La versión del catálogo también cambia con cada oferta insertada
+                if (EntityTags.notModified(req, res, itemService.getSharedVersion())) return "";
                 List<Offer> offers = offerService.getByItemId(itemId);
                 Map<String, Object> response = new HashMap<>();
                 response.put("itemId", itemId);
                 response.put("count", offers.size());
                 response.put("offers", offers);
-                return gson.toJson(response);
+                return EntityTags.respond(req, res, gson.toJson(response));
             });
         });
 
         // ===============================
         // 🌐 RUTAS HTML (Mustache)
         // ===============================
-        get("/items", (req, res) -> {
+        get("/items", (req, res) -> pageCache.serve(req, res, () -> {
             Map<String, Object> model = new HashMap<>();
             // Support query params for server-side rendering as well
             String q = req.queryParams("q");
@@ -476,16 +619,20 @@ public class Main {
             try { if (minP != null && !minP.isBlank()) min = Double.parseDouble(minP); } catch (NumberFormatException ignored) {}
             try { if (maxP != null && !maxP.isBlank()) max = Double.parseDouble(maxP); } catch (NumberFormatException ignored) {}
 
-            if ((q != null && !q.isBlank()) || min != null || max != null) {
-                model.put("items", itemService.getFiltered(q, min, max));
-            } else {
-                model.put("items", itemService.getAll());
+            Collection<Item> items = ((q != null && !q.isBlank()) || min != null || max != null)
+                    ? itemService.getFiltered(q, min, max)
+                    : itemService.getAll();
+            List<String> cards = new ArrayList<>(items.size());
+            for (Item it : items) {
+                cards.add(templates.fragment("item-card.mustache", it.getId(),
+                        TemplateRenderer.itemVersion(it.getName(), it.getDescription(), it.getPrice()), it));
             }
+            model.put("cards", cards);
             model.put("currentUser", sessionManager.getLoggedUser(req));
-            return new ModelAndView(model, "items-list.mustache");
-        }, new MustacheTemplateEngine());
+            return templates.render("items-list.mustache", model);
+        }));
 
-        get("/items/:id", (req, res) -> {
+        get("/items/:id", (req, res) -> pageCache.serve(req, res, () -> {
             String id = req.params(":id");
             logger.debug("GET /items/:id requested id={}", id);
             Item item = itemService.get(id);
@@ -497,21 +644,24 @@ public class Main {
                 res.status(404);
                 model.put("name", "Item no encontrado");
                 model.put("errorMessage", "Item con id '" + id + "' no fue encontrado.");
+                model.put("summaryHtml", templates.render("item-summary.mustache", model));
                 model.put("currentUser", sessionManager.getLoggedUser(req));
-                return new ModelAndView(model, "item-detail.mustache");
+                return templates.render("item-detail.mustache", model);
             }
 
             model.put("id", item.getId());
             model.put("name", item.getName());
             model.put("description", item.getDescription());
             model.put("price", item.getPrice());
+            model.put("summaryHtml", templates.fragment("item-summary.mustache", item.getId(),
+                    TemplateRenderer.itemVersion(item.getName(), item.getDescription(), item.getPrice()), item));
             List<Offer> offers = offerService.getByItemId(id);
             model.put("offerCount", offers.size());
             Offer highest = offerService.getHighestOffer(id);
             if (highest != null) model.put("highestOffer", highest.getAmount());
             model.put("currentUser", sessionManager.getLoggedUser(req));
-            return new ModelAndView(model, "item-detail.mustache");
-        }, new MustacheTemplateEngine());
+            return templates.render("item-detail.mustache", model);
+        }));
 
         get("/offers", (req, res) -> {
             Map<String, Object> model = new HashMap<>();
@@ -531,26 +681,61 @@ public class Main {
             model.put("totalOffers", viewOffers.size());
             model.put("currentUser", sessionManager.getLoggedUser(req));
             return new ModelAndView(model, "offers-list.mustache");
-        }, new MustacheTemplateEngine());
+        }, templates.engine());
 
         get("/", (req, res) -> {
             res.redirect("/items");
             return null;
         });
 
+        // --- Saturación de los pools de conexiones (bulkheads) ---
+        get("/status/pools", (req, res) -> {
+            res.type("application/json");
+            return gson.toJson(DatabaseManager.getPoolStats());
+        });
+
+        get("/status/admission", (req, res) -> {
+            res.type("application/json");
+            return gson.toJson(admission.getStats());
+        });
+
+        // --- Trazas lentas recientes (spans por sentencia SQL y render) ---
+        get("/status/traces", (req, res) -> {
+            res.type("application/json");
+            return gson.toJson(Tracer.slowTraces());
+        });
+
+        get("/status/caches", (req, res) -> {
+            res.type("application/json");
+            Map<String, Object> caches = new LinkedHashMap<>();
+            caches.put("pages", pageCache.getStats());
+            caches.put("fragments", templates.getStats());
+            return gson.toJson(caches);
+        });
+
+        // --- Métricas en formato Prometheus ---
+        Map<String, Supplier<Map<String, Object>>> cacheStats = new LinkedHashMap<>();
+        cacheStats.put("pages", pageCache::getStats);
+        cacheStats.put("fragments", templates::getStats);
+        MetricsEndpoint metrics = new MetricsEndpoint(httpMetrics, admission, cacheStats, !repositories.isInMemory());
+        get("/metrics", metrics::render);
+
         // --- Health check ---
-        get("/health", (req, res) -> {
-            Map<String, Object> health = new HashMap<>();
-            health.put("status", "UP");
-            try {
-                DatabaseManager.testConnection();
-                health.put("dbConnection", "OK");
-            } catch (Exception e) {
-                health.put("dbConnection", "ERROR: " + e.getMessage());
-            }
-            return gson.toJson(health);
+        // Liveness: el proceso responde (no toca dependencias)
+        get("/health/live", (req, res) -> {
+            res.type("application/json");
+            return healthMonitor.livenessJson();
         });
 
+        // Readiness: resultado cacheado por HealthMonitor; 503 si no puede servir tráfico
+        Route readiness = (req, res) -> {
+            res.type("application/json");
+            if (!healthMonitor.isReady()) res.status(503);
+            return healthMonitor.readinessJson();
+        };
+        get("/health/ready", readiness);
+        get("/health", readiness);
+
         // Nueva ruta: servir la página de capturas que muestra las pruebas
         get("/capturas", (req, res) -> {
             res.type("text/html; charset=utf-8");
@@ -625,13 +810,32 @@ public class Main {
             return gson.toJson(new Message("Internal server error"));
         });
 
+        exception(ServiceBusyException.class, (e, req, res) -> {
+            res.status(503);
+            res.header("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            res.type("application/json");
+            res.body(gson.toJson(new Message(e.getMessage())));
+        });
+
         exception(Exception.class, (e, req, res) -> {
             logger.error("Unhandled exception", e);
             res.status(500);
             res.body(gson.toJson(new Message("Server error: " + e.getMessage())));
         });
 
-        after((req, res) -> logger.info("{} {} -> {}", req.requestMethod(), req.pathInfo(), res.status()));
+        // Gzip para respuestas dinámicas grandes (listados JSON, páginas HTML)
+        Compression compression = Compression.fromEnv();
+        after(compression::compressLarge);
+
+        // Tabla de rutas para las métricas (patrones de Spark, no rutas concretas)
+        httpMetrics.registerRoutes(routes());
+
+        // Acceptors y selectores ya arrancaron en hilos de plataforma; a partir de
+        // aquí cada petición se ejecuta en su propio hilo virtual
+        if (virtualPool != null) {
+            awaitInitialization();
+            virtualPool.startDispatching();
+        }
 
         // ===============================
         // 🟢 MENSAJE DE INICIO
@@ -0,0 +1,189 @@
+package org.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ejecuta migraciones de esquema versionadas y con checksum.
+ *
+ * Responsabilidades:
+ * - Aplicar en orden, una sola vez, los scripts {@code V<n>__<descripción>.sql}
+ * - Registrar versión, descripción y checksum SHA-256 en la tabla schema_migrations
+ * - Fallar el arranque si un script ya aplicado fue modificado (checksum distinto)
+ * - Serializar instancias concurrentes con un advisory lock de PostgreSQL
+ *
+ * Un script cuya primera línea es {@code -- migration:optional} no detiene el
+ * arranque si falla: se revierte, no se registra y se reintenta en el siguiente.
+ *
+ * @see DatabaseManager
+ */
+public class MigrationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MigrationRunner.class);
+    private static final String OPTIONAL_MARKER = "-- migration:optional";
+    private static final long ADVISORY_LOCK_KEY = 7_431_001L;
+
+    /** Scripts de la aplicación, en orden de versión */
+    static final List<String> APP_MIGRATIONS = List.of(
+            "V1__create_tables.sql",
+            "V2__hot_path_indexes.sql",
+            "V3__user_search_trgm.sql",
+            "V4__catalog_version.sql"
+    );
+
+    private final String location;
+    private final List<String> scripts;
+
+    /** Crea el runner con las migraciones de la aplicación ({@code /db/migration}). */
+    public MigrationRunner() {
+        this("/db/migration", APP_MIGRATIONS);
+    }
+
+    /**
+     * @param location Carpeta del classpath que contiene los scripts
+     * @param scripts Nombres de los scripts en orden de versión
+     */
+    MigrationRunner(String location, List<String> scripts) {
+        this.location = location;
+        this.scripts = scripts;
+    }
+
+    /**
+     * Aplica las migraciones pendientes.
+     *
+     * @param conn Conexión a usar (se restaura su modo autocommit al terminar)
+     * @return Número de migraciones aplicadas en esta ejecución
+     * @throws SQLException Si una migración obligatoria falla
+     * @throws IllegalStateException Si el checksum de una migración aplicada cambió
+     */
+    public int migrate(Connection conn) throws SQLException {
+        boolean postgres = conn.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        boolean autoCommit = conn.getAutoCommit();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_migrations (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(200) NOT NULL,
+                    checksum VARCHAR(64) NOT NULL,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """);
+            if (postgres) stmt.execute("SELECT pg_advisory_lock(" + ADVISORY_LOCK_KEY + ")");
+            try {
+                return applyPending(conn);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+                if (postgres) stmt.execute("SELECT pg_advisory_unlock(" + ADVISORY_LOCK_KEY + ")");
+            }
+        }
+    }
+
+    private int applyPending(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rs.next()) applied.put(rs.getInt(1), rs.getString(2));
+        }
+
+        int count = 0;
+        for (String script : scripts) {
+            int version = parseVersion(script);
+            String description = script.substring(script.indexOf("__") + 2, script.length() - 4).replace('_', ' ');
+            String sql = load(script);
+            String checksum = sha256(sql);
+
+            String existing = applied.get(version);
+            if (existing != null) {
+                if (!existing.equals(checksum)) {
+                    throw new IllegalStateException("La migración " + script
+                            + " ya aplicada fue modificada (checksum distinto)");
+                }
+                continue;
+            }
+
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String statement : split(sql)) stmt.execute(statement);
+                try (PreparedStatement ins = conn.prepareStatement(
+                        "INSERT INTO schema_migrations (version, description, checksum) VALUES (?, ?, ?)")) {
+                    ins.setInt(1, version);
+                    ins.setString(2, description);
+                    ins.setString(3, checksum);
+                    ins.executeUpdate();
+                }
+                conn.commit();
+                count++;
+                logger.info("✅ Migración aplicada: V{} {}", version, description);
+            } catch (SQLException e) {
+                conn.rollback();
+                if (sql.startsWith(OPTIONAL_MARKER)) {
+                    logger.warn("⚠️ Migración opcional V{} no aplicada: {}", version, e.getMessage());
+                    continue;
+                }
+                logger.error("❌ Error aplicando migración {}", script, e);
+                throw e;
+            }
+        }
+        return count;
+    }
+
+    private static int parseVersion(String script) {
+        if (!script.startsWith("V") || !script.contains("__") || !script.endsWith(".sql")) {
+            throw new IllegalArgumentException("Nombre de migración inválido: " + script);
+        }
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    private String load(String script) {
+        String path = location + "/" + script;
+        try (InputStream is = MigrationRunner.class.getResourceAsStream(path)) {
+            if (is == null) throw new IllegalStateException("Migración no encontrada en el classpath: " + path);
+            // Normalizar fin de línea para que el checksum no dependa del SO
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer la migración " + path, e);
+        }
+    }
+
+    /** Separa el script en sentencias terminadas en ';' al final de línea, ignorando comentarios. */
+    static List<String> split(String sql) {
+        List<String> out = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().trim();
+                out.add(statement.substring(0, statement.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) out.add(current.toString().trim());
+        return out;
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Pool de hilos de Jetty que ejecuta las peticiones en hilos virtuales.
+ *
+ * Jetty 9.4 (el que trae Spark) no conoce los hilos virtuales: los acceptors y
+ * selectores son tareas largas que deben seguir en hilos de plataforma. Por eso:
+ * - Todo lo que Jetty lanza durante el arranque (acceptors, selectores) va al
+ *   QueuedThreadPool de plataforma heredado
+ * - Tras {@link #startDispatching()} cada tarea nueva (el manejo de una
+ *   petición, incluidos filtros y rutas de Spark) se ejecuta en un hilo virtual
+ * - No hay hilos reservados: el selector nunca cede su hilo para consumir una
+ *   tarea, así que siempre permanece en plataforma
+ *
+ * Requiere Java 21+ en ejecución; el código compila con Java 17 porque el
+ * constructor de hilos virtuales se obtiene por reflexión.
+ *
+ * Configuración: SERVER_THREADS=virtual (por defecto "platform") y
+ * SERVER_PLATFORM_THREADS (hilos de plataforma para Jetty, 16 por defecto).
+ */
+public class VirtualThreadPool extends QueuedThreadPool {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPool.class);
+
+    private final Executor virtualExecutor;
+    private volatile boolean dispatching;
+
+    /**
+     * @param platformThreads Hilos de plataforma para acceptors y selectores
+     * @param virtualExecutor Ejecutor que crea un hilo virtual por tarea
+     */
+    VirtualThreadPool(int platformThreads, Executor virtualExecutor) {
+        super(Math.max(4, platformThreads), 4);
+        setName("jetty-platform");
+        setReservedThreads(0);
+        this.virtualExecutor = virtualExecutor;
+    }
+
+    /**
+     * Instala el pool en el servidor embebido de Spark si SERVER_THREADS=virtual
+     * y la JVM soporta hilos virtuales. Debe llamarse antes de definir rutas.
+     *
+     * @return Pool instalado, o null si se usa el pool de plataforma por defecto
+     */
+    public static VirtualThreadPool installIfEnabled() {
+        if (!"virtual".equalsIgnoreCase(System.getenv().getOrDefault("SERVER_THREADS", "platform"))) {
+            return null;
+        }
+        ThreadFactory factory = virtualThreadFactory("http-vt-");
+        if (factory == null) {
+            logger.warn("⚠️ SERVER_THREADS=virtual requiere Java 21+ (JVM actual: {}); se usan hilos de plataforma",
+                    Runtime.version().feature());
+            return null;
+        }
+        int platform = Integer.parseInt(System.getenv().getOrDefault("SERVER_PLATFORM_THREADS", "16"));
+        VirtualThreadPool pool = new VirtualThreadPool(platform, r -> factory.newThread(r).start());
+        EmbeddedServers.add(EmbeddedServers.defaultIdentifier(), new EmbeddedJettyFactory().withThreadPool(pool));
+        DatabaseManager.enableConnectionGates();
+        logger.info("🧵 Peticiones en hilos virtuales ({} hilos de plataforma para Jetty)", platform);
+        return pool;
+    }
+
+    /**
+     * @param prefix Prefijo del nombre de los hilos
+     * @return Fábrica de hilos virtuales, o null si la JVM no los soporta
+     */
+    static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /** Empieza a enviar las tareas nuevas a hilos virtuales (llamar con el servidor ya arrancado). */
+    public void startDispatching() {
+        dispatching = true;
+    }
+
+    @Override
+    public void execute(Runnable job) {
+        if (dispatching) {
+            virtualExecutor.execute(job);
+        } else {
+            super.execute(job);
+        }
+    }
+
+    @Override
+    public boolean tryExecute(Runnable task) {
+        return !dispatching && super.tryExecute(task);
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return !dispatching && super.isLowOnThreads();
+    }
+}
@@ -0,0 +1,171 @@
+package org.example.controller;
+
+import org.example.DatabaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.Request;
+import spark.Response;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import static spark.Spark.halt;
+
+/**
+ * Control de admisión delante de las rutas de Spark.
+ *
+ * Responsabilidades:
+ * - Clasificar cada petición (puja, autenticación, navegación, administración, operación)
+ * - Limitar las peticiones en curso por clase para que la cola no crezca sin límite
+ * - Descartar pronto (503 + Retry-After) la carga no prioritaria cuando la base de
+ *   datos muestra presión (hilos esperando el pool de pujas o esperas largas)
+ * - Dar prioridad a las pujas: nunca se descartan por la presión de otras clases
+ *
+ * Configuración: ADMISSION_BID_MAX (64), ADMISSION_AUTH_MAX (16),
+ * ADMISSION_BROWSE_MAX (32), ADMISSION_ADMIN_MAX (16), ADMISSION_MAX_POOL_WAIT_MS (200).
+ */
+public class AdmissionController {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionController.class);
+    private static final String ATTR = "admission.class";
+
+    /** Clases de ruta, de mayor a menor prioridad */
+    public enum RouteClass { OPS, BID, AUTH, BROWSE, ADMIN }
+
+    private final Map<RouteClass, Integer> limits = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, AtomicInteger> inFlight = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, LongAdder> shed = new EnumMap<>(RouteClass.class);
+    private final Predicate<RouteClass> overloaded;
+
+    /**
+     * @param bidMax Pujas simultáneas permitidas
+     * @param authMax Logins/registros simultáneos permitidos
+     * @param browseMax Peticiones de navegación simultáneas permitidas
+     * @param adminMax Peticiones de administración simultáneas permitidas
+     * @param overloaded Indica si una clase debe descartarse por presión en la BD
+     */
+    public AdmissionController(int bidMax, int authMax, int browseMax, int adminMax,
+                               Predicate<RouteClass> overloaded) {
+        limits.put(RouteClass.OPS, Integer.MAX_VALUE);
+        limits.put(RouteClass.BID, bidMax);
+        limits.put(RouteClass.AUTH, authMax);
+        limits.put(RouteClass.BROWSE, browseMax);
+        limits.put(RouteClass.ADMIN, adminMax);
+        for (RouteClass c : RouteClass.values()) {
+            inFlight.put(c, new AtomicInteger());
+            shed.put(c, new LongAdder());
+        }
+        this.overloaded = overloaded;
+    }
+
+    /**
+     * Crea el controlador con la configuración de las variables de entorno y la
+     * señal de presión basada en los pools de DatabaseManager.
+     *
+     * @return Controlador listo para registrar en Spark
+     */
+    public static AdmissionController fromEnv() {
+        double maxWaitMs = Double.parseDouble(System.getenv().getOrDefault("ADMISSION_MAX_POOL_WAIT_MS", "200"));
+        Predicate<RouteClass> pressure = c -> {
+            boolean bidsQueued = DatabaseManager.getThreadsAwaiting(DatabaseManager.Pool.BIDS) > 0;
+            switch (c) {
+                case BROWSE:
+                    return bidsQueued || DatabaseManager.getAverageWaitMillis(DatabaseManager.Pool.CATALOG) > maxWaitMs;
+                case AUTH:
+                case ADMIN:
+                    return bidsQueued || DatabaseManager.getAverageWaitMillis(DatabaseManager.Pool.ADMIN) > maxWaitMs;
+                default:
+                    return false;
+            }
+        };
+        return new AdmissionController(
+                Integer.parseInt(System.getenv().getOrDefault("ADMISSION_BID_MAX", "64")),
+                Integer.parseInt(System.getenv().getOrDefault("ADMISSION_AUTH_MAX", "16")),
+                Integer.parseInt(System.getenv().getOrDefault("ADMISSION_BROWSE_MAX", "32")),
+                Integer.parseInt(System.getenv().getOrDefault("ADMISSION_ADMIN_MAX", "16")),
+                pressure);
+    }
+
+    /**
+     * Clasifica una petición según su método y ruta.
+     *
+     * @param method Método HTTP
+     * @param path Ruta (pathInfo)
+     * @return Clase de la ruta
+     */
+    public static RouteClass classify(String method, String path) {
+        String m = method != null ? method.toUpperCase(Locale.ROOT) : "GET";
+        String p = path != null ? path : "/";
+        if (p.startsWith("/health") || p.startsWith("/metrics") || p.startsWith("/status")) return RouteClass.OPS;
+        if ("POST".equals(m) && p.startsWith("/api/offers")) return RouteClass.BID;
+        if ("POST".equals(m) && (p.equals("/login") || p.equals("/register"))) return RouteClass.AUTH;
+        if ("GET".equals(m) || "HEAD".equals(m)) return RouteClass.BROWSE;
+        return RouteClass.ADMIN;
+    }
+
+    /**
+     * Intenta admitir una petición de la clase indicada.
+     *
+     * @param c Clase de la ruta
+     * @return true si se admite (hay que llamar a {@link #release(RouteClass)} al terminar)
+     */
+    public boolean tryAdmit(RouteClass c) {
+        if (c == RouteClass.OPS) return true;
+        if (overloaded.test(c)) {
+            shed.get(c).increment();
+            return false;
+        }
+        AtomicInteger counter = inFlight.get(c);
+        if (counter.incrementAndGet() > limits.get(c)) {
+            counter.decrementAndGet();
+            shed.get(c).increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Libera el hueco de una petición admitida.
+     *
+     * @param c Clase de la ruta
+     */
+    public void release(RouteClass c) {
+        if (c != RouteClass.OPS) inFlight.get(c).decrementAndGet();
+    }
+
+    /** Filtro {@code before}: admite la petición o la corta con 503 + Retry-After. */
+    public void admit(Request req, Response res) {
+        RouteClass c = classify(req.requestMethod(), req.pathInfo());
+        if (!tryAdmit(c)) {
+            logger.debug("Petición descartada por sobrecarga: {} {} ({})", req.requestMethod(), req.pathInfo(), c);
+            res.header("Retry-After", c == RouteClass.BID ? "1" : "2");
+            res.type("application/json");
+            halt(503, "{\"message\":\"Servidor sobrecargado, intenta de nuevo\"}");
+        }
+        req.attribute(ATTR, c);
+    }
+
+    /** Filtro {@code afterAfter}: libera el hueco si la petición fue admitida. */
+    public void complete(Request req) {
+        Object c = req.attribute(ATTR);
+        if (c instanceof RouteClass) release((RouteClass) c);
+    }
+
+    /** @return Peticiones en curso, límite y descartes acumulados por clase */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> out = new LinkedHashMap<>();
+        for (RouteClass c : RouteClass.values()) {
+            if (c == RouteClass.OPS) continue;
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("inFlight", inFlight.get(c).get());
+            m.put("limit", limits.get(c));
+            m.put("shed", shed.get(c).sum());
+            out.put(c.name().toLowerCase(Locale.ROOT), m);
+        }
+        return out;
+    }
+}
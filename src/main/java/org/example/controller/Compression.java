@@ -0,0 +1,105 @@
+package org.example.controller;
+
+import spark.Request;
+import spark.Response;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresión gzip negociada de las respuestas.
+ *
+ * Responsabilidades:
+ * - Filtro after: marcar para gzip las respuestas dinámicas por encima de un
+ *   umbral (Spark comprime al serializar si la respuesta lleva Content-Encoding: gzip
+ *   y el cliente lo acepta)
+ * - Escribir cuerpos precomprimidos (páginas cacheadas, estáticos) directamente
+ *   en la respuesta, sin que Spark vuelva a comprimirlos
+ *
+ * Configuración: GZIP_MIN_BYTES (1024).
+ */
+public class Compression {
+    private final int minBytes;
+
+    /**
+     * @param minBytes Tamaño mínimo del cuerpo para comprimir
+     */
+    public Compression(int minBytes) {
+        this.minBytes = minBytes;
+    }
+
+    /**
+     * Crea el filtro a partir de variables de entorno.
+     */
+    public static Compression fromEnv() {
+        return new Compression(Integer.parseInt(System.getenv().getOrDefault("GZIP_MIN_BYTES", "1024")));
+    }
+
+    /**
+     * Filtro after: activa gzip si el cuerpo supera el umbral y el cliente lo acepta.
+     *
+     * @param req Petición
+     * @param res Respuesta
+     */
+    public void compressLarge(Request req, Response res) {
+        String body = res.body();
+        if (body == null || body.length() < minBytes) return;
+        if (res.status() == 204 || res.status() == 304) return;
+        HttpServletResponse raw = res.raw();
+        if (raw.isCommitted() || raw.getHeader("Content-Encoding") != null) return;
+        raw.addHeader("Vary", "Accept-Encoding");
+        if (acceptsGzip(req)) {
+            raw.setHeader("Content-Encoding", "gzip");
+        }
+    }
+
+    static boolean acceptsGzip(Request req) {
+        String accept = req.headers("Accept-Encoding");
+        return accept != null && accept.toLowerCase().contains("gzip");
+    }
+
+    /**
+     * Escribe un cuerpo ya preparado (y su variante gzip) y confirma la respuesta;
+     * una vez confirmada, Spark ya no serializa (ni recomprime) el cuerpo.
+     *
+     * @param req Petición (para Accept-Encoding)
+     * @param res Respuesta
+     * @param identity Cuerpo sin comprimir
+     * @param gzip Cuerpo comprimido
+     * @param contentType Tipo de contenido
+     */
+    static void writeRaw(Request req, Response res, byte[] identity, byte[] gzip, String contentType) {
+        boolean compressed = gzip.length < identity.length && acceptsGzip(req);
+        HttpServletResponse raw = res.raw();
+        raw.setContentType(contentType);
+        raw.addHeader("Vary", "Accept-Encoding");
+        if (compressed) raw.setHeader("Content-Encoding", "gzip");
+        byte[] body = compressed ? gzip : identity;
+        raw.setContentLength(body.length);
+        try {
+            OutputStream out = raw.getOutputStream();
+            out.write(body);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param data Bytes a comprimir
+     * @return Bytes en formato gzip
+     */
+    static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.controller;
+
+import org.example.repository.DegradedReads;
+import spark.Request;
+import spark.Response;
+
+/**
+ * ETags fuertes y GET condicional para las APIs de items y ofertas.
+ *
+ * Responsabilidades:
+ * - Derivar la ETag de la versión del catálogo guardada en la base de datos
+ *   (tabla catalog_version, mantenida por triggers), de modo que todas las
+ *   instancias den la misma ETag y una escritura hecha en cualquiera la cambie
+ * - Responder 304 a If-None-Match antes de consultar los datos y serializar:
+ *   el único coste es leer la versión por clave primaria
+ * - No emitir ETag si la versión no se pudo leer o si la respuesta se construyó
+ *   con datos de respaldo ({@link DegradedReads})
+ *
+ * La versión se lee antes que los datos: si una escritura llega entre ambas
+ * lecturas, el cuerpo es más nuevo que su ETag y la siguiente petición
+ * condicional recibe 200, nunca un 304 con datos viejos.
+ */
+public final class EntityTags {
+    private static final String ATTR = "entityTags.etag";
+
+    private EntityTags() { }
+
+    /**
+     * Comprueba If-None-Match contra la versión actual, antes de leer los datos.
+     *
+     * @param req Petición
+     * @param res Respuesta
+     * @param version Versión compartida del catálogo (-1 si no está disponible)
+     * @return true si se respondió 304 y la ruta debe devolver "" sin más trabajo
+     */
+    public static boolean notModified(Request req, Response res, long version) {
+        if (version < 0) return false;
+        String etag = tag(version);
+        if (matches(req.headers("If-None-Match"), etag)) {
+            res.header("ETag", etag);
+            res.header("Cache-Control", "no-cache");
+            res.status(304);
+            return true;
+        }
+        req.attribute(ATTR, etag);
+        return false;
+    }
+
+    /**
+     * Añade la ETag calculada en {@link #notModified} a una respuesta completa.
+     *
+     * @param req Petición
+     * @param res Respuesta
+     * @param body Cuerpo JSON ya serializado
+     * @return El cuerpo, sin cambios
+     */
+    public static String respond(Request req, Response res, String body) {
+        Object etag = req.attribute(ATTR);
+        if (etag instanceof String && !DegradedReads.occurred()) {
+            res.header("ETag", (String) etag);
+            res.header("Cache-Control", "no-cache");
+        }
+        return body;
+    }
+
+    /**
+     * @param version Versión del catálogo
+     * @return ETag fuerte, con comillas
+     */
+    static String tag(long version) {
+        return "\"c" + version + "\"";
+    }
+
+    /**
+     * @param ifNoneMatch Valor de If-None-Match (lista separada por comas, "*" o null)
+     * @param etag ETag actual
+     * @return true si alguna ETag de la lista coincide (comparación débil, como exige RFC 9110)
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*")) return true;
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.controller;
+
+import org.example.DatabaseManager;
+import org.example.metrics.HttpMetrics;
+import org.example.metrics.PrometheusText;
+import spark.Request;
+import spark.Response;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Ruta GET /metrics en formato de texto de Prometheus.
+ *
+ * Reúne en cada lectura:
+ * - Métricas HTTP por ruta ({@link HttpMetrics})
+ * - Pools de Hikari: conexiones activas/ociosas/en espera, máximo, espera media y rechazos
+ * - Estado del circuit breaker de la base de datos
+ * - WebSocket: sesiones abiertas, difusiones, mensajes y duración de las difusiones
+ * - Aciertos y fallos de las cachés (páginas, fragmentos)
+ * - Control de admisión: peticiones en curso y descartadas por clase
+ *
+ * Todo se calcula al leer; el camino de las peticiones solo incrementa contadores.
+ */
+public class MetricsEndpoint {
+    private final HttpMetrics http;
+    private final AdmissionController admission;
+    private final Map<String, Supplier<Map<String, Object>>> caches;
+    private final boolean database;
+
+    /**
+     * @param http Métricas HTTP
+     * @param admission Control de admisión
+     * @param caches Estadísticas por caché (claves "hits" y "misses")
+     * @param database false en modo en memoria (sin pools ni breaker)
+     */
+    public MetricsEndpoint(HttpMetrics http, AdmissionController admission,
+                           Map<String, Supplier<Map<String, Object>>> caches, boolean database) {
+        this.http = http;
+        this.admission = admission;
+        this.caches = caches;
+        this.database = database;
+    }
+
+    /** Ruta GET /metrics */
+    public Object render(Request req, Response res) {
+        res.type(PrometheusText.CONTENT_TYPE);
+        return scrape();
+    }
+
+    String scrape() {
+        PrometheusText out = new PrometheusText();
+        http.writeTo(out);
+        if (database) writeDatabase(out);
+        writeWebSocket(out);
+        writeCaches(out);
+        writeAdmission(out);
+        return out.toString();
+    }
+
+    private void writeDatabase(PrometheusText out) {
+        Map<String, Map<String, Object>> pools = DatabaseManager.getPoolStats();
+        out.family("db_pool_connections", "gauge", "Conexiones del pool por estado");
+        for (Map.Entry<String, Map<String, Object>> e : pools.entrySet()) {
+            for (String state : new String[]{"active", "idle", "waiting"}) {
+                Object v = e.getValue().get(state);
+                if (v != null) out.sample("db_pool_connections", new String[]{"pool", e.getKey(), "state", state}, number(v));
+            }
+        }
+        out.family("db_pool_max_connections", "gauge", "Tamaño máximo del pool");
+        for (Map.Entry<String, Map<String, Object>> e : pools.entrySet()) {
+            Object v = e.getValue().get("max");
+            if (v != null) out.sample("db_pool_max_connections", new String[]{"pool", e.getKey()}, number(v));
+        }
+        out.family("db_pool_wait_seconds_avg", "gauge", "Espera media (EWMA) para obtener una conexión");
+        for (Map.Entry<String, Map<String, Object>> e : pools.entrySet()) {
+            out.sample("db_pool_wait_seconds_avg", new String[]{"pool", e.getKey()}, number(e.getValue().get("avgWaitMs")) / 1000.0);
+        }
+        out.family("db_pool_rejected_total", "counter", "Peticiones rechazadas por pool saturado");
+        for (Map.Entry<String, Map<String, Object>> e : pools.entrySet()) {
+            out.sample("db_pool_rejected_total", new String[]{"pool", e.getKey()}, number(e.getValue().get("rejected")));
+        }
+        out.family("db_breaker_open", "gauge", "1 si el circuit breaker de la base de datos está abierto");
+        out.sample("db_breaker_open", new String[0], "OPEN".equals(DatabaseManager.getBreakerState()) ? 1 : 0);
+    }
+
+    private static void writeWebSocket(PrometheusText out) {
+        out.family("websocket_sessions", "gauge", "Sesiones WebSocket abiertas")
+                .sample("websocket_sessions", new String[0], PriceUpdateWebSocket.getSessionCount());
+        out.family("websocket_broadcasts_total", "counter", "Difusiones de precio")
+                .sample("websocket_broadcasts_total", new String[0], PriceUpdateWebSocket.getBroadcastCount());
+        out.family("websocket_messages_sent_total", "counter", "Mensajes WebSocket enviados")
+                .sample("websocket_messages_sent_total", new String[0], PriceUpdateWebSocket.getMessagesSent());
+        out.family("websocket_send_failures_total", "counter", "Envíos WebSocket fallidos")
+                .sample("websocket_send_failures_total", new String[0], PriceUpdateWebSocket.getSendFailures());
+        out.family("websocket_broadcast_seconds", "histogram", "Duración de cada difusión a todas las sesiones")
+                .histogram("websocket_broadcast_seconds", new String[0], PriceUpdateWebSocket.getBroadcastLatency());
+    }
+
+    private void writeCaches(PrometheusText out) {
+        out.family("cache_hits_total", "counter", "Aciertos por caché");
+        caches.forEach((name, stats) -> out.sample("cache_hits_total", new String[]{"cache", name}, number(stats.get().get("hits"))));
+        out.family("cache_misses_total", "counter", "Fallos por caché");
+        caches.forEach((name, stats) -> out.sample("cache_misses_total", new String[]{"cache", name}, number(stats.get().get("misses"))));
+    }
+
+    private void writeAdmission(PrometheusText out) {
+        Map<String, Map<String, Object>> stats = admission.getStats();
+        out.family("admission_in_flight", "gauge", "Peticiones admitidas en curso por clase");
+        stats.forEach((cls, m) -> out.sample("admission_in_flight", new String[]{"class", cls}, number(m.get("inFlight"))));
+        out.family("admission_shed_total", "counter", "Peticiones descartadas por el control de admisión");
+        stats.forEach((cls, m) -> out.sample("admission_shed_total", new String[]{"class", cls}, number(m.get("shed"))));
+    }
+
+    private static double number(Object v) {
+        return v instanceof Number ? ((Number) v).doubleValue() : 0;
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.controller;
+
+import org.example.metrics.CacheLookupEvent;
+import org.example.repository.DegradedReads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.Request;
+import spark.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caché de páginas completas para visitantes anónimos.
+ *
+ * Responsabilidades:
+ * - Guardar el HTML ya renderizado de las vistas de catálogo por ruta y filtros
+ *   (solo q, minPrice y maxPrice; el resto de parámetros no forma parte de la clave,
+ *   así una query aleatoria no crea entradas ni desaloja páginas reales), junto con
+ *   su variante gzip
+ * - Servir la variante adecuada según Accept-Encoding sin volver a consultar la BD
+ *   ni renderizar
+ * - Invalidar por versión del catálogo: una entrada guardada con una versión
+ *   anterior se descarta (la versión se lee antes de renderizar, así una escritura
+ *   concurrente nunca deja una página antigua con la versión nueva)
+ * - Caducar cada página tras PAGE_CACHE_TTL_MS: la versión es local al proceso y
+ *   las escrituras hechas en otra instancia solo se ven al expirar
+ * - No guardar páginas renderizadas con datos de respaldo ({@link DegradedReads})
+ * - Limitar la memoria con desalojo LRU
+ *
+ * Los usuarios con sesión nunca reciben ni generan páginas cacheadas.
+ *
+ * Configuración: PAGE_CACHE_MAX (500), PAGE_CACHE_TTL_MS (5000).
+ */
+public class PageCache {
+    private static final Logger logger = LoggerFactory.getLogger(PageCache.class);
+    private static final String CONTENT_TYPE = "text/html; charset=utf-8";
+
+    /** Parámetros que cambian el contenido de las vistas de catálogo */
+    private static final List<String> KEY_PARAMS = List.of("maxPrice", "minPrice", "q");
+
+    private final LongSupplier catalogVersion;
+    private final Predicate<Request> anonymous;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Page> pages;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param catalogVersion Versión actual del catálogo
+     * @param anonymous Indica si la petición es de un visitante sin sesión
+     * @param maxEntries Número máximo de páginas en caché
+     * @param ttlMillis Vida máxima de una página
+     * @param clock Reloj en milisegundos
+     */
+    PageCache(LongSupplier catalogVersion, Predicate<Request> anonymous, int maxEntries,
+              long ttlMillis, LongSupplier clock) {
+        this.catalogVersion = catalogVersion;
+        this.anonymous = anonymous;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Page> eldest) {
+                return size() > PageCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Crea la caché a partir de variables de entorno.
+     */
+    public static PageCache fromEnv(LongSupplier catalogVersion, Predicate<Request> anonymous) {
+        int max = Integer.parseInt(System.getenv().getOrDefault("PAGE_CACHE_MAX", "500"));
+        long ttl = Long.parseLong(System.getenv().getOrDefault("PAGE_CACHE_TTL_MS", "5000"));
+        logger.info("📄 Caché de páginas anónimas: hasta {} entradas, {} ms", max, ttl);
+        return new PageCache(catalogVersion, anonymous, max, ttl, System::currentTimeMillis);
+    }
+
+    /**
+     * Responde una vista HTML, desde la caché si es posible.
+     *
+     * @param req Petición
+     * @param res Respuesta
+     * @param render Renderiza la página (solo se llama si no hay entrada válida)
+     * @return Cuerpo para Spark ("" si la respuesta ya se escribió desde la caché)
+     */
+    public Object serve(Request req, Response res, Supplier<String> render) {
+        if (!anonymous.test(req)) {
+            return render.get();
+        }
+        String key = key(req.pathInfo(), req.queryMap().toMap());
+        long version = catalogVersion.getAsLong();
+        Page page = lookup(key, version);
+        if (page == null) {
+            DegradedReads.reset();
+            String html = render.get();
+            if (res.status() != 200 || DegradedReads.occurred()) {
+                return html;
+            }
+            page = store(key, version, html);
+        }
+        res.raw().addHeader("Vary", "Cookie");
+        Compression.writeRaw(req, res, page.identity, page.gzip, CONTENT_TYPE);
+        return "";
+    }
+
+    /**
+     * @return Página cacheada para la clave, o null si no existe, es de otra versión o caducó
+     */
+    Page lookup(String key, long version) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        synchronized (pages) {
+            Page page = pages.get(key);
+            if (page != null && page.version == version && clock.getAsLong() - page.storedAt < ttlMillis) {
+                hits.increment();
+                event.commit("pages", true);
+                return page;
+            }
+        }
+        misses.increment();
+        event.commit("pages", false);
+        return null;
+    }
+
+    Page store(String key, long version, String html) {
+        byte[] identity = html.getBytes(StandardCharsets.UTF_8);
+        Page page = new Page(version, clock.getAsLong(), identity, Compression.gzip(identity));
+        synchronized (pages) {
+            Page current = pages.get(key);
+            // No pisar una página renderizada con una versión más nueva
+            if (current == null || current.version <= version) {
+                pages.put(key, page);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Clave de caché: ruta más los filtros de catálogo, en orden fijo y sin los vacíos.
+     * Como las rutas solo leen el primer valor de cada filtro, la clave también.
+     */
+    static String key(String path, Map<String, String[]> params) {
+        StringJoiner query = new StringJoiner("&", path + "?", "");
+        for (String name : KEY_PARAMS) {
+            String[] values = params.get(name);
+            String v = values != null && values.length > 0 ? values[0] : null;
+            if (v != null && !v.isBlank()) query.add(name + "=" + v.trim());
+        }
+        return query.toString();
+    }
+
+    /** @return Páginas en caché, aciertos y fallos */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (pages) {
+            stats.put("pages", pages.size());
+        }
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    static final class Page {
+        final long version;
+        final long storedAt;
+        final byte[] identity;
+        final byte[] gzip;
+
+        Page(long version, long storedAt, byte[] identity, byte[] gzip) {
+            this.version = version;
+            this.storedAt = storedAt;
+            this.identity = identity;
+            this.gzip = gzip;
+        }
+    }
+}
@@ -6,11 +6,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import org.example.metrics.BroadcastEvent;
+import org.example.metrics.LatencyHistogram;
 
+import javax.servlet.http.HttpSession;
+import java.net.HttpCookie;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 @WebSocket
 public class PriceUpdateWebSocket {
@@ -18,9 +30,54 @@ public class PriceUpdateWebSocket {
     private static final Gson gson = new Gson();
     private static final Queue<Session> sessions = new ConcurrentLinkedQueue<>();
 
+    /**
+     * Índice email del usuario autenticado (en minúsculas) → sesiones abiertas.
+     * Las ofertas guardan el email del postor, así que el aviso de oferta superada
+     * se resuelve en memoria sin consultar la base de datos en el camino de la puja.
+     */
+    private static final Map<String, Set<Session>> sessionsByEmail = new ConcurrentHashMap<>();
+
+    /** Índice inverso sesión → email (una identidad por sesión), para limpiar al retirarla */
+    private static final Map<Session, String> emailBySession = new ConcurrentHashMap<>();
+
+    /** Difusiones, mensajes enviados, envíos fallidos y duración de cada difusión (para /metrics) */
+    private static final LongAdder broadcasts = new LongAdder();
+    private static final LongAdder messagesSent = new LongAdder();
+    private static final LongAdder sendFailures = new LongAdder();
+    private static final LatencyHistogram broadcastLatency = new LatencyHistogram();
+
+    /** Valida la cookie de sesión sin estado (modo SESSION_MODE=stateless); null si no aplica */
+    private static volatile Function<String, String> sessionTokenVerifier;
+    private static volatile String sessionCookieName;
+
+    /** Resuelve el email de un userId autenticado al conectar; null = sin avisos privados */
+    private static volatile Function<String, String> emailResolver;
+
+    /**
+     * Configura cómo resolver el userId a partir de la cookie de sesión firmada.
+     *
+     * @param cookieName Nombre de la cookie de sesión
+     * @param verifier Función token → userId (null si es inválido)
+     */
+    public static void setSessionTokenVerifier(String cookieName, Function<String, String> verifier) {
+        sessionCookieName = cookieName;
+        sessionTokenVerifier = verifier;
+    }
+
+    /**
+     * Configura cómo obtener el email de un usuario autenticado. Se llama una vez
+     * por conexión, en el handshake, nunca al procesar una puja.
+     *
+     * @param resolver Función userId → email (null si no existe)
+     */
+    public static void setUserEmailResolver(Function<String, String> resolver) {
+        emailResolver = resolver;
+    }
+
     @OnWebSocketConnect
     public void onConnect(Session session) {
         sessions.add(session);
+        indexFromUpgradeRequest(session);
         logger.info("🔌 Cliente WebSocket conectado. Total: {}", sessions.size());
 
         try {
@@ -39,6 +96,7 @@ public class PriceUpdateWebSocket {
     @OnWebSocketClose
     public void onClose(Session session, int statusCode, String reason) {
         sessions.remove(session);
+        unindex(session);
         logger.info("🔌 Cliente WebSocket desconectado. Total: {}. Razón: {}", sessions.size(), reason);
     }
 
@@ -46,6 +104,7 @@ public class PriceUpdateWebSocket {
     public void onError(Session session, Throwable error) {
         logger.error("❌ Error en WebSocket", error);
         sessions.remove(session);
+        unindex(session);
     }
 
     @OnWebSocketMessage
@@ -66,7 +125,7 @@ public class PriceUpdateWebSocket {
      */
     public static void notifyPriceChange(String itemId, String newPrice) {
         if (sessions.isEmpty()) {
-            logger.warn("No hay clientes WebSocket conectados para notificar");
+            logger.debug("No hay clientes WebSocket conectados para notificar");
             return;
         }
 
@@ -78,35 +137,180 @@ public class PriceUpdateWebSocket {
         );
 
         String json = gson.toJson(update);
-        logger.info("📢 Enviando actualización de precio: {} a {} clientes", json, sessions.size());
+        logger.debug("📢 Enviando actualización de precio: {} a {} clientes", json, sessions.size());
 
-        sessions.removeIf(session -> {
-            if (session.isOpen()) {
-                try {
-                    session.getRemote().sendString(json);
-                    return false; // mantener en la lista
-                } catch (IOException e) {
-                    logger.error("Error enviando actualización a cliente", e);
-                    return true; // remover de la lista
+        sendToAll(json);
+    }
+
+    /**
+     * Envía un evento privado {@code outbid} solo a las sesiones del postor desplazado.
+     *
+     * La búsqueda es O(1) sobre el índice email → sesiones, en memoria: no recorre
+     * todas las sesiones ni consulta la base de datos. Solo reciben el aviso las
+     * sesiones autenticadas en el handshake como el usuario con ese email.
+     *
+     * @param email Email del postor desplazado (el guardado en su oferta)
+     * @param itemId ID del item en subasta
+     * @param newPrice Nuevo precio formateado
+     * @return Número de sesiones notificadas
+     */
+    public static int notifyOutbid(String email, String itemId, String newPrice) {
+        if (email == null || email.isBlank()) return 0;
+        Set<Session> targets = new HashSet<>(sessionsByEmail.getOrDefault(normalize(email), Collections.emptySet()));
+        if (targets.isEmpty()) {
+            logger.debug("Postor desplazado {} sin sesiones WebSocket abiertas", email);
+            return 0;
+        }
+
+        Map<String, Object> event = Map.of(
+            "type", "outbid",
+            "itemId", itemId,
+            "newPrice", newPrice,
+            "timestamp", System.currentTimeMillis()
+        );
+        String json = gson.toJson(event);
+
+        int sent = 0;
+        for (Session session : targets) {
+            if (!session.isOpen()) {
+                sessions.remove(session);
+                unindex(session);
+                continue;
+            }
+            try {
+                session.getRemote().sendString(json);
+                messagesSent.increment();
+                sent++;
+            } catch (IOException e) {
+                sendFailures.increment();
+                logger.error("Error enviando aviso de oferta superada", e);
+                sessions.remove(session);
+                unindex(session);
+            }
+        }
+        logger.debug("📣 Aviso 'outbid' para item {} enviado a {} sesiones de {}", itemId, sent, email);
+        return sent;
+    }
+
+    /**
+     * Indexa la sesión con el usuario autenticado en el handshake: la cookie
+     * firmada (modo sin estado) o el atributo "userId" de la sesión HTTP.
+     *
+     * El cliente no puede declarar su identidad; sin sesión válida el WebSocket
+     * solo recibe las difusiones públicas de precio.
+     */
+    private static void indexFromUpgradeRequest(Session session) {
+        try {
+            String userId = authenticatedUserId(session);
+            Function<String, String> resolver = emailResolver;
+            if (userId != null && resolver != null) index(session, resolver.apply(userId));
+        } catch (Exception e) {
+            logger.debug("No se pudo identificar al usuario del WebSocket: {}", e.getMessage());
+        }
+    }
+
+    private static String authenticatedUserId(Session session) {
+        Function<String, String> verifier = sessionTokenVerifier;
+        List<HttpCookie> cookies = session.getUpgradeRequest().getCookies();
+        if (verifier != null && cookies != null) {
+            for (HttpCookie cookie : cookies) {
+                if (cookie.getName().equals(sessionCookieName)) {
+                    String userId = verifier.apply(cookie.getValue());
+                    if (userId != null) return userId;
                 }
             }
-            return true; // remover sesiones cerradas
+        }
+        Object httpSession = session.getUpgradeRequest().getSession();
+        if (httpSession instanceof HttpSession) {
+            Object uid = ((HttpSession) httpSession).getAttribute("userId");
+            return uid != null ? uid.toString() : null;
+        }
+        return null;
+    }
+
+    private static void index(Session session, String email) {
+        if (email == null || email.isBlank()) return;
+        String key = normalize(email);
+        emailBySession.put(session, key);
+        sessionsByEmail.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(session);
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void unindex(Session session) {
+        String email = emailBySession.remove(session);
+        if (email == null) return;
+        sessionsByEmail.computeIfPresent(email, (k, set) -> {
+            set.remove(session);
+            return set.isEmpty() ? null : set;
         });
     }
 
     private static void broadcastPriceUpdate(Map<String, Object> update) {
-        String json = gson.toJson(update);
+        sendToAll(gson.toJson(update));
+    }
+
+    /**
+     * Envía un mensaje a todas las sesiones abiertas, retira las cerradas o fallidas
+     * y registra la latencia del broadcast (histograma y evento JFR).
+     */
+    private static void sendToAll(String json) {
+        long start = System.nanoTime();
+        BroadcastEvent event = new BroadcastEvent();
+        event.begin();
+        int[] counts = new int[2]; // enviados, fallidos
         sessions.removeIf(session -> {
             if (session.isOpen()) {
                 try {
                     session.getRemote().sendString(json);
-                    return false;
+                    messagesSent.increment();
+                    counts[0]++;
+                    return false; // mantener en la lista
                 } catch (IOException e) {
-                    logger.error("Error enviando broadcast", e);
-                    return true;
+                    sendFailures.increment();
+                    counts[1]++;
+                    logger.error("Error enviando actualización a cliente", e);
+                    unindex(session);
+                    return true; // remover de la lista
                 }
             }
-            return true;
+            unindex(session); // onClose puede no llegar en una conexión rota
+            return true; // remover sesiones cerradas
         });
+        broadcasts.increment();
+        broadcastLatency.recordNanos(System.nanoTime() - start);
+        event.commit(counts[0], counts[1], json);
+    }
+
+    /** @return Sesiones WebSocket abiertas */
+    public static int getSessionCount() {
+        return sessions.size();
+    }
+
+    /** @return Sesiones indexadas para avisos privados */
+    static int getIndexedSessionCount() {
+        return emailBySession.size();
+    }
+
+    /** @return Difusiones de precio realizadas */
+    public static long getBroadcastCount() {
+        return broadcasts.sum();
+    }
+
+    /** @return Mensajes enviados (difusiones y avisos privados) */
+    public static long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    /** @return Envíos fallidos */
+    public static long getSendFailures() {
+        return sendFailures.sum();
+    }
+
+    /** @return Duración de cada difusión a todas las sesiones */
+    public static LatencyHistogram getBroadcastLatency() {
+        return broadcastLatency;
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package org.example.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.Request;
+import spark.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estáticos con huella de contenido, precomprimidos al arrancar.
+ *
+ * Responsabilidades:
+ * - Leer los estáticos propios de /public, calcular su huella (SHA-256) y
+ *   publicarlos como /assets/nombre.huella.ext
+ * - Guardar en memoria la variante sin comprimir y la gzip de cada uno
+ * - Servirlos con Cache-Control immutable: la URL cambia cuando cambia el
+ *   contenido, así que el navegador nunca necesita revalidarlos
+ * - Exponer a las plantillas las URLs con huella ({{asset.script}}, {{asset.styles}})
+ *
+ * Las URLs sin huella (/script.js, /styles.css) siguen sirviéndose como
+ * archivos estáticos con una caché corta, por compatibilidad.
+ */
+public class StaticAssets {
+    private static final Logger logger = LoggerFactory.getLogger(StaticAssets.class);
+
+    /** Ruta bajo la que se publican los estáticos con huella */
+    public static final String PREFIX = "/assets/";
+
+    /** Estáticos propios en /public que se sirven con huella */
+    static final List<String> FILES = List.of("script.js", "styles.css");
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private final Map<String, Asset> byFingerprintedName = new LinkedHashMap<>();
+    private final Map<String, String> urls = new LinkedHashMap<>();
+
+    /**
+     * @param root Carpeta del classpath con los estáticos (p. ej. "/public")
+     */
+    public StaticAssets(String root) {
+        for (String file : FILES) {
+            byte[] content = read(root + "/" + file);
+            if (content == null) {
+                logger.warn("⚠️ Estático {} no encontrado en {}", file, root);
+                continue;
+            }
+            int dot = file.lastIndexOf('.');
+            String base = file.substring(0, dot);
+            String ext = file.substring(dot + 1);
+            String hash = fingerprint(content);
+            String name = base + "." + hash + "." + ext;
+            byFingerprintedName.put(name, new Asset(content, Compression.gzip(content), contentType(ext), "\"" + hash + "\""));
+            urls.put(base, PREFIX + name);
+        }
+        logger.info("🗜️ {} estáticos con huella y precomprimidos: {}", urls.size(), urls.values());
+    }
+
+    /**
+     * @return URL con huella por nombre base ("script" → "/assets/script.1a2b3c4d5e.js")
+     */
+    public Map<String, String> urls() {
+        return urls;
+    }
+
+    /**
+     * Ruta GET /assets/:file.
+     *
+     * @return "" (el cuerpo ya se escribió) o el mensaje de 404
+     */
+    public Object serve(Request req, Response res) {
+        Asset asset = byFingerprintedName.get(req.params(":file"));
+        if (asset == null) {
+            res.status(404);
+            return "Not found";
+        }
+        res.header("Cache-Control", IMMUTABLE);
+        res.header("ETag", asset.etag);
+        if (asset.etag.equals(req.headers("If-None-Match"))) {
+            res.status(304);
+            return "";
+        }
+        Compression.writeRaw(req, res, asset.identity, asset.gzip, asset.contentType);
+        return "";
+    }
+
+    static String fingerprint(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, 5);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] read(String path) {
+        try (InputStream in = StaticAssets.class.getResourceAsStream(path)) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String contentType(String ext) {
+        switch (ext) {
+            case "js": return "application/javascript; charset=utf-8";
+            case "css": return "text/css; charset=utf-8";
+            default: return "application/octet-stream";
+        }
+    }
+
+    private static final class Asset {
+        final byte[] identity;
+        final byte[] gzip;
+        final String contentType;
+        final String etag;
+
+        Asset(byte[] identity, byte[] gzip, String contentType, String etag) {
+            this.identity = identity;
+            this.gzip = gzip;
+            this.contentType = contentType;
+            this.etag = etag;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.controller;
+
+import com.github.mustachejava.DefaultMustacheFactory;
+import com.github.mustachejava.Mustache;
+import org.example.metrics.CacheLookupEvent;
+import org.example.tracing.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.TemplateEngine;
+import spark.ModelAndView;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Motor de plantillas compartido y caché de fragmentos renderizados.
+ *
+ * Responsabilidades:
+ * - Compilar todas las plantillas una sola vez al arrancar (un único
+ *   DefaultMustacheFactory para todas las rutas HTML)
+ * - Guardar fragmentos ya renderizados (p. ej. la tarjeta de un item) junto a la
+ *   versión de los datos con la que se generaron; si la versión cambia (nuevo
+ *   precio, nombre o descripción) el fragmento se vuelve a renderizar
+ * - Limitar la memoria con desalojo LRU al superar el máximo de fragmentos
+ * - Añadir a todas las páginas un ámbito global (p. ej. las URLs de los estáticos)
+ *
+ * Configuración: TEMPLATE_FRAGMENT_CACHE_MAX (2000).
+ */
+public class TemplateRenderer {
+    private static final Logger logger = LoggerFactory.getLogger(TemplateRenderer.class);
+
+    /** Plantillas que se precompilan al arrancar */
+    static final List<String> TEMPLATES = List.of(
+            "login.mustache", "register.mustache", "items-list.mustache", "item-detail.mustache",
+            "offers-list.mustache", "item-card.mustache", "item-summary.mustache");
+
+    private final DefaultMustacheFactory factory;
+    private final Map<String, Object> globals;
+    private final TemplateEngine engine;
+    private final int maxFragments;
+    private final LinkedHashMap<String, Fragment> fragments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param root Carpeta de plantillas en el classpath
+     * @param maxFragments Número máximo de fragmentos en caché
+     */
+    public TemplateRenderer(String root, int maxFragments) {
+        this(root, maxFragments, Collections.emptyMap());
+    }
+
+    /**
+     * @param root Carpeta de plantillas en el classpath
+     * @param maxFragments Número máximo de fragmentos en caché
+     * @param globals Valores disponibles en todas las plantillas (tras el modelo de la ruta)
+     */
+    public TemplateRenderer(String root, int maxFragments, Map<String, Object> globals) {
+        this.factory = new DefaultMustacheFactory(root);
+        this.globals = globals;
+        this.engine = new TemplateEngine() {
+            @Override
+            public String render(ModelAndView modelAndView) {
+                return TemplateRenderer.this.render(modelAndView.getViewName(), modelAndView.getModel());
+            }
+        };
+        this.maxFragments = Math.max(1, maxFragments);
+        this.fragments = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Fragment> eldest) {
+                return size() > TemplateRenderer.this.maxFragments;
+            }
+        };
+        for (String name : TEMPLATES) {
+            factory.compile(name); // el factory guarda la plantilla compilada
+        }
+    }
+
+    /**
+     * Crea el renderizador a partir de variables de entorno.
+     *
+     * @param globals Valores disponibles en todas las plantillas
+     * @return Renderizador sobre la carpeta "templates"
+     */
+    public static TemplateRenderer fromEnv(Map<String, Object> globals) {
+        int max = Integer.parseInt(System.getenv().getOrDefault("TEMPLATE_FRAGMENT_CACHE_MAX", "2000"));
+        TemplateRenderer renderer = new TemplateRenderer("templates", max, globals);
+        logger.info("🧩 {} plantillas precompiladas (caché de fragmentos: {})", TEMPLATES.size(), max);
+        return renderer;
+    }
+
+    /** @return Motor de Spark que comparte las plantillas compiladas */
+    public TemplateEngine engine() {
+        return engine;
+    }
+
+    /**
+     * Devuelve un fragmento renderizado, reutilizándolo si los datos no cambiaron.
+     *
+     * @param template Plantilla del fragmento
+     * @param key Identidad del fragmento (p. ej. el id del item)
+     * @param version Versión de los datos; si difiere de la cacheada se renderiza de nuevo
+     * @param scope Modelo para renderizar
+     * @return HTML del fragmento (ya escapado por Mustache)
+     */
+    public String fragment(String template, String key, String version, Object scope) {
+        String cacheKey = template + '\u0000' + key;
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        synchronized (fragments) {
+            Fragment f = fragments.get(cacheKey);
+            if (f != null && f.version.equals(version)) {
+                hits.increment();
+                event.commit("fragments", true);
+                return f.html;
+            }
+        }
+        misses.increment();
+        event.commit("fragments", false);
+        String html = render(template, scope);
+        synchronized (fragments) {
+            fragments.put(cacheKey, new Fragment(version, html));
+        }
+        return html;
+    }
+
+    /**
+     * Descarta los fragmentos cacheados de una clave (p. ej. al borrar un item).
+     *
+     * @param key Identidad del fragmento
+     */
+    public void invalidate(String key) {
+        synchronized (fragments) {
+            fragments.keySet().removeIf(k -> k.endsWith('\u0000' + key));
+        }
+    }
+
+    /**
+     * @param template Plantilla precompilada
+     * @param scope Modelo
+     * @return HTML renderizado
+     */
+    public String render(String template, Object scope) {
+        long span = Tracer.startSpan();
+        Mustache mustache = factory.compile(template);
+        StringWriter out = new StringWriter(512);
+        mustache.execute(out, new Object[]{scope, globals});
+        Tracer.endSpan("render", template, span);
+        return out.toString();
+    }
+
+    /**
+     * Versión de los datos visibles de un item: cambia con el precio, el nombre o la descripción.
+     */
+    public static String itemVersion(String name, String description, String price) {
+        return name + '\u0000' + description + '\u0000' + price;
+    }
+
+    /** @return Fragmentos en caché, aciertos y fallos */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (fragments) {
+            stats.put("fragments", fragments.size());
+        }
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    private static final class Fragment {
+        final String version;
+        final String html;
+
+        Fragment(String version, String html) {
+            this.version = version;
+            this.html = html;
+        }
+    }
+}
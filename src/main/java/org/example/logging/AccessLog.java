@@ -0,0 +1,64 @@
+package org.example.logging;
+
+import org.example.metrics.HttpMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.Request;
+import spark.Response;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Access log estructurado (clave=valor) por muestreo.
+ *
+ * Responsabilidades:
+ * - Escribir una línea por petición en el logger "access", que logback envía a
+ *   un appender asíncrono propio (ver logback.xml)
+ * - Registrar siempre los errores (4xx/5xx) y las peticiones lentas
+ * - Del resto, registrar solo 1 de cada ACCESS_LOG_SAMPLE (1 = todas)
+ *
+ * Configuración: ACCESS_LOG_SAMPLE (1), ACCESS_LOG_SLOW_MS (500).
+ */
+public class AccessLog {
+    private static final Logger access = LoggerFactory.getLogger("access");
+
+    private final long sampleEvery;
+    private final long slowNanos;
+    private final AtomicLong seq = new AtomicLong();
+
+    /**
+     * @param sampleEvery Registrar 1 de cada N peticiones correctas (1 = todas)
+     * @param slowMillis Duración a partir de la cual siempre se registra
+     */
+    public AccessLog(long sampleEvery, long slowMillis) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.slowNanos = slowMillis * 1_000_000L;
+    }
+
+    /**
+     * Crea el access log a partir de variables de entorno.
+     */
+    public static AccessLog fromEnv() {
+        return new AccessLog(
+                Long.parseLong(System.getenv().getOrDefault("ACCESS_LOG_SAMPLE", "1")),
+                Long.parseLong(System.getenv().getOrDefault("ACCESS_LOG_SLOW_MS", "500")));
+    }
+
+    /**
+     * Filtro afterAfter; registrarlo antes del de {@link HttpMetrics#finish} para
+     * que la duración de la petición siga disponible.
+     */
+    public void log(Request req, Response res) {
+        if (!access.isInfoEnabled()) return;
+        int status = res.raw().getStatus();
+        long elapsed = HttpMetrics.elapsedNanos();
+        if (!shouldLog(status, elapsed)) return;
+        access.info("method={} path={} status={} ms={} ip={}",
+                req.requestMethod(), req.pathInfo(), status, elapsed / 1_000_000.0, req.ip());
+    }
+
+    boolean shouldLog(int status, long elapsedNanos) {
+        if (status >= 400 || elapsedNanos >= slowNanos) return true;
+        return sampleEvery == 1 || seq.incrementAndGet() % sampleEvery == 0;
+    }
+}
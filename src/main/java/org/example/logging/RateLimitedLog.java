@@ -0,0 +1,41 @@
+package org.example.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limita un aviso repetitivo a uno por intervalo (p. ej. "pool saturado" bajo sobrecarga).
+ *
+ * Los avisos omitidos se cuentan y se informan en el siguiente que pasa.
+ */
+public class RateLimitedLog {
+    private final long intervalNanos;
+    private final LongSupplier clock;
+    private final AtomicLong nextAllowed = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * @param intervalMillis Intervalo mínimo entre avisos
+     */
+    public RateLimitedLog(long intervalMillis) {
+        this(intervalMillis, System::nanoTime);
+    }
+
+    RateLimitedLog(long intervalMillis, LongSupplier clock) {
+        this.intervalNanos = intervalMillis * 1_000_000L;
+        this.clock = clock;
+    }
+
+    /**
+     * @return Avisos omitidos desde el último emitido si este debe emitirse, o -1 si se omite
+     */
+    public long tryAcquire() {
+        long now = clock.getAsLong();
+        long next = nextAllowed.get();
+        if ((next == Long.MIN_VALUE || now - next >= 0) && nextAllowed.compareAndSet(next, now + intervalNanos)) {
+            return suppressed.getAndSet(0);
+        }
+        suppressed.incrementAndGet();
+        return -1;
+    }
+}
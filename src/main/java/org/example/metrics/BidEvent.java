@@ -0,0 +1,43 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR de una puja recibida en POST /api/offers.
+ *
+ * Uso: {@code begin()} al entrar en la ruta y {@link #commit(String, String)} al salir.
+ * Si el evento no está habilitado en la grabación, commit no hace nada.
+ */
+@Name("org.example.Bid")
+@Label("Puja")
+@Description("Validación y aceptación de una oferta")
+@Category({"Subastas", "Pujas"})
+public class BidEvent extends Event {
+    /** Resultados posibles */
+    public static final String ACCEPTED = "accepted";
+    public static final String TOO_LOW = "too_low";
+    public static final String INVALID = "invalid";
+    public static final String UNKNOWN_ITEM = "unknown_item";
+    public static final String BUSY = "busy";
+    public static final String ERROR = "error";
+
+    @Label("Item")
+    public String itemId;
+
+    @Label("Resultado")
+    public String outcome;
+
+    /** Rellena los campos y registra el evento si la grabación lo pide. */
+    public void commit(String itemId, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.itemId = itemId;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Evento JFR de un envío de precio a todas las sesiones WebSocket.
+ */
+@Name("org.example.PriceBroadcast")
+@Label("Broadcast de precio")
+@Description("Difusión de una actualización a los clientes WebSocket")
+@Category({"Subastas", "WebSocket"})
+public class BroadcastEvent extends Event {
+    @Label("Destinatarios")
+    public int recipients;
+
+    @Label("Fallos de envío")
+    public int failures;
+
+    @Label("Bytes por mensaje")
+    @DataAmount
+    public long bytes;
+
+    /**
+     * Rellena los campos y registra el evento si la grabación lo pide
+     * (el tamaño en bytes solo se calcula en ese caso).
+     */
+    public void commit(int recipients, int failures, String message) {
+        end();
+        if (shouldCommit()) {
+            this.recipients = recipients;
+            this.failures = failures;
+            this.bytes = message.getBytes(StandardCharsets.UTF_8).length;
+            commit();
+        }
+    }
+}
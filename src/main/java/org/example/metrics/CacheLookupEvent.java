@@ -0,0 +1,39 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una búsqueda en una caché de la aplicación (páginas, fragmentos, usuarios).
+ *
+ * Es el más frecuente de todos: viene deshabilitado y se activa en la configuración
+ * de la grabación ({@code org.example.CacheLookup#enabled=true}).
+ */
+@Name("org.example.CacheLookup")
+@Label("Búsqueda en caché")
+@Description("Acierto o fallo en una caché en memoria")
+@Category({"Subastas", "Cachés"})
+@Enabled(false)
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+    @Label("Caché")
+    public String cache;
+
+    @Label("Acierto")
+    public boolean hit;
+
+    /** Rellena los campos y registra el evento si la grabación lo pide. */
+    public void commit(String cache, boolean hit) {
+        end();
+        if (shouldCommit()) {
+            this.cache = cache;
+            this.hit = hit;
+            commit();
+        }
+    }
+}
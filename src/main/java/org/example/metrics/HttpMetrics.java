@@ -0,0 +1,203 @@
+package org.example.metrics;
+
+import spark.Request;
+import spark.Response;
+import spark.routematch.RouteMatch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas HTTP por ruta: latencia, tiempo en BD, peticiones por código y en curso.
+ *
+ * Responsabilidades:
+ * - Resolver cada petición a su patrón de ruta de Spark ("/items/:id", no el id
+ *   concreto), para que el número de series no dependa de los datos
+ * - Registrar la latencia total y el tiempo en JDBC de cada petición en
+ *   histogramas {@link LatencyHistogram} sin reservar memoria: el estado de la
+ *   petición vive en un long[] por hilo y la resolución de la ruta compara
+ *   caracteres sin crear cadenas
+ * - Exportar todo en formato Prometheus
+ *
+ * Uso: {@link #start} como filtro before (el primero), {@link #finish} como
+ * afterAfter y {@link #registerRoutes} al terminar de definir las rutas.
+ */
+public class HttpMetrics {
+    /** Por hilo: inicio (nanoTime, 0 = sin petición), nanos en BD, índice de la ruta */
+    private static final ThreadLocal<long[]> CURRENT = ThreadLocal.withInitial(() -> new long[3]);
+
+    private static final Set<String> METHODS = Set.of("get", "post", "put", "patch", "delete");
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final RouteStats other = new RouteStats(0, "OTHER", "other", new String[0]);
+    /** Por índice (el de {@code CURRENT}) */
+    private volatile RouteStats[] routes = {other};
+    /** Orden de búsqueda: más específicas primero */
+    private volatile RouteStats[] lookupOrder = {};
+
+    /**
+     * Suma tiempo de BD a la petición en curso del hilo (llamado desde la capa JDBC).
+     *
+     * @param nanos Tiempo con una conexión prestada
+     */
+    public static void recordDbTime(long nanos) {
+        long[] state = CURRENT.get();
+        if (state[0] != 0) state[1] += nanos;
+    }
+
+    /**
+     * @return Nanosegundos desde el inicio de la petición en curso del hilo, o 0 si no hay ninguna
+     */
+    public static long elapsedNanos() {
+        long start = CURRENT.get()[0];
+        return start == 0 ? 0 : System.nanoTime() - start;
+    }
+
+    /**
+     * Construye la tabla de rutas a partir de las rutas registradas en Spark
+     * ({@code Spark.routes()}); los filtros se ignoran.
+     */
+    public void registerRoutes(List<RouteMatch> matches) {
+        List<RouteStats> table = new ArrayList<>();
+        table.add(other);
+        for (RouteMatch m : matches) {
+            String method = m.getHttpMethod() == null ? "" : m.getHttpMethod().name();
+            if (!METHODS.contains(method)) continue;
+            String pattern = m.getMatchUri();
+            String upper = method.toUpperCase(Locale.ROOT);
+            boolean seen = table.stream().anyMatch(r -> r.method.equals(upper) && r.route.equals(pattern));
+            if (!seen) table.add(new RouteStats(table.size(), upper, pattern, segments(pattern)));
+        }
+        // Más específicas primero: los segmentos fijos ganan a los parámetros
+        List<RouteStats> ordered = new ArrayList<>(table.subList(1, table.size()));
+        ordered.sort(Comparator.comparingInt((RouteStats r) -> -r.staticSegments()).thenComparingInt(r -> r.id));
+        this.routes = table.toArray(new RouteStats[0]);
+        this.lookupOrder = ordered.toArray(new RouteStats[0]);
+    }
+
+    /** Filtro before: marca el inicio de la petición. */
+    public void start(Request req, Response res) {
+        long[] state = CURRENT.get();
+        RouteStats r = resolve(req.requestMethod(), req.pathInfo());
+        state[0] = System.nanoTime();
+        state[1] = 0;
+        state[2] = r.id;
+        r.inFlight.incrementAndGet();
+    }
+
+    /** Filtro afterAfter: registra latencia, tiempo en BD y código de estado. */
+    public void finish(Request req, Response res) {
+        long[] state = CURRENT.get();
+        if (state[0] == 0) return;
+        long elapsed = System.nanoTime() - state[0];
+        RouteStats[] table = routes;
+        RouteStats r = state[2] < table.length ? table[(int) state[2]] : other;
+        r.inFlight.decrementAndGet();
+        r.latency.recordNanos(elapsed);
+        r.db.recordNanos(state[1]);
+        int status = res.raw().getStatus();
+        int cls = Math.min(Math.max(status / 100, 1), 5) - 1;
+        r.byStatus[cls].increment();
+        state[0] = 0;
+    }
+
+    RouteStats resolve(String method, String path) {
+        if (path == null || method == null) return other;
+        String m = "HEAD".equals(method) ? "GET" : method;
+        for (RouteStats r : lookupOrder) {
+            if (r.method.equals(m) && matches(r.segments, path)) return r;
+        }
+        return other;
+    }
+
+    static String[] segments(String pattern) {
+        if (pattern == null || pattern.isEmpty() || pattern.equals("/")) return new String[0];
+        return (pattern.startsWith("/") ? pattern.substring(1) : pattern).split("/");
+    }
+
+    /** Compara la ruta con el patrón segmento a segmento, sin crear cadenas. */
+    static boolean matches(String[] segments, String path) {
+        int pos = 0;
+        int n = path.length();
+        for (String seg : segments) {
+            if (pos >= n || path.charAt(pos) != '/') return false;
+            int start = pos + 1;
+            int end = path.indexOf('/', start);
+            if (end < 0) end = n;
+            if (seg.equals("*")) return true;
+            if (seg.startsWith(":")) {
+                if (end == start) return false;
+            } else if (end - start != seg.length() || !path.regionMatches(start, seg, 0, seg.length())) {
+                return false;
+            }
+            pos = end;
+        }
+        return pos == n || (pos == n - 1 && path.charAt(pos) == '/');
+    }
+
+    /**
+     * Escribe las métricas HTTP de las rutas que han recibido tráfico.
+     */
+    public void writeTo(PrometheusText out) {
+        RouteStats[] table = routes;
+        List<RouteStats> active = new ArrayList<>();
+        for (RouteStats r : table) {
+            if (r.latency.count() > 0 || r.inFlight.get() > 0) active.add(r);
+        }
+        out.family("http_requests_total", "counter", "Peticiones HTTP por ruta y clase de código");
+        for (RouteStats r : active) {
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                long n = r.byStatus[i].sum();
+                if (n > 0) out.sample("http_requests_total", r.labels("code", STATUS_CLASSES[i]), n);
+            }
+        }
+        out.family("http_requests_in_flight", "gauge", "Peticiones HTTP en curso por ruta");
+        for (RouteStats r : active) out.sample("http_requests_in_flight", r.labels(), r.inFlight.get());
+        out.family("http_request_duration_seconds", "histogram", "Latencia de las peticiones HTTP");
+        for (RouteStats r : active) out.histogram("http_request_duration_seconds", r.labels(), r.latency);
+        out.family("http_request_duration_quantile_seconds", "gauge", "Percentiles de latencia calculados en el servidor");
+        for (RouteStats r : active) out.quantiles("http_request_duration_quantile_seconds", r.labels(), r.latency);
+        out.family("http_request_db_seconds", "histogram", "Tiempo con conexiones JDBC prestadas por petición");
+        for (RouteStats r : active) out.histogram("http_request_db_seconds", r.labels(), r.db);
+    }
+
+    static final class RouteStats {
+        final int id;
+        final String method;
+        final String route;
+        final String[] segments;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LatencyHistogram db = new LatencyHistogram();
+        final LongAdder[] byStatus = new LongAdder[STATUS_CLASSES.length];
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        RouteStats(int id, String method, String route, String[] segments) {
+            this.id = id;
+            this.method = method;
+            this.route = route;
+            this.segments = segments;
+            for (int i = 0; i < byStatus.length; i++) byStatus[i] = new LongAdder();
+        }
+
+        int staticSegments() {
+            int n = 0;
+            for (String s : segments) if (!s.startsWith(":") && !s.equals("*")) n++;
+            return n;
+        }
+
+        String[] labels(String... extra) {
+            String[] out = new String[4 + extra.length];
+            out[0] = "method";
+            out[1] = method;
+            out[2] = "route";
+            out[3] = route;
+            System.arraycopy(extra, 0, out, 4, extra.length);
+            return out;
+        }
+    }
+}
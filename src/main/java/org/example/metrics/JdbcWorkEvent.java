@@ -0,0 +1,34 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR de un trabajo JDBC de un servicio (préstamo de conexión + sentencias).
+ *
+ * La traza de pila del evento identifica el método del servicio que lo originó.
+ */
+@Name("org.example.JdbcWork")
+@Label("Trabajo JDBC")
+@Description("Consulta o escritura de un servicio sobre una conexión del pool")
+@Category({"Subastas", "Base de datos"})
+public class JdbcWorkEvent extends Event {
+    @Label("Pool")
+    public String pool;
+
+    @Label("Correcto")
+    public boolean success;
+
+    /** Rellena los campos y registra el evento si la grabación lo pide. */
+    public void commit(String pool, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.pool = pool;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.metrics;
+
+/**
+ * Escritor del formato de texto de Prometheus (versión 0.0.4).
+ *
+ * Solo se usa al responder /metrics, nunca en el camino de las peticiones.
+ */
+public class PrometheusText {
+    /** Content-Type del formato de texto */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** Límites nominales de las cubetas exportadas, en segundos */
+    static final double[] BUCKETS_SECONDS = {
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    /**
+     * Límites realmente exportados, en microsegundos: el borde de cubeta de
+     * {@link LatencyHistogram} que cierra cada límite nominal (1 ms → 1,024 ms).
+     * Con un límite en mitad de una cubeta log-lineal, sus muestras no podrían
+     * repartirse y la serie contaría de menos.
+     */
+    static final long[] BUCKET_EDGES_MICROS = new long[BUCKETS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKETS_SECONDS.length; i++) {
+            long nominal = Math.round(BUCKETS_SECONDS[i] * 1_000_000);
+            BUCKET_EDGES_MICROS[i] = LatencyHistogram.upperBound(LatencyHistogram.index(nominal - 1));
+        }
+    }
+
+    /** Percentiles exportados junto a cada histograma */
+    static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final StringBuilder out = new StringBuilder(8192);
+
+    /**
+     * Cabecera de una familia de métricas.
+     *
+     * @param name Nombre de la métrica
+     * @param type counter, gauge o histogram
+     * @param help Descripción
+     */
+    public PrometheusText family(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * Una muestra.
+     *
+     * @param name Nombre (con sufijo si aplica)
+     * @param labels Pares nombre, valor
+     * @param value Valor
+     */
+    public PrometheusText sample(String name, String[] labels, double value) {
+        out.append(name);
+        if (labels.length > 0) {
+            out.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (i > 0) out.append(',');
+                out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) out.append((long) value);
+        else out.append(value);
+        out.append('\n');
+        return this;
+    }
+
+    /**
+     * Muestras de un histograma: cubetas acumuladas, _sum y _count. Los
+     * percentiles se escriben aparte con {@link #quantiles}. Los límites {@code le}
+     * son los de {@link #BUCKET_EDGES_MICROS}, así que cada serie es exacta.
+     *
+     * El histograma sigue recibiendo valores mientras se lee: +Inf y _count salen
+     * del total de cubetas leído al final, para que nunca queden por debajo de
+     * una cubeta finita.
+     *
+     * Llamar a {@link #family} con tipo histogram antes de la primera serie.
+     */
+    public PrometheusText histogram(String name, String[] labels, LatencyHistogram h) {
+        for (long edge : BUCKET_EDGES_MICROS) {
+            sample(name + "_bucket", with(labels, "le", Double.toString(edge / 1_000_000.0)), h.countAtOrBelow(edge));
+        }
+        long count = h.bucketTotal();
+        sample(name + "_bucket", with(labels, "le", "+Inf"), count);
+        sample(name + "_sum", labels, h.sumMicros() / 1_000_000.0);
+        sample(name + "_count", labels, count);
+        return this;
+    }
+
+    /**
+     * Percentiles de un histograma como gauge {@code <name>{quantile="..."}}.
+     */
+    public PrometheusText quantiles(String name, String[] labels, LatencyHistogram h) {
+        for (double q : QUANTILES) {
+            sample(name, with(labels, "quantile", Double.toString(q)), h.valueAtQuantile(q) / 1_000_000.0);
+        }
+        return this;
+    }
+
+    private static String[] with(String[] labels, String name, String value) {
+        String[] out = new String[labels.length + 2];
+        System.arraycopy(labels, 0, out, 0, labels.length);
+        out[labels.length] = name;
+        out[labels.length + 1] = value;
+        return out;
+    }
+
+    private static String escape(String value) {
+        if (value == null) return "";
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
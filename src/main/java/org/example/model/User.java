@@ -7,7 +7,7 @@
  * - Proporcionar getters y setters para acceso a datos
  *
  * Seguridad:
- * - La contraseña se almacena hasheada con SHA-256 + Base64
+ * - La contraseña se almacena hasheada con PBKDF2 (los hashes SHA-256 heredados se migran al iniciar sesión)
  * - Nunca se transmite contraseña en texto plano
  *
  * @see AuthService
@@ -25,7 +25,7 @@ public class User {
     /** Correo electrónico único del usuario */
     private String email;
 
-    /** Contraseña hasheada (SHA-256 + Base64) */
+    /** Contraseña hasheada (formato pbkdf2$iter$sal$hash) */
     private String password;
 
     /**
@@ -91,7 +91,7 @@ public class User {
     /**
      * Obtiene la contraseña hasheada del usuario.
      *
-     * @return Contraseña en formato SHA-256 + Base64
+     * @return Contraseña hasheada (PBKDF2 o SHA-256 heredado)
      */
     public String getPassword() { return password; }
 
@@ -99,7 +99,7 @@ public class User {
      * Establece la contraseña del usuario (debe estar hasheada antes).
      *
      * Precaución: Este método debe recibir contraseña ya hasheada.
-     * Ver {@link AuthService#hashPassword(String)} para hashear.
+     * Ver {@link org.example.service.PasswordHasher#hash(String)} para hashear.
      *
      * @param password Contraseña hasheada a almacenar
      */
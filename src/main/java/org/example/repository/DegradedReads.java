@@ -0,0 +1,30 @@
+package org.example.repository;
+
+/**
+ * Marca, por hilo de petición, que una lectura se sirvió con datos de respaldo
+ * (último catálogo conocido o historial vacío) en lugar de la base de datos.
+ *
+ * Quien guarda o valida respuestas (caché de páginas, ETags) lo consulta para
+ * no asociar datos atrasados a la versión actual. Se reinicia al empezar cada
+ * petición.
+ */
+public final class DegradedReads {
+    private static final ThreadLocal<Boolean> DEGRADED = new ThreadLocal<>();
+
+    private DegradedReads() { }
+
+    /** Registra que la petición en curso usó datos de respaldo. */
+    public static void mark() {
+        DEGRADED.set(Boolean.TRUE);
+    }
+
+    /** Olvida la marca (inicio de petición). */
+    public static void reset() {
+        DEGRADED.remove();
+    }
+
+    /** @return true si la petición en curso usó datos de respaldo */
+    public static boolean occurred() {
+        return DEGRADED.get() != null;
+    }
+}
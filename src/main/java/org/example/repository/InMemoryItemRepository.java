@@ -0,0 +1,143 @@
+package org.example.repository;
+
+import org.example.model.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Artículos en memoria.
+ *
+ * - Índice por ID en un ConcurrentHashMap (lecturas sin bloqueo)
+ * - Orden de creación en un ConcurrentSkipListMap (secuencia → ID) para listar
+ *   los más recientes primero sin ordenar en cada petición
+ * - Los registros son inmutables: las actualizaciones los reemplazan atómicamente
+ */
+public class InMemoryItemRepository implements ItemRepository {
+
+    /** Registro inmutable de un artículo (también es el formato del snapshot) */
+    static final class ItemRecord {
+        final long seq;
+        final String id;
+        final String name;
+        final String description;
+        final String price;
+
+        ItemRecord(long seq, String id, String name, String description, String price) {
+            this.seq = seq;
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.price = price;
+        }
+
+        Item toItem() {
+            return new Item(id, name, description, price);
+        }
+    }
+
+    private final Map<String, ItemRecord> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, String> byCreation = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong mutations;
+    private final long versionBase = System.currentTimeMillis() << 20;
+
+    InMemoryItemRepository(AtomicLong mutations) {
+        this.mutations = mutations;
+    }
+
+    @Override
+    public List<Item> findAll() {
+        List<Item> items = new ArrayList<>(byId.size());
+        for (String id : byCreation.descendingMap().values()) {
+            ItemRecord r = byId.get(id);
+            if (r != null) items.add(r.toItem());
+        }
+        return items;
+    }
+
+    @Override
+    public Item findById(String id, boolean primary) {
+        ItemRecord r = id != null ? byId.get(id) : null;
+        return r != null ? r.toItem() : null;
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return id != null && byId.containsKey(id);
+    }
+
+    @Override
+    public List<Item> searchByName(String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        List<Item> items = new ArrayList<>();
+        for (ItemRecord r : byId.values()) {
+            if (r.name != null && r.name.toLowerCase(Locale.ROOT).contains(q)) items.add(r.toItem());
+        }
+        items.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return items;
+    }
+
+    @Override
+    public void insert(Item item) {
+        long seq = sequence.incrementAndGet();
+        ItemRecord r = new ItemRecord(seq, item.getId(), item.getName(), item.getDescription(), item.getPrice());
+        if (byId.putIfAbsent(item.getId(), r) != null) {
+            throw new RuntimeException("Error al crear item: ya existe " + item.getId());
+        }
+        byCreation.put(seq, item.getId());
+        mutations.incrementAndGet();
+    }
+
+    @Override
+    public void update(String id, Item item) {
+        if (byId.computeIfPresent(id, (k, r) ->
+                new ItemRecord(r.seq, id, item.getName(), item.getDescription(), item.getPrice())) != null) {
+            mutations.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean updatePrice(String id, String price) {
+        boolean updated = byId.computeIfPresent(id, (k, r) ->
+                new ItemRecord(r.seq, r.id, r.name, r.description, price)) != null;
+        if (updated) mutations.incrementAndGet();
+        return updated;
+    }
+
+    @Override
+    public void delete(String id) {
+        ItemRecord r = byId.remove(id);
+        if (r != null) {
+            byCreation.remove(r.seq);
+            mutations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Contador de mutaciones del almacén (items, ofertas y usuarios) sobre una base
+     * tomada del reloj al arrancar: tras reiniciar desde un snapshot el contador
+     * empieza de cero y, sin esa base, repetiría versiones ya entregadas como ETag.
+     */
+    @Override
+    public long catalogVersion() {
+        return versionBase + mutations.get();
+    }
+
+    List<ItemRecord> exportRecords() {
+        return new ArrayList<>(byId.values());
+    }
+
+    void importRecords(List<ItemRecord> records) {
+        for (ItemRecord r : records) {
+            byId.put(r.id, r);
+            byCreation.put(r.seq, r.id);
+            sequence.accumulateAndGet(r.seq, Math::max);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.repository;
+
+import org.example.model.Offer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ofertas en memoria.
+ *
+ * Cada artículo tiene su libro de ofertas ordenado por monto descendente (a igual
+ * monto, gana la más antigua), así que la oferta más alta es el primer elemento y
+ * no hace falta ordenar al leer. Las ofertas no se modifican una vez creadas.
+ */
+public class InMemoryOfferRepository implements OfferRepository {
+
+    /** Registro inmutable de una oferta (también es el formato del snapshot) */
+    static final class OfferRecord {
+        final long dbId;
+        final String itemId;
+        final String name;
+        final String email;
+        final double amount;
+
+        OfferRecord(long dbId, String itemId, String name, String email, double amount) {
+            this.dbId = dbId;
+            this.itemId = itemId;
+            this.name = name;
+            this.email = email;
+            this.amount = amount;
+        }
+
+        Offer toOffer() {
+            Offer offer = new Offer(itemId, name, email, amount);
+            offer.setDbId(dbId);
+            return offer;
+        }
+    }
+
+    private static final Comparator<OfferRecord> BY_AMOUNT_DESC =
+            Comparator.comparingDouble((OfferRecord r) -> r.amount).reversed()
+                    .thenComparingLong(r -> r.dbId);
+
+    private final ConcurrentHashMap<String, NavigableSet<OfferRecord>> byItem = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, OfferRecord> byId = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong mutations;
+
+    InMemoryOfferRepository(AtomicLong mutations) {
+        this.mutations = mutations;
+    }
+
+    @Override
+    public void insert(Offer offer) {
+        OfferRecord r = new OfferRecord(sequence.incrementAndGet(),
+                offer.getId(), offer.getName(), offer.getEmail(), offer.getAmount());
+        add(r);
+        offer.setDbId(r.dbId);
+        mutations.incrementAndGet();
+    }
+
+    @Override
+    public List<Offer> findAll() {
+        List<Offer> offers = new ArrayList<>(byId.size());
+        for (OfferRecord r : byId.descendingMap().values()) offers.add(r.toOffer());
+        return offers;
+    }
+
+    @Override
+    public List<Offer> findByItemId(String itemId, boolean primary) {
+        NavigableSet<OfferRecord> book = byItem.get(itemId);
+        List<Offer> offers = new ArrayList<>(book != null ? book.size() : 0);
+        if (book != null) {
+            for (OfferRecord r : book) offers.add(r.toOffer());
+        }
+        return offers;
+    }
+
+    private void add(OfferRecord r) {
+        byItem.computeIfAbsent(r.itemId, k -> new ConcurrentSkipListSet<>(BY_AMOUNT_DESC)).add(r);
+        byId.put(r.dbId, r);
+    }
+
+    List<OfferRecord> exportRecords() {
+        return new ArrayList<>(byId.values());
+    }
+
+    void importRecords(List<OfferRecord> records) {
+        for (OfferRecord r : records) {
+            add(r);
+            sequence.accumulateAndGet(r.dbId, Math::max);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.repository;
+
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motor de almacenamiento embebido en memoria.
+ *
+ * Responsabilidades:
+ * - Agrupar los repositorios en memoria de artículos, ofertas y usuarios
+ * - Restaurar el último snapshot al arrancar (si se configuró una ruta)
+ * - Escribir snapshots periódicos a disco solo cuando hubo cambios, y uno final al cerrar
+ *
+ * El snapshot es un JSON escrito en un fichero temporal y movido atómicamente
+ * sobre el anterior, así que un corte a mitad de escritura no lo corrompe. No es
+ * un log transaccional: se pierden los cambios posteriores al último snapshot.
+ */
+public class InMemoryStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryStore.class);
+    private static final Gson gson = new Gson();
+
+    /** Formato del snapshot en disco */
+    private static final class Snapshot {
+        List<InMemoryItemRepository.ItemRecord> items = new ArrayList<>();
+        List<InMemoryOfferRepository.OfferRecord> offers = new ArrayList<>();
+        List<InMemoryUserRepository.UserRecord> users = new ArrayList<>();
+    }
+
+    private final AtomicLong mutations = new AtomicLong();
+    private final InMemoryItemRepository items = new InMemoryItemRepository(mutations);
+    private final InMemoryOfferRepository offers = new InMemoryOfferRepository(mutations);
+    private final InMemoryUserRepository users = new InMemoryUserRepository(mutations);
+    private final Path snapshotPath;
+    private ScheduledExecutorService scheduler;
+    private long lastSnapshotMutations;
+
+    /**
+     * @param snapshotPath Fichero de snapshot, o null para no persistir nada
+     * @param snapshotIntervalSeconds Periodo entre snapshots (0 = solo al cerrar)
+     */
+    public InMemoryStore(Path snapshotPath, long snapshotIntervalSeconds) {
+        this.snapshotPath = snapshotPath;
+        if (snapshotPath == null) return;
+
+        restore();
+        if (snapshotIntervalSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "memory-snapshot");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly,
+                    snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public ItemRepository items() { return items; }
+
+    public OfferRepository offers() { return offers; }
+
+    public UserRepository users() { return users; }
+
+    /**
+     * Escribe el snapshot si hubo cambios desde el anterior.
+     *
+     * @return true si se escribió un snapshot
+     * @throws IOException Si no se pudo escribir el fichero
+     */
+    public synchronized boolean snapshot() throws IOException {
+        if (snapshotPath == null) return false;
+        long current = mutations.get();
+        if (current == lastSnapshotMutations) return false;
+
+        Snapshot snap = new Snapshot();
+        snap.items = items.exportRecords();
+        snap.offers = offers.exportRecords();
+        snap.users = users.exportRecords();
+
+        Path dir = snapshotPath.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        Files.writeString(tmp, gson.toJson(snap), StandardCharsets.UTF_8);
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        lastSnapshotMutations = current;
+        logger.debug("💾 Snapshot en memoria escrito: {} items, {} ofertas, {} usuarios",
+                snap.items.size(), snap.offers.size(), snap.users.size());
+        return true;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            logger.warn("⚠️ No se pudo escribir el snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private void restore() {
+        if (!Files.exists(snapshotPath)) {
+            logger.info("Sin snapshot previo en {}, se arranca vacío", snapshotPath);
+            return;
+        }
+        try {
+            Snapshot snap = gson.fromJson(Files.readString(snapshotPath, StandardCharsets.UTF_8), Snapshot.class);
+            if (snap == null) return;
+            if (snap.items != null) items.importRecords(snap.items);
+            if (snap.offers != null) offers.importRecords(snap.offers);
+            if (snap.users != null) users.importRecords(snap.users);
+            logger.info("✅ Snapshot restaurado desde {}", snapshotPath);
+        } catch (Exception e) {
+            throw new IllegalStateException("Snapshot en memoria ilegible: " + snapshotPath, e);
+        }
+    }
+
+    /** Detiene los snapshots periódicos y escribe el último. */
+    @Override
+    public void close() {
+        if (scheduler != null) scheduler.shutdownNow();
+        snapshotQuietly();
+    }
+}
@@ -0,0 +1,214 @@
+package org.example.repository;
+
+import org.example.model.User;
+import org.example.service.UserService.InsertResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Usuarios en memoria.
+ *
+ * - Lecturas sin bloqueo sobre índices concurrentes (por ID, por email y por
+ *   (created_at, id) descendente para la paginación por cursor)
+ * - Los registros son inmutables y se reemplazan sin huecos: un lector nunca ve
+ *   desaparecer un usuario durante una actualización
+ * - Las escrituras se serializan con el monitor del repositorio para mantener los
+ *   tres índices coherentes y garantizar la unicidad de ID y email, igual que las
+ *   restricciones UNIQUE de la tabla
+ */
+public class InMemoryUserRepository implements UserRepository {
+
+    /** Registro inmutable de un usuario (también es el formato del snapshot) */
+    static final class UserRecord {
+        final String id;
+        final String name;
+        final String email;
+        final String password;
+        final long createdAt;
+
+        UserRecord(String id, String name, String email, String password, long createdAt) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.password = password;
+            this.createdAt = createdAt;
+        }
+
+        User toView() {
+            return new User(id, name, email);
+        }
+
+        User toUser() {
+            User user = toView();
+            user.setPassword(password);
+            return user;
+        }
+    }
+
+    private static final Comparator<UserRecord> NEWEST_FIRST =
+            Comparator.comparingLong((UserRecord r) -> r.createdAt).reversed()
+                    .thenComparing((UserRecord r) -> r.id, Comparator.reverseOrder());
+
+    private final Map<String, UserRecord> byId = new ConcurrentHashMap<>();
+    private final Map<String, String> idByEmail = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<UserRecord, UserRecord> byCreation = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+    private final AtomicLong mutations;
+    private final LongSupplier clock;
+
+    InMemoryUserRepository(AtomicLong mutations) {
+        this(mutations, System::currentTimeMillis);
+    }
+
+    InMemoryUserRepository(AtomicLong mutations, LongSupplier clock) {
+        this.mutations = mutations;
+        this.clock = clock;
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = new ArrayList<>(byId.size());
+        for (UserRecord r : byCreation.values()) users.add(r.toView());
+        return users;
+    }
+
+    @Override
+    public Slice findPage(Instant afterCreatedAt, String afterId, int limit) {
+        Iterable<UserRecord> source = afterId == null
+                ? byCreation.values()
+                : byCreation.tailMap(new UserRecord(afterId, null, null, null, afterCreatedAt.toEpochMilli()), false).values();
+
+        List<Map<String, String>> rows = new ArrayList<>(limit);
+        UserRecord last = null;
+        boolean hasMore = false;
+        for (UserRecord r : source) {
+            if (rows.size() == limit) {
+                hasMore = true;
+                break;
+            }
+            Map<String, String> row = new LinkedHashMap<>(4);
+            row.put("id", r.id);
+            row.put("name", r.name);
+            row.put("email", r.email);
+            rows.add(row);
+            last = r;
+        }
+        return new Slice(rows, last != null ? Instant.ofEpochMilli(last.createdAt) : null,
+                last != null ? last.id : null, hasMore);
+    }
+
+    @Override
+    public User findById(String id) {
+        UserRecord r = id != null ? byId.get(id) : null;
+        return r != null ? r.toUser() : null;
+    }
+
+    @Override
+    public User findViewById(String id) {
+        UserRecord r = id != null ? byId.get(id) : null;
+        return r != null ? r.toView() : null;
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        String id = email != null ? idByEmail.get(email) : null;
+        return id != null ? findById(id) : null;
+    }
+
+    @Override
+    public List<User> search(String query, int limit) {
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        List<UserRecord> matches = new ArrayList<>();
+        for (UserRecord r : byId.values()) {
+            if ((r.name != null && r.name.toLowerCase(Locale.ROOT).contains(q))
+                    || (r.email != null && r.email.toLowerCase(Locale.ROOT).contains(q))) {
+                matches.add(r);
+            }
+        }
+        matches.sort(Comparator.comparing((UserRecord r) -> r.name, Comparator.nullsLast(Comparator.naturalOrder())));
+        List<User> users = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) users.add(matches.get(i).toView());
+        return users;
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return id != null && byId.containsKey(id);
+    }
+
+    @Override
+    public void insert(User user) {
+        if (insertIfAbsent(user) != InsertResult.CREATED) {
+            throw new RuntimeException("Error al crear usuario: ID o email duplicado");
+        }
+    }
+
+    @Override
+    public synchronized InsertResult insertIfAbsent(User user) {
+        if (idByEmail.containsKey(user.getEmail())) return InsertResult.DUPLICATE_EMAIL;
+        if (byId.containsKey(user.getId())) return InsertResult.DUPLICATE_ID;
+        put(new UserRecord(user.getId(), user.getName(), user.getEmail(), user.getPassword(), clock.getAsLong()));
+        mutations.incrementAndGet();
+        return InsertResult.CREATED;
+    }
+
+    @Override
+    public synchronized boolean update(String id, User user) {
+        UserRecord old = byId.get(id);
+        if (old == null) return false;
+        String owner = idByEmail.get(user.getEmail());
+        if (owner != null && !owner.equals(id)) {
+            throw new RuntimeException("Error al actualizar usuario: email duplicado");
+        }
+        put(new UserRecord(id, user.getName(), user.getEmail(), old.password, old.createdAt));
+        if (old.email != null && !old.email.equals(user.getEmail())) idByEmail.remove(old.email, id);
+        mutations.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public synchronized void updatePassword(String id, String passwordHash) {
+        UserRecord old = byId.get(id);
+        if (old == null) return;
+        put(new UserRecord(id, old.name, old.email, passwordHash, old.createdAt));
+        mutations.incrementAndGet();
+    }
+
+    @Override
+    public synchronized boolean delete(String id) {
+        UserRecord old = byId.get(id);
+        if (old == null) return false;
+        remove(old);
+        mutations.incrementAndGet();
+        return true;
+    }
+
+    private void put(UserRecord r) {
+        byId.put(r.id, r);
+        if (r.email != null) idByEmail.put(r.email, r.id);
+        byCreation.put(r, r); // misma clave (created_at, id): reemplaza el valor
+    }
+
+    private void remove(UserRecord r) {
+        byId.remove(r.id);
+        if (r.email != null) idByEmail.remove(r.email, r.id);
+        byCreation.remove(r);
+    }
+
+    List<UserRecord> exportRecords() {
+        return new ArrayList<>(byId.values());
+    }
+
+    synchronized void importRecords(List<UserRecord> records) {
+        for (UserRecord r : records) put(r);
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.repository;
+
+import org.example.model.Item;
+
+import java.util.List;
+
+/**
+ * Acceso a datos de artículos (tabla {@code items}).
+ *
+ * Implementaciones:
+ * - {@link JdbcItemRepository}: PostgreSQL a través de DatabaseManager
+ * - {@link InMemoryItemRepository}: motor en memoria de {@link InMemoryStore}
+ *
+ * Los objetos devueltos son copias: modificarlos no altera el almacenamiento.
+ */
+public interface ItemRepository {
+
+    /** @return Todos los artículos, más recientes primero */
+    List<Item> findAll();
+
+    /**
+     * @param id ID del artículo
+     * @param primary true para leer del primario (validaciones previas a escribir)
+     * @return Artículo o null si no existe
+     */
+    Item findById(String id, boolean primary);
+
+    /** @return true si el artículo existe */
+    boolean exists(String id);
+
+    /** @return Artículos cuyo nombre contiene el término, ordenados por nombre */
+    List<Item> searchByName(String query);
+
+    /** Inserta un artículo nuevo */
+    void insert(Item item);
+
+    /** Actualiza nombre, descripción y precio de un artículo */
+    void update(String id, Item item);
+
+    /**
+     * Actualiza solo el precio.
+     *
+     * @return false si el artículo no existe en el almacenamiento
+     */
+    boolean updatePrice(String id, String price);
+
+    /** Elimina un artículo */
+    void delete(String id);
+
+    /**
+     * Versión de items y ofertas, igual en todas las instancias que comparten el
+     * almacenamiento. Cambia con cada escritura; es una lectura por clave primaria.
+     *
+     * @return Versión actual, o -1 si no se pudo leer
+     */
+    long catalogVersion();
+}
@@ -0,0 +1,184 @@
+package org.example.repository;
+
+import org.example.DatabaseManager.Pool;
+import org.example.model.Item;
+import org.example.service.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio de artículos sobre PostgreSQL.
+ *
+ * Lecturas de catálogo por el pool de lectura, escrituras de pujas por el pool
+ * de pujas y CRUD administrativo por el pool de administración (ver DatabaseManager).
+ *
+ * Guarda el último catálogo leído con éxito: si la consulta falla o el
+ * circuit breaker está abierto, las lecturas de catálogo se sirven desde esa
+ * copia en lugar de devolver una lista vacía, marcadas en {@link DegradedReads}.
+ * Un pool saturado con el breaker cerrado se propaga como 503. Las lecturas del
+ * primario (validación de pujas) nunca usan esa copia.
+ */
+public class JdbcItemRepository implements ItemRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcItemRepository.class);
+
+    /** (id, name, description, price) → Item */
+    static final RowMapper.Factory<Item> ITEM = rs -> {
+        int id = rs.findColumn("id");
+        int name = rs.findColumn("name");
+        int description = rs.findColumn("description");
+        int price = rs.findColumn("price");
+        return r -> new Item(r.getString(id), r.getString(name), r.getString(description), r.getString(price));
+    };
+
+    /** Último catálogo leído con éxito */
+    private volatile List<Item> lastCatalog = List.of();
+
+    @Override
+    public List<Item> findAll() {
+        String sql = "SELECT id, name, description, price FROM items ORDER BY created_at DESC";
+
+        try {
+            List<Item> items = JdbcSupport.withConnection(Pool.CATALOG,
+                    conn -> JdbcSupport.streamList(conn, sql, JdbcSupport.Binder.NONE, ITEM));
+            logger.debug("📋 Se obtuvieron {} items desde DB", items.size());
+            lastCatalog = List.copyOf(items);
+            return items;
+        } catch (SQLException e) {
+            logger.error("❌ Error al obtener items", e);
+            DegradedReads.mark();
+        } catch (ServiceBusyException e) {
+            JdbcSupport.fallbackOrThrow(e);
+            logger.debug("Catálogo servido desde caché: {}", e.getMessage());
+        }
+        return copyOf(lastCatalog);
+    }
+
+    @Override
+    public Item findById(String id, boolean primary) {
+        String sql = "SELECT id, name, description, price FROM items WHERE id = ?";
+        try {
+            return JdbcSupport.withConnection(primary ? Pool.BIDS : Pool.CATALOG,
+                    conn -> JdbcSupport.queryOne(conn, sql, ps -> ps.setString(1, id), ITEM));
+        } catch (SQLException e) {
+            logger.error("Error al buscar item: {}", id, e);
+            DegradedReads.mark();
+        } catch (ServiceBusyException e) {
+            if (primary) throw e;
+            JdbcSupport.fallbackOrThrow(e);
+            logger.debug("Item {} servido desde caché: {}", id, e.getMessage());
+            for (Item it : lastCatalog) {
+                if (id.equals(it.getId())) return copy(it);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean exists(String id) {
+        String sql = "SELECT 1 FROM items WHERE id = ?";
+        try {
+            return JdbcSupport.withConnection(Pool.BIDS,
+                    conn -> JdbcSupport.queryOne(conn, sql, ps -> ps.setString(1, id), rs -> r -> Boolean.TRUE)) != null;
+        } catch (SQLException e) {
+            logger.error("Error al verificar existencia de item: {}", id, e);
+        }
+        return false;
+    }
+
+    /** Fila única de catalog_version, mantenida por triggers (migración V4) */
+    @Override
+    public long catalogVersion() {
+        String sql = "SELECT version FROM catalog_version WHERE id = 1";
+        try {
+            Long version = JdbcSupport.withConnection(Pool.CATALOG,
+                    conn -> JdbcSupport.queryOne(conn, sql, JdbcSupport.Binder.NONE, rs -> r -> r.getLong(1)));
+            return version != null ? version : -1;
+        } catch (SQLException | ServiceBusyException e) {
+            logger.debug("Versión del catálogo no disponible: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    @Override
+    public List<Item> searchByName(String query) {
+        String sql = "SELECT id, name, description, price FROM items WHERE LOWER(name) LIKE ? ORDER BY name";
+        try {
+            return JdbcSupport.withConnection(Pool.CATALOG,
+                    conn -> JdbcSupport.queryList(conn, sql, ps -> ps.setString(1, "%" + query.toLowerCase() + "%"), ITEM));
+        } catch (SQLException e) {
+            logger.error("❌ Error al buscar items", e);
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public void insert(Item item) {
+        String sql = "INSERT INTO items (id, name, description, price) VALUES (?, ?, ?, ?)";
+        try {
+            JdbcSupport.withConnection(Pool.ADMIN, conn -> JdbcSupport.update(conn, sql, ps -> {
+                ps.setString(1, item.getId());
+                ps.setString(2, item.getName());
+                ps.setString(3, item.getDescription());
+                ps.setString(4, item.getPrice());
+            }));
+        } catch (SQLException e) {
+            logger.error("Error al crear item: {}", item.getId(), e);
+            throw new RuntimeException("Error al crear item: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void update(String id, Item item) {
+        String sql = "UPDATE items SET name = ?, description = ?, price = ? WHERE id = ?";
+        try {
+            JdbcSupport.withConnection(Pool.ADMIN, conn -> JdbcSupport.update(conn, sql, ps -> {
+                ps.setString(1, item.getName());
+                ps.setString(2, item.getDescription());
+                ps.setString(3, item.getPrice());
+                ps.setString(4, id);
+            }));
+        } catch (SQLException e) {
+            logger.error("Error al actualizar item: {}", id, e);
+            throw new RuntimeException("Error al actualizar item: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean updatePrice(String id, String price) {
+        String sql = "UPDATE items SET price = ? WHERE id = ?";
+        try {
+            return JdbcSupport.withConnection(Pool.BIDS, conn -> JdbcSupport.update(conn, sql, ps -> {
+                ps.setString(1, price);
+                ps.setString(2, id);
+            })) > 0;
+        } catch (SQLException e) {
+            logger.error("Error al actualizar precio del item {}", id, e);
+            throw new RuntimeException("Error al actualizar precio: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        String sql = "DELETE FROM items WHERE id = ?";
+        try {
+            JdbcSupport.withConnection(Pool.ADMIN, conn -> JdbcSupport.update(conn, sql, ps -> ps.setString(1, id)));
+        } catch (SQLException e) {
+            logger.error("Error al eliminar item: {}", id, e);
+            throw new RuntimeException("Error al eliminar item: " + e.getMessage());
+        }
+    }
+
+    private static Item copy(Item it) {
+        return new Item(it.getId(), it.getName(), it.getDescription(), it.getPrice());
+    }
+
+    private static List<Item> copyOf(List<Item> items) {
+        List<Item> out = new ArrayList<>(items.size());
+        for (Item it : items) out.add(copy(it));
+        return out;
+    }
+}
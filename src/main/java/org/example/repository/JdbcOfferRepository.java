@@ -0,0 +1,102 @@
+package org.example.repository;
+
+import org.example.DatabaseManager.Pool;
+import org.example.model.Offer;
+import org.example.service.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio de ofertas sobre PostgreSQL.
+ */
+public class JdbcOfferRepository implements OfferRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcOfferRepository.class);
+
+    /** (offer_db_id, name, email, item_id, amount) → Offer */
+    static final RowMapper.Factory<Offer> OFFER = rs -> {
+        int dbId = rs.findColumn("offer_db_id");
+        int name = rs.findColumn("name");
+        int email = rs.findColumn("email");
+        int itemId = rs.findColumn("item_id");
+        int amount = rs.findColumn("amount");
+        return r -> {
+            Offer offer = new Offer(r.getString(itemId), r.getString(name), r.getString(email), r.getDouble(amount));
+            offer.setDbId(r.getLong(dbId));
+            return offer;
+        };
+    };
+
+    @Override
+    public void insert(Offer offer) {
+        String sql = "INSERT INTO offers (name, email, item_id, amount) VALUES (?, ?, ?, ?)";
+
+        try {
+            JdbcSupport.withConnection(Pool.BIDS, conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, offer.getName());
+                    pstmt.setString(2, offer.getEmail());
+                    pstmt.setString(3, offer.getId());
+                    pstmt.setDouble(4, offer.getAmount());
+
+                    if (pstmt.executeUpdate() > 0) {
+                        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                            if (rs.next()) {
+                                offer.setDbId(rs.getLong(1));
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            logger.error("❌ Error al crear oferta", e);
+            throw new RuntimeException("Error al crear oferta: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Offer> findAll() {
+        String sql = "SELECT id AS offer_db_id, name, email, item_id, amount FROM offers ORDER BY created_at DESC";
+
+        try {
+            return JdbcSupport.withConnection(Pool.CATALOG,
+                    conn -> JdbcSupport.streamList(conn, sql, JdbcSupport.Binder.NONE, OFFER));
+        } catch (SQLException e) {
+            logger.error("Error al obtener ofertas desde PostgreSQL", e);
+            DegradedReads.mark();
+        } catch (ServiceBusyException e) {
+            JdbcSupport.fallbackOrThrow(e);
+            logger.debug("Historial de ofertas no disponible: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Con {@code primary} (validación de pujas) un circuito abierto o un pool
+     * saturado se propagan como ServiceBusyException: nunca se valida una puja
+     * contra una lista vacía. Las lecturas de historial solo se degradan a una
+     * lista vacía con el breaker abierto (ver {@link JdbcSupport#fallbackOrThrow}).
+     */
+    @Override
+    public List<Offer> findByItemId(String itemId, boolean primary) {
+        String sql = "SELECT id AS offer_db_id, name, email, item_id, amount FROM offers WHERE item_id = ? ORDER BY amount DESC";
+
+        try {
+            return JdbcSupport.withConnection(primary ? Pool.BIDS : Pool.CATALOG,
+                    conn -> JdbcSupport.queryList(conn, sql, ps -> ps.setString(1, itemId), OFFER));
+        } catch (SQLException e) {
+            logger.error("Error al obtener ofertas por item", e);
+            if (primary) throw new ServiceBusyException("No se pudieron validar las ofertas, intenta de nuevo", 1);
+            DegradedReads.mark();
+        } catch (ServiceBusyException e) {
+            if (primary) throw e;
+            JdbcSupport.fallbackOrThrow(e);
+            logger.debug("Ofertas de {} no disponibles: {}", itemId, e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.repository;
+
+import org.example.DatabaseManager;
+import org.example.metrics.HttpMetrics;
+import org.example.metrics.JdbcWorkEvent;
+import org.example.service.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Utilidades JDBC compartidas por los repositorios.
+ *
+ * - {@link #withConnection}: toma una conexión del pool de la clase de carga e
+ *   informa del resultado al circuit breaker de DatabaseManager
+ * - {@link #queryList} / {@link #queryOne}: consultas acotadas (LIMIT, por clave)
+ * - {@link #stream}: recorridos grandes; desactiva autocommit y fija el fetch size
+ *   para que el driver de PostgreSQL lea las filas con un cursor por lotes en vez
+ *   de cargar todo el ResultSet en memoria
+ *
+ * Configuración: JDBC_FETCH_SIZE (500 por defecto).
+ */
+final class JdbcSupport {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcSupport.class);
+
+    /** Filas por viaje al servidor en los recorridos con cursor */
+    static final int FETCH_SIZE = Integer.parseInt(System.getenv().getOrDefault("JDBC_FETCH_SIZE", "500"));
+
+    /** Asigna los parámetros de una sentencia */
+    @FunctionalInterface
+    interface Binder {
+        Binder NONE = ps -> { };
+
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    /** Trabajo JDBC sobre una conexión prestada */
+    @FunctionalInterface
+    interface SqlWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    private JdbcSupport() { }
+
+    /**
+     * Ejecuta un trabajo con una conexión del pool indicado y registra el éxito o
+     * el fallo en el circuit breaker, y el tiempo empleado en la petición en curso.
+     *
+     * @throws org.example.service.ServiceBusyException Si el pool está saturado o el circuito abierto
+     */
+    static <T> T withConnection(DatabaseManager.Pool pool, SqlWork<T> work) throws SQLException {
+        long start = System.nanoTime();
+        JdbcWorkEvent event = new JdbcWorkEvent();
+        event.begin();
+        boolean success = false;
+        try (Connection conn = DatabaseManager.getConnection(pool)) {
+            T result = work.run(conn);
+            DatabaseManager.recordSuccess();
+            success = true;
+            return result;
+        } catch (SQLException e) {
+            DatabaseManager.recordFailure(e);
+            throw e;
+        } finally {
+            HttpMetrics.recordDbTime(System.nanoTime() - start);
+            event.commit(pool.getPoolName(), success);
+        }
+    }
+
+    /**
+     * Decide si una lectura de catálogo puede servirse con datos de respaldo.
+     *
+     * Solo con el circuit breaker abierto (la BD no responde); una saturación
+     * momentánea del pool se propaga como 503 en vez de devolver un 200 atrasado.
+     * Si se sirve el respaldo, queda marcado en {@link DegradedReads}.
+     *
+     * @throws ServiceBusyException La misma excepción si el breaker está cerrado
+     */
+    static void fallbackOrThrow(ServiceBusyException e) {
+        if (!"OPEN".equals(DatabaseManager.getBreakerState())) throw e;
+        DegradedReads.mark();
+    }
+
+    /**
+     * Ejecuta una consulta y mapea todas las filas.
+     */
+    static <T> List<T> queryList(Connection conn, String sql, Binder binder, RowMapper.Factory<T> mapper)
+            throws SQLException {
+        List<T> out = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            binder.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<T> row = mapper.forResultSet(rs);
+                while (rs.next()) out.add(row.mapRow(rs));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Ejecuta una consulta y mapea la primera fila.
+     *
+     * @return Objeto mapeado o null si no hay filas
+     */
+    static <T> T queryOne(Connection conn, String sql, Binder binder, RowMapper.Factory<T> mapper)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            binder.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapper.forResultSet(rs).mapRow(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Ejecuta un INSERT/UPDATE/DELETE.
+     *
+     * @return Filas afectadas
+     */
+    static int update(Connection conn, String sql, Binder binder) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            binder.bind(ps);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Recorre una consulta grande con un cursor de servidor, entregando cada fila
+     * al consumidor sin acumularlas.
+     *
+     * La conexión se deja con su autocommit original al terminar.
+     */
+    static <T> void stream(Connection conn, String sql, Binder binder, RowMapper.Factory<T> mapper,
+                           Consumer<? super T> sink) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        if (autoCommit) conn.setAutoCommit(false); // el driver solo usa cursores fuera de autocommit
+        try (PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(FETCH_SIZE);
+            binder.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<T> row = mapper.forResultSet(rs);
+                while (rs.next()) sink.accept(row.mapRow(rs));
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException re) {
+                logger.debug("Rollback tras error de lectura falló: {}", re.getMessage());
+            }
+            throw e;
+        } finally {
+            if (autoCommit) conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Igual que {@link #stream} pero acumulando en una lista (memoria acotada por
+     * el resultado, no por el buffer del driver).
+     */
+    static <T> List<T> streamList(Connection conn, String sql, Binder binder, RowMapper.Factory<T> mapper)
+            throws SQLException {
+        List<T> out = new ArrayList<>();
+        stream(conn, sql, binder, mapper, out::add);
+        return out;
+    }
+}
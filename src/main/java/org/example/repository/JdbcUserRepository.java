@@ -0,0 +1,290 @@
+package org.example.repository;
+
+import org.example.DatabaseManager.Pool;
+import org.example.model.User;
+import org.example.service.UserService.InsertResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repositorio de usuarios sobre PostgreSQL.
+ *
+ * Listados, búsquedas y vistas usan el pool de lectura; autenticación y
+ * escrituras usan el pool de administración.
+ */
+public class JdbcUserRepository implements UserRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcUserRepository.class);
+
+    /** (id, name, email) → User sin contraseña */
+    static final RowMapper.Factory<User> VIEW = rs -> {
+        int id = rs.findColumn("id");
+        int name = rs.findColumn("name");
+        int email = rs.findColumn("email");
+        return r -> new User(r.getString(id), r.getString(name), r.getString(email));
+    };
+
+    /** (id, name, email, password) → User con contraseña */
+    static final RowMapper.Factory<User> WITH_PASSWORD = rs -> {
+        RowMapper<User> view = VIEW.forResultSet(rs);
+        int password = rs.findColumn("password");
+        return r -> {
+            User user = view.mapRow(r);
+            user.setPassword(r.getString(password));
+            return user;
+        };
+    };
+
+    @Override
+    public List<User> findAll() {
+        String sql = "SELECT id, name, email FROM users ORDER BY created_at DESC";
+
+        try {
+            return JdbcSupport.withConnection(Pool.CATALOG,
+                    conn -> JdbcSupport.streamList(conn, sql, JdbcSupport.Binder.NONE, VIEW));
+        } catch (SQLException e) {
+            logger.error("❌ Error al obtener usuarios", e);
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public Slice findPage(Instant afterCreatedAt, String afterId, int limit) {
+        String sql = afterId == null
+                ? "SELECT id, name, email, created_at FROM users ORDER BY created_at DESC, id DESC LIMIT ?"
+                : "SELECT id, name, email, created_at FROM users WHERE (created_at, id) < (?, ?) "
+                    + "ORDER BY created_at DESC, id DESC LIMIT ?";
+
+        try {
+            return JdbcSupport.withConnection(Pool.CATALOG, conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    int p = 1;
+                    if (afterId != null) {
+                        pstmt.setTimestamp(p++, Timestamp.from(afterCreatedAt));
+                        pstmt.setString(p++, afterId);
+                    }
+                    pstmt.setInt(p, limit + 1); // una fila extra indica si hay más páginas
+
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return readPage(rs, limit);
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            logger.error("❌ Error al obtener página de usuarios", e);
+        }
+        return new Slice(new ArrayList<>(), null, null, false);
+    }
+
+    private static Slice readPage(ResultSet rs, int limit) throws SQLException {
+        List<Map<String, String>> rows = new ArrayList<>(limit);
+        Timestamp lastCreatedAt = null;
+        String lastId = null;
+        boolean hasMore = false;
+        while (rs.next()) {
+            if (rows.size() == limit) {
+                hasMore = true;
+                break;
+            }
+            Map<String, String> row = new LinkedHashMap<>(4);
+            lastId = rs.getString(1);
+            row.put("id", lastId);
+            row.put("name", rs.getString(2));
+            row.put("email", rs.getString(3));
+            lastCreatedAt = rs.getTimestamp(4);
+            rows.add(row);
+        }
+        return new Slice(rows, lastCreatedAt != null ? lastCreatedAt.toInstant() : null, lastId, hasMore);
+    }
+
+    @Override
+    public User findById(String id) {
+        return findOneWithPassword("SELECT id, name, email, password FROM users WHERE id = ?", id);
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        return findOneWithPassword("SELECT id, name, email, password FROM users WHERE email = ? LIMIT 1", email);
+    }
+
+    private User findOneWithPassword(String sql, String key) {
+        try {
+            return JdbcSupport.withConnection(Pool.ADMIN,
+                    conn -> JdbcSupport.queryOne(conn, sql, ps -> ps.setString(1, key), WITH_PASSWORD));
+        } catch (SQLException e) {
+            logger.error("❌ Error al buscar usuario: {}", key, e);
+        }
+        return null;
+    }
+
+    @Override
+    public User findViewById(String id) {
+        String sql = "SELECT id, name, email FROM users WHERE id = ?";
+
+        try {
+            return JdbcSupport.withConnection(Pool.CATALOG,
+                    conn -> JdbcSupport.queryOne(conn, sql, ps -> ps.setString(1, id), VIEW));
+        } catch (SQLException e) {
+            logger.error("❌ Error al buscar usuario para vista: {}", id, e);
+        }
+        return null;
+    }
+
+    /**
+     * La consulta se apoya en los índices GIN de trigramas sobre
+     * {@code LOWER(name)} y {@code LOWER(email)}; los comodines del término se
+     * escapan para que se busquen literalmente.
+     */
+    @Override
+    public List<User> search(String query, int limit) {
+        String sql = "SELECT id, name, email FROM users "
+                + "WHERE LOWER(name) LIKE ? ESCAPE '\\' OR LOWER(email) LIKE ? ESCAPE '\\' "
+                + "ORDER BY name LIMIT ?";
+        String searchPattern = "%" + escapeLike(query.trim().toLowerCase()) + "%";
+
+        try {
+            return JdbcSupport.withConnection(Pool.CATALOG, conn -> JdbcSupport.queryList(conn, sql, ps -> {
+                ps.setString(1, searchPattern);
+                ps.setString(2, searchPattern);
+                ps.setInt(3, limit);
+            }, VIEW));
+        } catch (SQLException e) {
+            logger.error("❌ Error al buscar usuarios", e);
+        }
+        return new ArrayList<>();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public boolean exists(String id) {
+        String sql = "SELECT 1 FROM users WHERE id = ?";
+
+        try {
+            return JdbcSupport.withConnection(Pool.ADMIN,
+                    conn -> JdbcSupport.queryOne(conn, sql, ps -> ps.setString(1, id), rs -> r -> Boolean.TRUE)) != null;
+        } catch (SQLException e) {
+            logger.error("❌ Error al verificar existencia de usuario: {}", id, e);
+        }
+        return false;
+    }
+
+    @Override
+    public void insert(User user) {
+        String sql = "INSERT INTO users (id, name, email, password) VALUES (?, ?, ?, ?)";
+
+        try {
+            JdbcSupport.withConnection(Pool.ADMIN, conn -> JdbcSupport.update(conn, sql, ps -> {
+                ps.setString(1, user.getId());
+                ps.setString(2, user.getName());
+                ps.setString(3, user.getEmail());
+                ps.setString(4, user.getPassword());
+            }));
+        } catch (SQLException e) {
+            logger.error("❌ Error al crear usuario: {}", user.getId(), e);
+            throw new RuntimeException("Error al crear usuario: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Usa {@code INSERT ... ON CONFLICT DO NOTHING RETURNING} dentro de un CTE; si
+     * no se insertó nada, la misma sentencia indica qué restricción única (id o
+     * email) colisionó, en un solo viaje a la base de datos.
+     */
+    @Override
+    public InsertResult insertIfAbsent(User user) {
+        String sql = """
+            WITH ins AS (
+                INSERT INTO users (id, name, email, password) VALUES (?, ?, ?, ?)
+                ON CONFLICT DO NOTHING
+                RETURNING id
+            )
+            SELECT 'created' AS result FROM ins
+            UNION ALL
+            SELECT CASE WHEN u.email = ? THEN 'email' ELSE 'id' END
+            FROM users u
+            WHERE NOT EXISTS (SELECT 1 FROM ins) AND (u.email = ? OR u.id = ?)
+            LIMIT 1
+            """;
+
+        try {
+            String result = JdbcSupport.withConnection(Pool.ADMIN, conn -> JdbcSupport.queryOne(conn, sql, ps -> {
+                ps.setString(1, user.getId());
+                ps.setString(2, user.getName());
+                ps.setString(3, user.getEmail());
+                ps.setString(4, user.getPassword());
+                ps.setString(5, user.getEmail());
+                ps.setString(6, user.getEmail());
+                ps.setString(7, user.getId());
+            }, rs -> r -> r.getString(1)));
+
+            if ("created".equals(result)) {
+                return InsertResult.CREATED;
+            }
+            if ("id".equals(result)) {
+                return InsertResult.DUPLICATE_ID;
+            }
+            // "email", o sin fila: el registro en conflicto se confirmó en otra
+            // transacción después de nuestro snapshot (carrera por el mismo email)
+            return InsertResult.DUPLICATE_EMAIL;
+
+        } catch (SQLException e) {
+            logger.error("❌ Error al crear usuario: {}", user.getId(), e);
+            throw new RuntimeException("Error al crear usuario: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean update(String id, User user) {
+        String sql = "UPDATE users SET name = ?, email = ? WHERE id = ?";
+
+        try {
+            return JdbcSupport.withConnection(Pool.ADMIN, conn -> JdbcSupport.update(conn, sql, ps -> {
+                ps.setString(1, user.getName());
+                ps.setString(2, user.getEmail());
+                ps.setString(3, id);
+            })) > 0;
+
+        } catch (SQLException e) {
+            logger.error("❌ Error al actualizar usuario: {}", id, e);
+            throw new RuntimeException("Error al actualizar usuario: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void updatePassword(String id, String passwordHash) {
+        String sql = "UPDATE users SET password = ? WHERE id = ?";
+
+        try {
+            JdbcSupport.withConnection(Pool.ADMIN, conn -> JdbcSupport.update(conn, sql, ps -> {
+                ps.setString(1, passwordHash);
+                ps.setString(2, id);
+            }));
+
+        } catch (SQLException e) {
+            logger.error("❌ Error al actualizar contraseña de usuario: {}", id, e);
+            throw new RuntimeException("Error al actualizar contraseña: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        String sql = "DELETE FROM users WHERE id = ?";
+
+        try {
+            return JdbcSupport.withConnection(Pool.ADMIN, conn -> JdbcSupport.update(conn, sql, ps -> ps.setString(1, id))) > 0;
+
+        } catch (SQLException e) {
+            logger.error("❌ Error al eliminar usuario: {}", id, e);
+            throw new RuntimeException("Error al eliminar usuario: " + e.getMessage());
+        }
+    }
+}
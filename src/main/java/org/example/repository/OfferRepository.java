@@ -0,0 +1,29 @@
+package org.example.repository;
+
+import org.example.model.Offer;
+
+import java.util.List;
+
+/**
+ * Acceso a datos de ofertas (tabla {@code offers}).
+ *
+ * @see JdbcOfferRepository
+ * @see InMemoryOfferRepository
+ */
+public interface OfferRepository {
+
+    /**
+     * Inserta una oferta y le asigna su ID generado ({@link Offer#setDbId(Long)}).
+     */
+    void insert(Offer offer);
+
+    /** @return Todas las ofertas, más recientes primero */
+    List<Offer> findAll();
+
+    /**
+     * @param itemId ID del artículo
+     * @param primary true para leer del primario (validación de pujas)
+     * @return Ofertas del artículo ordenadas por monto descendente
+     */
+    List<Offer> findByItemId(String itemId, boolean primary);
+}
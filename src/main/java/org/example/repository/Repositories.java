@@ -0,0 +1,68 @@
+package org.example.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Selección del motor de almacenamiento.
+ *
+ * Configuración:
+ * - STORAGE_ENGINE: "jdbc" (PostgreSQL, por defecto) o "memory" (motor embebido)
+ * - MEMORY_SNAPSHOT_PATH: fichero de snapshot del motor en memoria (vacío = sin persistencia)
+ * - MEMORY_SNAPSHOT_INTERVAL_SECONDS: periodo entre snapshots (30 por defecto)
+ */
+public class Repositories implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(Repositories.class);
+
+    private final ItemRepository items;
+    private final OfferRepository offers;
+    private final UserRepository users;
+    private final InMemoryStore store;
+
+    private Repositories(ItemRepository items, OfferRepository offers, UserRepository users, InMemoryStore store) {
+        this.items = items;
+        this.offers = offers;
+        this.users = users;
+        this.store = store;
+    }
+
+    /** @return Repositorios sobre PostgreSQL (DatabaseManager) */
+    public static Repositories jdbc() {
+        return new Repositories(new JdbcItemRepository(), new JdbcOfferRepository(), new JdbcUserRepository(), null);
+    }
+
+    /** @return Repositorios sobre el motor en memoria indicado */
+    public static Repositories inMemory(InMemoryStore store) {
+        return new Repositories(store.items(), store.offers(), store.users(), store);
+    }
+
+    /** @return Repositorios según STORAGE_ENGINE */
+    public static Repositories fromEnv() {
+        String engine = System.getenv().getOrDefault("STORAGE_ENGINE", "jdbc");
+        if (!"memory".equalsIgnoreCase(engine)) return jdbc();
+
+        String path = System.getenv("MEMORY_SNAPSHOT_PATH");
+        Path snapshot = path != null && !path.isBlank() ? Paths.get(path) : null;
+        long interval = Long.parseLong(System.getenv().getOrDefault("MEMORY_SNAPSHOT_INTERVAL_SECONDS", "30"));
+        logger.info("🧠 Motor de almacenamiento en memoria (snapshot: {})", snapshot != null ? snapshot : "desactivado");
+        return inMemory(new InMemoryStore(snapshot, interval));
+    }
+
+    /** @return true si se usa el motor en memoria (no hace falta PostgreSQL) */
+    public boolean isInMemory() { return store != null; }
+
+    public ItemRepository items() { return items; }
+
+    public OfferRepository offers() { return offers; }
+
+    public UserRepository users() { return users; }
+
+    /** Cierra el motor en memoria (escribe el snapshot final); no hace nada con JDBC. */
+    @Override
+    public void close() {
+        if (store != null) store.close();
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Convierte la fila actual de un ResultSet en un objeto.
+ *
+ * Los mappers se crean por sentencia a través de {@link Factory}: la factoría
+ * resuelve una sola vez los índices de columna a partir de sus nombres y el
+ * mapper resultante lee cada fila por índice, sin buscar nombres en cada fila.
+ *
+ * @param <T> Tipo producido por fila
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T mapRow(ResultSet rs) throws SQLException;
+
+    /**
+     * Crea el mapper de un ResultSet concreto (resolución de columnas).
+     *
+     * @param <T> Tipo producido por fila
+     */
+    @FunctionalInterface
+    interface Factory<T> {
+        RowMapper<T> forResultSet(ResultSet rs) throws SQLException;
+    }
+}
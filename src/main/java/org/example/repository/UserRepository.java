@@ -0,0 +1,89 @@
+package org.example.repository;
+
+import org.example.model.User;
+import org.example.service.UserService.InsertResult;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acceso a datos de usuarios (tabla {@code users}).
+ *
+ * Los métodos "de vista" nunca devuelven la contraseña; solo {@link #findById(String)}
+ * y {@link #findByEmail(String)} la incluyen (autenticación y administración).
+ *
+ * @see JdbcUserRepository
+ * @see InMemoryUserRepository
+ */
+public interface UserRepository {
+
+    /**
+     * Resultado de una lectura por cursor (keyset) ordenada por (created_at, id) descendente.
+     */
+    class Slice {
+        private final List<Map<String, String>> rows;
+        private final Instant lastCreatedAt;
+        private final String lastId;
+        private final boolean hasMore;
+
+        public Slice(List<Map<String, String>> rows, Instant lastCreatedAt, String lastId, boolean hasMore) {
+            this.rows = rows;
+            this.lastCreatedAt = lastCreatedAt;
+            this.lastId = lastId;
+            this.hasMore = hasMore;
+        }
+
+        /** @return Filas (id, name, email) */
+        public List<Map<String, String>> getRows() { return rows; }
+
+        /** @return created_at de la última fila devuelta */
+        public Instant getLastCreatedAt() { return lastCreatedAt; }
+
+        /** @return ID de la última fila devuelta */
+        public String getLastId() { return lastId; }
+
+        /** @return true si existen filas después de esta página */
+        public boolean hasMore() { return hasMore; }
+    }
+
+    /** @return Todos los usuarios sin contraseña, más recientes primero */
+    List<User> findAll();
+
+    /**
+     * @param afterCreatedAt created_at del último registro visto (null para empezar)
+     * @param afterId ID del último registro visto (null para empezar)
+     * @param limit Tamaño de página
+     */
+    Slice findPage(Instant afterCreatedAt, String afterId, int limit);
+
+    /** @return Usuario con contraseña, o null */
+    User findById(String id);
+
+    /** @return Usuario sin contraseña, o null */
+    User findViewById(String id);
+
+    /** @return Usuario con contraseña, o null */
+    User findByEmail(String email);
+
+    /** @return Hasta {@code limit} usuarios sin contraseña cuyo nombre o email contiene el término */
+    List<User> search(String query, int limit);
+
+    /** @return true si el usuario existe */
+    boolean exists(String id);
+
+    /** Inserta un usuario (falla si el ID o el email ya existen) */
+    void insert(User user);
+
+    /** Inserta un usuario si ni su ID ni su email existen */
+    InsertResult insertIfAbsent(User user);
+
+    /** @return true si se actualizó algún usuario */
+    boolean update(String id, User user);
+
+    /** Reemplaza el hash de contraseña */
+    void updatePassword(String id, String passwordHash);
+
+    /** @return true si se eliminó algún usuario */
+    boolean delete(String id);
+}
@@ -3,8 +3,6 @@ package org.example.service;
 import org.example.model.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.security.MessageDigest;
-import java.util.Base64;
 
 /**
  * Servicio de autenticación y registro de usuarios.
@@ -12,18 +10,20 @@ import java.util.Base64;
  * Responsabilidades:
  * - Validar credenciales de usuario (email y contraseña)
  * - Registrar nuevos usuarios con validaciones
- * - Hashear y verificar contraseñas usando SHA-256 + Base64
- * - Gestionar sesiones de usuario a través de UserService
+ * - Hashear y verificar contraseñas con PBKDF2 a través de PasswordHasher
+ * - Migrar de forma transparente los hashes SHA-256 heredados al iniciar sesión
  *
- * Nota: Las contraseñas se hashean usando SHA-256 + Base64 sin dependencias externas.
- * En producción, se recomienda usar bcrypt u otro algoritmo más seguro.
+ * Nota: El hashing se ejecuta en un pool dedicado y acotado; si está saturado
+ * se lanza ServiceBusyException (503) sin afectar a las rutas de pujas y catálogo.
  *
  * @see UserService
+ * @see PasswordHasher
  * @see User
  */
 public class AuthService {
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
     private final UserService userService;
+    private final PasswordHasher passwordHasher;
 
     /**
      * Constructor del servicio de autenticación.
@@ -31,39 +31,18 @@ public class AuthService {
      * @param userService Servicio de usuarios que se inyecta como dependencia
      */
     public AuthService(UserService userService) {
-        this.userService = userService;
-    }
-
-    /**
-     * Hashea una contraseña en texto plano usando SHA-256 + Base64.
-     *
-     * Nota: Este método es privado y se usa internamente para hashear contraseñas
-     * al registrar y verificar credenciales de login.
-     *
-     * @param plainPassword Contraseña en texto plano
-     * @return Contraseña hasheada en formato Base64
-     * @throws RuntimeException Si ocurre un error al calcular el hash SHA-256
-     */
-    private String hashPassword(String plainPassword) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] encoded = digest.digest(plainPassword.getBytes());
-            return Base64.getEncoder().encodeToString(encoded);
-        } catch (Exception e) {
-            logger.error("Error al hashear contraseña", e);
-            throw new RuntimeException("Error al hashear contraseña: " + e.getMessage());
-        }
+        this(userService, PasswordHasher.defaultInstance());
     }
 
     /**
-     * Verifica si una contraseña en texto plano coincide con el hash almacenado.
+     * Constructor con un hasher de contraseñas explícito.
      *
-     * @param plainPassword Contraseña en texto plano a verificar
-     * @param storedHash Hash de contraseña almacenado en la base de datos
-     * @return true si las contraseñas coinciden, false en caso contrario
+     * @param userService Servicio de usuarios que se inyecta como dependencia
+     * @param passwordHasher Hasher a usar (null para el hasher por defecto)
      */
-    private boolean verifyPassword(String plainPassword, String storedHash) {
-        return hashPassword(plainPassword).equals(storedHash);
+    public AuthService(UserService userService, PasswordHasher passwordHasher) {
+        this.userService = userService;
+        this.passwordHasher = passwordHasher != null ? passwordHasher : PasswordHasher.defaultInstance();
     }
 
     /**
@@ -74,6 +53,9 @@ public class AuthService {
      * - El email debe ser único (no registrado anteriormente)
      * - Se hashea la contraseña antes de almacenarla
      *
+     * Ambas unicidades se comprueban en la misma sentencia INSERT
+     * (ver {@link UserService#insertIfAbsent(User)}), sin consultas previas.
+     *
      * @param id Identificador único del usuario (UUID recomendado)
      * @param name Nombre completo del usuario
      * @param email Correo electrónico del usuario (debe ser único)
@@ -82,21 +64,21 @@ public class AuthService {
      * @throws IllegalArgumentException Si el ID ya existe o el email ya está registrado
      */
     public User register(String id, String name, String email, String plainPassword) {
-        if (userService.exists(id)) {
-            throw new IllegalArgumentException("User already exists");
-        }
-        if (userService.findByEmail(email) != null) {
-            throw new IllegalArgumentException("Email already registered");
-        }
-        String hashed = hashPassword(plainPassword);
+        String hashed = passwordHasher.hash(plainPassword);
         User u = new User();
         u.setId(id);
         u.setName(name);
         u.setEmail(email);
         u.setPassword(hashed);
-        userService.add(u);
-        logger.info("Usuario registrado: {} ({})", name, id);
-        return u;
+        switch (userService.insertIfAbsent(u)) {
+            case DUPLICATE_ID:
+                throw new IllegalArgumentException("User already exists");
+            case DUPLICATE_EMAIL:
+                throw new IllegalArgumentException("Email already registered");
+            default:
+                logger.info("Usuario registrado: {} ({})", name, id);
+                return u;
+        }
     }
 
     /**
@@ -104,21 +86,37 @@ public class AuthService {
      *
      * Proceso:
      * 1. Busca el usuario por email
-     * 2. Si existe, verifica que la contraseña coincida con el hash almacenado
-     * 3. Retorna el usuario si las credenciales son válidas, null en caso contrario
+     * 2. Si existe, verifica que la contraseña coincida con el hash almacenado; si no,
+     *    verifica contra un hash de relleno para que el tiempo no delate qué emails existen
+     * 3. Si el hash es heredado (SHA-256) o débil, lo recalcula con PBKDF2
+     * 4. Retorna el usuario si las credenciales son válidas, null en caso contrario
      *
      * @param email Correo electrónico del usuario
      * @param plainPassword Contraseña en texto plano
      * @return Usuario autenticado si las credenciales son válidas, null si no existe o contraseña es incorrecta
+     * @throws ServiceBusyException Si el pool de hashing está saturado
      */
     public User login(String email, String plainPassword) {
         User u = userService.findByEmail(email);
-        if (u == null) return null;
-        String hashed = u.getPassword();
-        if (hashed == null) return null;
-        if (verifyPassword(plainPassword, hashed)) {
-            return u;
+        String hashed = u != null ? u.getPassword() : null;
+        if (hashed == null) {
+            passwordHasher.verifyDummy(plainPassword);
+            return null;
+        }
+        if (!passwordHasher.verify(plainPassword, hashed)) {
+            return null;
         }
-        return null;
+        if (passwordHasher.needsRehash(hashed)) {
+            try {
+                String upgraded = passwordHasher.hash(plainPassword);
+                userService.updatePassword(u.getId(), upgraded);
+                u.setPassword(upgraded);
+                logger.info("🔐 Hash de contraseña actualizado para usuario {}", u.getId());
+            } catch (RuntimeException e) {
+                // El login ya es válido; el rehash se reintentará en el próximo inicio de sesión
+                logger.warn("No se pudo actualizar el hash de {}: {}", u.getId(), e.getMessage());
+            }
+        }
+        return u;
     }
 }
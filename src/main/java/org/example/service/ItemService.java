@@ -1,44 +1,43 @@
 package org.example.service;
 
-import org.example.DatabaseManager;
 import org.example.model.Item;
+import org.example.repository.ItemRepository;
+import org.example.repository.JdbcItemRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.sql.*;
 import java.util.*;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ItemService {
     private static final Logger logger = LoggerFactory.getLogger(ItemService.class);
     private static final Gson gson = new Gson();
     private static volatile List<Item> resourceItemsCache = null;
 
+    private final ItemRepository repository;
+
+    /** Versión del catálogo: cambia con cada alta, edición, borrado o cambio de precio */
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    /** Usa el repositorio PostgreSQL */
+    public ItemService() {
+        this(null);
+    }
+
+    /**
+     * @param repository Almacenamiento de artículos (null = PostgreSQL)
+     */
+    public ItemService(ItemRepository repository) {
+        this.repository = repository != null ? repository : new JdbcItemRepository();
+    }
+
     /** Obtiene todos los items */
     public Collection<Item> getAll() {
-        List<Item> items = new ArrayList<>();
-        String sql = "SELECT id, name, description, price FROM items ORDER BY created_at DESC";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Item item = new Item();
-                item.setId(rs.getString("id"));
-                item.setName(rs.getString("name"));
-                item.setDescription(rs.getString("description"));
-                item.setPrice(rs.getString("price"));
-                items.add(item);
-            }
-            logger.debug("📋 Se obtuvieron {} items desde DB", items.size());
-
-        } catch (SQLException e) {
-            logger.error("❌ Error al obtener items", e);
-        }
+        List<Item> items = new ArrayList<>(repository.findAll());
 
         // Merge con JSON
         try {
@@ -61,25 +60,19 @@ public class ItemService {
         return items;
     }
 
-    /** Obtiene un item por ID */
+    /** Obtiene un item por ID (pool de lectura) */
     public Item get(String id) {
-        String sql = "SELECT id, name, description, price FROM items WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, id);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    Item item = new Item();
-                    item.setId(rs.getString("id"));
-                    item.setName(rs.getString("name"));
-                    item.setDescription(rs.getString("description"));
-                    item.setPrice(rs.getString("price"));
-                    return item;
-                }
-            }
-        } catch (SQLException e) {
-            logger.error("Error al buscar item: {}", id, e);
-        }
+        return find(id, false);
+    }
+
+    /**
+     * Busca un item por ID.
+     *
+     * @param primary true para leer del primario (validaciones previas a escribir)
+     */
+    private Item find(String id, boolean primary) {
+        Item item = repository.findById(id, primary);
+        if (item != null) return item;
 
         // fallback JSON
         try {
@@ -104,8 +97,10 @@ public class ItemService {
             if (resourceItemsCache != null) return resourceItemsCache;
             try (InputStream is = ItemService.class.getResourceAsStream("/items.json")) {
                 if (is == null) {
+                    // Se recuerda la ausencia para no releer ni avisar en cada petición
                     logger.warn("Resource items.json not found on classpath");
-                    return null;
+                    resourceItemsCache = Collections.emptyList();
+                    return resourceItemsCache;
                 }
                 InputStreamReader reader = new InputStreamReader(is);
                 Type listType = new TypeToken<List<Item>>() {}.getType();
@@ -123,16 +118,7 @@ public class ItemService {
 
     /** Verifica si un item existe */
     public boolean exists(String id) {
-        String sql = "SELECT COUNT(*) FROM items WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, id);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) return rs.getInt(1) > 0;
-            }
-        } catch (SQLException e) {
-            logger.error("Error al verificar existencia de item: {}", id, e);
-        }
+        if (repository.exists(id)) return true;
 
         try {
             List<Item> resourceItems = loadItemsFromResource();
@@ -146,73 +132,28 @@ public class ItemService {
 
     /** Agrega un nuevo item */
     public void add(Item item) {
-        String sql = "INSERT INTO items (id, name, description, price) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, item.getId());
-            pstmt.setString(2, item.getName());
-            pstmt.setString(3, item.getDescription());
-            pstmt.setString(4, item.getPrice());
-            pstmt.executeUpdate();
-            logger.info("Item creado: {} ({})", item.getName(), item.getId());
-        } catch (SQLException e) {
-            logger.error("Error al crear item: {}", item.getId(), e);
-            throw new RuntimeException("Error al crear item: " + e.getMessage());
-        }
+        repository.insert(item);
+        bumpVersion();
+        logger.info("Item creado: {} ({})", item.getName(), item.getId());
     }
 
     /** Actualiza un item existente */
     public void update(String id, Item item) {
-        String sql = "UPDATE items SET name = ?, description = ?, price = ? WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, item.getName());
-            pstmt.setString(2, item.getDescription());
-            pstmt.setString(3, item.getPrice());
-            pstmt.setString(4, id);
-            pstmt.executeUpdate();
-            logger.info("Item actualizado: {}", id);
-        } catch (SQLException e) {
-            logger.error("Error al actualizar item: {}", id, e);
-            throw new RuntimeException("Error al actualizar item: " + e.getMessage());
-        }
+        repository.update(id, item);
+        bumpVersion();
+        logger.info("Item actualizado: {}", id);
     }
 
     /** Elimina un item */
     public void delete(String id) {
-        String sql = "DELETE FROM items WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, id);
-            pstmt.executeUpdate();
-            logger.info("Item eliminado: {}", id);
-        } catch (SQLException e) {
-            logger.error("Error al eliminar item: {}", id, e);
-            throw new RuntimeException("Error al eliminar item: " + e.getMessage());
-        }
+        repository.delete(id);
+        bumpVersion();
+        logger.info("Item eliminado: {}", id);
     }
 
     /** Busca items por nombre */
     public Collection<Item> searchByName(String query) {
-        List<Item> items = new ArrayList<>();
-        String sql = "SELECT id, name, description, price FROM items WHERE LOWER(name) LIKE ? ORDER BY name";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, "%" + query.toLowerCase() + "%");
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Item item = new Item();
-                    item.setId(rs.getString("id"));
-                    item.setName(rs.getString("name"));
-                    item.setDescription(rs.getString("description"));
-                    item.setPrice(rs.getString("price"));
-                    items.add(item);
-                }
-            }
-        } catch (SQLException e) {
-            logger.error("❌ Error al buscar items", e);
-        }
-        return items;
+        return repository.searchByName(query);
     }
 
     /** Filtro principal combinado (nombre + rango de precio) */
@@ -273,46 +214,33 @@ public class ItemService {
 
     /**
      * Devuelve el precio actual del item como Double (ej. 621.34) o null si no está disponible.
+     *
+     * Lee del primario: se usa para validar pujas y no debe ver datos retrasados de una réplica.
      */
     public Double getPriceAsDouble(String id) {
-        Item it = get(id);
+        Item it = find(id, true);
         if (it == null) return null;
         return parsePriceToDouble(it.getPrice());
     }
 
     /** Actualiza solo el precio del item. Si no existe en DB pero existe en recursos, lo inserta. */
     public void updatePrice(String id, String newPrice) {
-        String updateSql = "UPDATE items SET price = ? WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement ps = conn.prepareStatement(updateSql)) {
-            ps.setString(1, newPrice);
-            ps.setString(2, id);
-            int updated = ps.executeUpdate();
-            if (updated == 0) {
-                // No estaba en DB. Intentar insertarlo desde recurso si existe.
-                Item it = get(id); // get() hace fallback a recursos
-                if (it != null) {
-                    it.setPrice(newPrice);
-                    String insertSql = "INSERT INTO items (id, name, description, price) VALUES (?, ?, ?, ?)";
-                    try (PreparedStatement ins = conn.prepareStatement(insertSql)) {
-                        ins.setString(1, it.getId());
-                        ins.setString(2, it.getName());
-                        ins.setString(3, it.getDescription());
-                        ins.setString(4, it.getPrice());
-                        ins.executeUpdate();
-                        logger.info("Precio insertado para item ausente en DB: {} -> {}", id, newPrice);
-                    }
-                } else {
-                    logger.warn("updatePrice: item {} no existe (ni en DB ni en recursos)", id);
-                }
+        if (repository.updatePrice(id, newPrice)) {
+            logger.debug("Precio actualizado en DB: {} -> {}", id, newPrice);
+        } else {
+            // No estaba en DB. Intentar insertarlo desde recurso si existe.
+            Item it = find(id, true); // find() hace fallback a recursos
+            if (it != null) {
+                it = new Item(it.getId(), it.getName(), it.getDescription(), newPrice);
+                repository.insert(it);
+                logger.info("Precio insertado para item ausente en DB: {} -> {}", id, newPrice);
             } else {
-                logger.info("Precio actualizado en DB: {} -> {}", id, newPrice);
+                logger.warn("updatePrice: item {} no existe (ni en DB ni en recursos)", id);
             }
-        } catch (SQLException e) {
-            logger.error("Error al actualizar precio del item {}", id, e);
-            throw new RuntimeException("Error al actualizar precio: " + e.getMessage());
         }
 
+        bumpVersion();
+
         // Sincronizar cache en memoria si fue cargado desde recursos
         try {
             if (resourceItemsCache != null) {
@@ -326,6 +254,30 @@ public class ItemService {
         } catch (Exception ignore) {}
     }
 
+    /**
+     * Versión actual del catálogo. Las cachés de páginas la leen antes de
+     * renderizar y descartan lo guardado con una versión anterior.
+     *
+     * @return Contador que aumenta con cada escritura de items (incluidas las pujas aceptadas)
+     */
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    /**
+     * Versión de items y ofertas leída del almacenamiento y compartida por todas
+     * las instancias (a diferencia de {@link #getCatalogVersion()}, que es local).
+     *
+     * @return Versión actual, o -1 si no se pudo leer
+     */
+    public long getSharedVersion() {
+        return repository.catalogVersion();
+    }
+
+    private void bumpVersion() {
+        catalogVersion.incrementAndGet();
+    }
+
     /** Test local */
     public static void main(String[] args) {
         ItemService s = new ItemService();
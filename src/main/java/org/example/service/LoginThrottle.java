@@ -0,0 +1,100 @@
+package org.example.service;
+
+import spark.Request;
+
+import java.util.Locale;
+
+/**
+ * Limita los intentos de login y registro por IP y por email antes de tocar
+ * la base de datos o el pool de hashing.
+ *
+ * Detrás del balanceador la IP de la conexión es la del balanceador: con
+ * CLIENT_IP_HEADER (p. ej. X-Forwarded-For) la IP del cliente se toma de la
+ * última entrada de esa cabecera, la que añade el propio balanceador (las
+ * anteriores las controla el cliente).
+ *
+ * Configuración (variables de entorno, ventana en segundos):
+ * - LOGIN_LIMIT_PER_IP (20), LOGIN_LIMIT_PER_EMAIL (5)
+ * - REGISTER_LIMIT_PER_IP (10), LOGIN_WINDOW_SECONDS (60)
+ * - CLIENT_IP_HEADER (sin definir: IP de la conexión)
+ *
+ * @see SlidingWindowRateLimiter
+ */
+public class LoginThrottle {
+    private static final int SKETCH_WIDTH = 4096;
+
+    private final SlidingWindowRateLimiter loginByIp;
+    private final SlidingWindowRateLimiter loginByEmail;
+    private final SlidingWindowRateLimiter registerByIp;
+    private final String clientIpHeader;
+
+    /** Crea el limitador con la configuración de las variables de entorno. */
+    public LoginThrottle() {
+        this(new SlidingWindowRateLimiter(
+                        Integer.parseInt(System.getenv().getOrDefault("LOGIN_LIMIT_PER_IP", "20")), window(), SKETCH_WIDTH),
+                new SlidingWindowRateLimiter(
+                        Integer.parseInt(System.getenv().getOrDefault("LOGIN_LIMIT_PER_EMAIL", "5")), window(), SKETCH_WIDTH),
+                new SlidingWindowRateLimiter(
+                        Integer.parseInt(System.getenv().getOrDefault("REGISTER_LIMIT_PER_IP", "10")), window(), SKETCH_WIDTH),
+                System.getenv("CLIENT_IP_HEADER"));
+    }
+
+    LoginThrottle(SlidingWindowRateLimiter loginByIp, SlidingWindowRateLimiter loginByEmail,
+                  SlidingWindowRateLimiter registerByIp, String clientIpHeader) {
+        this.loginByIp = loginByIp;
+        this.loginByEmail = loginByEmail;
+        this.registerByIp = registerByIp;
+        this.clientIpHeader = clientIpHeader != null && !clientIpHeader.isBlank() ? clientIpHeader.trim() : null;
+    }
+
+    private static long window() {
+        return Long.parseLong(System.getenv().getOrDefault("LOGIN_WINDOW_SECONDS", "60")) * 1000L;
+    }
+
+    /**
+     * @param req Petición
+     * @return IP del cliente según CLIENT_IP_HEADER, o la de la conexión
+     */
+    public String clientIp(Request req) {
+        if (clientIpHeader != null) {
+            String header = req.headers(clientIpHeader);
+            if (header != null) {
+                String[] hops = header.split(",");
+                String last = hops[hops.length - 1].trim();
+                if (!last.isEmpty()) return last;
+            }
+        }
+        return req.ip();
+    }
+
+    /**
+     * Registra un intento de login y decide si se permite.
+     *
+     * @param ip IP del cliente
+     * @param email Email enviado en el formulario (puede ser null)
+     * @return 0 si se permite; si no, segundos para Retry-After según el límite superado
+     */
+    public long checkLogin(String ip, String email) {
+        boolean ipOk = loginByIp.tryAcquire(ip);
+        String key = normalize(email);
+        boolean emailOk = loginByEmail.tryAcquire(key);
+        long retryAfter = 0;
+        if (!ipOk) retryAfter = loginByIp.retryAfterSeconds(ip);
+        if (!emailOk) retryAfter = Math.max(retryAfter, loginByEmail.retryAfterSeconds(key));
+        return retryAfter;
+    }
+
+    /**
+     * Registra un intento de registro y decide si se permite.
+     *
+     * @param ip IP del cliente
+     * @return 0 si se permite; si no, segundos para Retry-After
+     */
+    public long checkRegister(String ip) {
+        return registerByIp.tryAcquire(ip) ? 0 : registerByIp.retryAfterSeconds(ip);
+    }
+
+    private static String normalize(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+}
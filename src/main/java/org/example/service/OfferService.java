@@ -1,13 +1,13 @@
 package org.example.service;
 
-import org.example.DatabaseManager;
 import org.example.model.Offer;
+import org.example.repository.JdbcOfferRepository;
+import org.example.repository.OfferRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
-import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -19,36 +19,26 @@ public class OfferService {
     private static final Logger logger = LoggerFactory.getLogger(OfferService.class);
     private static final Gson gson = new Gson();
 
+    private final OfferRepository repository;
+
+    /** Usa el repositorio PostgreSQL */
+    public OfferService() {
+        this(null);
+    }
+
     /**
-     * Agrega una nueva oferta (solo en PostgreSQL)
+     * @param repository Almacenamiento de ofertas (null = PostgreSQL)
      */
-    public void add(Offer offer) {
-        String sql = "INSERT INTO offers (name, email, item_id, amount) VALUES (?, ?, ?, ?)";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            pstmt.setString(1, offer.getName());
-            pstmt.setString(2, offer.getEmail());
-            pstmt.setString(3, offer.getId());
-            pstmt.setDouble(4, offer.getAmount());
-
-            int rows = pstmt.executeUpdate();
-
-            if (rows > 0) {
-                try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        long generatedId = rs.getLong(1);
-                        offer.setDbId(generatedId); // guardar en el objeto
-                        logger.info("✅ Oferta creada con ID: {} para item: {}", generatedId, offer.getId());
-                    }
-                }
-            }
+    public OfferService(OfferRepository repository) {
+        this.repository = repository != null ? repository : new JdbcOfferRepository();
+    }
 
-        } catch (SQLException e) {
-            logger.error("❌ Error al crear oferta", e);
-            throw new RuntimeException("Error al crear oferta: " + e.getMessage());
-        }
+    /**
+     * Agrega una nueva oferta (solo en el almacenamiento, nunca en ofertas.json)
+     */
+    public void add(Offer offer) {
+        repository.insert(offer);
+        logger.debug("✅ Oferta creada con ID: {} para item: {}", offer.getDbId(), offer.getId());
     }
 
     /**
@@ -80,32 +70,11 @@ public class OfferService {
     }
 
     /**
-     * Obtiene ofertas desde PostgreSQL
+     * Obtiene ofertas desde el almacenamiento
      */
     private List<Offer> getOffersFromDatabase() {
-        List<Offer> offers = new ArrayList<>();
-        String sql = "SELECT id AS offer_db_id, name, email, item_id, amount, created_at FROM offers ORDER BY created_at DESC";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Offer offer = new Offer();
-                offer.setDbId(rs.getLong("offer_db_id"));
-                offer.setName(rs.getString("name"));
-                offer.setEmail(rs.getString("email"));
-                offer.setId(rs.getString("item_id"));
-                offer.setAmount(rs.getDouble("amount"));
-                offers.add(offer);
-            }
-
-            logger.debug("💾 {} ofertas leídas desde PostgreSQL", offers.size());
-
-        } catch (SQLException e) {
-            logger.error("Error al obtener ofertas desde PostgreSQL", e);
-        }
-
+        List<Offer> offers = repository.findAll();
+        logger.debug("💾 {} ofertas leídas desde el almacenamiento", offers.size());
         return offers;
     }
 
@@ -123,16 +92,20 @@ public class OfferService {
         List<Offer> dbOffers = getOffersFromDatabase();
         allOffers.addAll(dbOffers);
 
-        logger.info("📋 Total ofertas: {} (JSON: {}, DB: {})",
+        logger.debug("📋 Total ofertas: {} (JSON: {}, DB: {})",
                 allOffers.size(), jsonOffers.size(), dbOffers.size());
 
         return allOffers;
     }
 
     /**
-     * Obtiene ofertas por item (JSON + PostgreSQL)
+     * Obtiene ofertas por item (JSON + PostgreSQL, pool de lectura)
      */
     public List<Offer> getByItemId(String itemId) {
+        return getByItemId(itemId, false);
+    }
+
+    private List<Offer> getByItemId(String itemId, boolean primary) {
         List<Offer> allOffers = new ArrayList<>();
 
         // 1. Filtrar ofertas del JSON por item
@@ -143,29 +116,8 @@ public class OfferService {
             }
         }
 
-        // 2. Obtener ofertas de PostgreSQL para ese item
-        String sql = "SELECT id AS offer_db_id, name, email, item_id, amount FROM offers WHERE item_id = ? ORDER BY amount DESC";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, itemId);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Offer offer = new Offer();
-                    offer.setDbId(rs.getLong("offer_db_id"));
-                    offer.setName(rs.getString("name"));
-                    offer.setEmail(rs.getString("email"));
-                    offer.setId(rs.getString("item_id"));
-                    offer.setAmount(rs.getDouble("amount"));
-                    allOffers.add(offer);
-                }
-            }
-
-        } catch (SQLException e) {
-            logger.error("Error al obtener ofertas por item", e);
-        }
+        // 2. Obtener ofertas del almacenamiento para ese item
+        allOffers.addAll(repository.findByItemId(itemId, primary));
 
         // 3. Ordenar todas por monto (descendente)
         allOffers.sort((o1, o2) -> Double.compare(o2.getAmount(), o1.getAmount()));
@@ -176,11 +128,21 @@ public class OfferService {
     }
 
     /**
-     * Obtiene la oferta más alta para un item (JSON + PostgreSQL)
+     * Obtiene la oferta más alta para un item (JSON + PostgreSQL, pool de lectura)
      */
     public Offer getHighestOffer(String itemId) {
-        List<Offer> allOffers = getByItemId(itemId);
+        return highestOf(itemId, getByItemId(itemId, false));
+    }
+
+    /**
+     * Obtiene la oferta más alta leyendo del primario, para validar una nueva puja
+     * sin el retraso de replicación.
+     */
+    public Offer getHighestOfferForBid(String itemId) {
+        return highestOf(itemId, getByItemId(itemId, true));
+    }
 
+    private Offer highestOf(String itemId, List<Offer> allOffers) {
         if (allOffers.isEmpty()) {
             return null;
         }
@@ -0,0 +1,244 @@
+package org.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashing de contraseñas con PBKDF2-HMAC-SHA256 ejecutado en un pool dedicado y acotado.
+ *
+ * Responsabilidades:
+ * - Calcular hashes con sal e iteraciones configurables (formato {@code pbkdf2$iter$sal$hash})
+ * - Verificar hashes nuevos y hashes heredados SHA-256 + Base64
+ * - Aislar el coste de CPU del login en su propio ejecutor, para que una ráfaga
+ *   de logins no consuma los hilos de Jetty que atienden pujas y catálogo
+ * - Rechazar rápido (ServiceBusyException → 503) cuando la cola está llena
+ *
+ * Configuración: PASSWORD_HASH_THREADS, PASSWORD_HASH_QUEUE,
+ * PASSWORD_HASH_ITERATIONS y PASSWORD_HASH_TIMEOUT_MS.
+ *
+ * @see AuthService
+ */
+public class PasswordHasher {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+    private static final String PREFIX = "pbkdf2";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+    private static final SecureRandom random = new SecureRandom();
+
+    /** Instancias reutilizadas por hilo (no son thread-safe) */
+    private static final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+    private static final ThreadLocal<SecretKeyFactory> pbkdf2 = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private static volatile PasswordHasher defaultInstance;
+
+    private final int iterations;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+
+    /** Hash PBKDF2 de relleno con las iteraciones actuales (se calcula la primera vez) */
+    private volatile String dummyHash;
+
+    /**
+     * Crea un hasher con su propio ejecutor acotado.
+     *
+     * @param threads Hilos dedicados al hashing
+     * @param queueCapacity Peticiones en espera admitidas antes de rechazar (0 = ninguna)
+     * @param iterations Iteraciones PBKDF2 para hashes nuevos
+     * @param timeoutMillis Espera máxima por un resultado antes de responder 503
+     */
+    public PasswordHasher(int threads, int queueCapacity, int iterations, long timeoutMillis) {
+        this.iterations = iterations;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "password-hasher-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Instancia compartida configurada por variables de entorno.
+     *
+     * @return Hasher por defecto de la aplicación
+     */
+    public static PasswordHasher defaultInstance() {
+        if (defaultInstance == null) {
+            synchronized (PasswordHasher.class) {
+                if (defaultInstance == null) {
+                    int cores = Runtime.getRuntime().availableProcessors();
+                    defaultInstance = new PasswordHasher(
+                            Integer.parseInt(System.getenv().getOrDefault("PASSWORD_HASH_THREADS", String.valueOf(Math.max(1, cores / 2)))),
+                            Integer.parseInt(System.getenv().getOrDefault("PASSWORD_HASH_QUEUE", "64")),
+                            Integer.parseInt(System.getenv().getOrDefault("PASSWORD_HASH_ITERATIONS", "210000")),
+                            Long.parseLong(System.getenv().getOrDefault("PASSWORD_HASH_TIMEOUT_MS", "5000")));
+                }
+            }
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Calcula el hash PBKDF2 de una contraseña en el ejecutor dedicado.
+     *
+     * @param plainPassword Contraseña en texto plano
+     * @return Hash en formato {@code pbkdf2$iter$sal$hash}
+     * @throws ServiceBusyException Si el ejecutor está saturado
+     */
+    public String hash(String plainPassword) {
+        return submit(() -> hashNow(plainPassword));
+    }
+
+    /**
+     * Verifica una contraseña contra el hash almacenado (PBKDF2 o SHA-256 heredado).
+     *
+     * @param plainPassword Contraseña en texto plano
+     * @param storedHash Hash almacenado
+     * @return true si coinciden
+     * @throws ServiceBusyException Si el ejecutor está saturado
+     */
+    public boolean verify(String plainPassword, String storedHash) {
+        return submit(() -> verifyNow(plainPassword, storedHash));
+    }
+
+    /**
+     * Ejecuta una verificación PBKDF2 completa contra un hash de relleno.
+     *
+     * Para emails desconocidos o sin contraseña: el login tarda lo mismo que con
+     * una cuenta existente y el tiempo de respuesta no revela si el email existe.
+     *
+     * @param plainPassword Contraseña recibida
+     * @return Siempre false
+     * @throws ServiceBusyException Si el ejecutor está saturado
+     */
+    public boolean verifyDummy(String plainPassword) {
+        submit(() -> verifyNow(plainPassword, dummyHash()));
+        return false;
+    }
+
+    private String dummyHash() throws GeneralSecurityException {
+        String h = dummyHash;
+        if (h == null) {
+            h = hashNow("dummy-" + random.nextLong());
+            dummyHash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Indica si el hash debe recalcularse con el algoritmo/iteraciones actuales.
+     *
+     * @param storedHash Hash almacenado
+     * @return true si es un hash SHA-256 heredado o usa menos iteraciones
+     */
+    public boolean needsRehash(String storedHash) {
+        if (storedHash == null || !storedHash.startsWith(PREFIX + "$")) return true;
+        String[] parts = storedHash.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /** @return Número de tareas esperando en la cola del ejecutor */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("⚠️ Ejecutor de hashing saturado; rechazando petición");
+            throw new ServiceBusyException("Autenticación saturada, intenta de nuevo", 1);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceBusyException("Autenticación saturada, intenta de nuevo", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Autenticación interrumpida", 1);
+        } catch (ExecutionException e) {
+            logger.error("Error al hashear contraseña", e.getCause());
+            throw new RuntimeException("Error al hashear contraseña: " + e.getCause().getMessage());
+        }
+    }
+
+    private String hashNow(String plainPassword) throws GeneralSecurityException {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] dk = pbkdf2(plainPassword, salt, iterations);
+        Base64.Encoder b64 = Base64.getEncoder();
+        return PREFIX + "$" + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(dk);
+    }
+
+    private boolean verifyNow(String plainPassword, String storedHash) throws GeneralSecurityException {
+        if (storedHash == null) return false;
+        if (storedHash.startsWith(PREFIX + "$")) {
+            String[] parts = storedHash.split("\\$");
+            if (parts.length != 4) return false;
+            try {
+                byte[] salt = Base64.getDecoder().decode(parts[2]);
+                byte[] expected = Base64.getDecoder().decode(parts[3]);
+                byte[] actual = pbkdf2(plainPassword, salt, Integer.parseInt(parts[1]));
+                return MessageDigest.isEqual(expected, actual);
+            } catch (IllegalArgumentException e) {
+                // Base64, iteraciones o sal inválidas: hash corrupto, la verificación falla
+                logger.warn("⚠️ Hash PBKDF2 mal formado: {}", e.getMessage());
+                return false;
+            }
+        }
+        // Hash heredado: SHA-256 + Base64 sin sal (charset por defecto, igual que el código original)
+        MessageDigest digest = sha256.get();
+        digest.reset();
+        byte[] legacy = digest.digest(plainPassword.getBytes());
+        return MessageDigest.isEqual(Base64.getEncoder().encodeToString(legacy).getBytes(StandardCharsets.US_ASCII),
+                storedHash.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] pbkdf2(String plainPassword, byte[] salt, int iterations) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(plainPassword.toCharArray(), salt, iterations, KEY_BITS);
+        try {
+            return pbkdf2.get().generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.service;
+
+/**
+ * Indica que un recurso acotado (pool, ejecutor, etc.) está saturado y la
+ * petición se rechaza de inmediato en lugar de encolarse.
+ *
+ * Main la traduce a una respuesta HTTP 503 con cabecera Retry-After.
+ */
+public class ServiceBusyException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    /**
+     * @param message Descripción del recurso saturado
+     * @param retryAfterSeconds Segundos sugeridos antes de reintentar
+     */
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /** @return Segundos sugeridos antes de reintentar */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
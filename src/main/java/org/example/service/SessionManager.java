@@ -2,31 +2,111 @@ package org.example.service;
 
 import org.example.model.User;
 import spark.Request;
+import spark.Response;
 
+/**
+ * Gestiona la sesión del usuario autenticado.
+ *
+ * Modos:
+ * - Sesión HTTP de Jetty (por defecto): guarda "userId" en la sesión en memoria
+ * - Sin estado (SESSION_MODE=stateless): cookie firmada con HMAC, validada
+ *   solo con CPU, sin afinidad de sesión entre instancias
+ *
+ * @see SessionTokenSigner
+ */
 public class SessionManager {
+    /** Nombre de la cookie usada en modo sin estado */
+    public static final String COOKIE_NAME = "AUCTION_SESSION";
+
     private final UserService userService;
+    private final SessionTokenSigner signer;
+    private final boolean secureCookie;
 
+    /**
+     * Crea el gestor leyendo el modo desde la variable SESSION_MODE.
+     *
+     * @param userService Servicio de usuarios
+     */
     public SessionManager(UserService userService) {
+        this(userService, "stateless".equalsIgnoreCase(System.getenv("SESSION_MODE"))
+                ? SessionTokenSigner.fromEnv() : null);
+    }
+
+    /**
+     * Crea el gestor con un firmador explícito.
+     *
+     * @param userService Servicio de usuarios
+     * @param signer Firmador de tokens; null para usar la sesión HTTP de Jetty
+     */
+    public SessionManager(UserService userService, SessionTokenSigner signer) {
         this.userService = userService;
+        this.signer = signer;
+        this.secureCookie = Boolean.parseBoolean(System.getenv().getOrDefault("SESSION_COOKIE_SECURE", "false"));
     }
 
-    public void loginUser(Request req, User user) {
+    /** @return true si las sesiones se guardan en una cookie firmada */
+    public boolean isStateless() {
+        return signer != null;
+    }
+
+    public void loginUser(Request req, Response res, User user) {
         if (req == null || user == null) return;
-        req.session(true).attribute("userId", user.getId());
+        if (signer != null) {
+            writeCookie(res, signer.sign(user.getId()), signer.getTtlSeconds());
+        } else {
+            req.session(true).attribute("userId", user.getId());
+        }
+        userService.cacheForView(user);
     }
 
-    public void logout(Request req) {
+    public void logout(Request req, Response res) {
         if (req == null) return;
+        if (signer != null) {
+            writeCookie(res, "", 0);
+            return;
+        }
         if (req.session(false) != null) req.session().removeAttribute("userId");
     }
 
-    public User getLoggedUser(Request req) {
+    /**
+     * Obtiene el ID del usuario autenticado sin consultar la base de datos.
+     *
+     * @param req Petición actual
+     * @return ID del usuario, o null si no hay sesión válida
+     */
+    public String getLoggedUserId(Request req) {
         if (req == null) return null;
+        if (signer != null) {
+            return signer.verify(req.cookie(COOKIE_NAME));
+        }
         if (req.session(false) == null) return null;
         Object v = req.session().attribute("userId");
-        if (v == null) return null;
-        String id = (String) v;
-        return userService.get(id);
+        return v != null ? (String) v : null;
     }
-}
 
+    /**
+     * Valida el valor de la cookie de sesión sin estado.
+     *
+     * @param token Valor de la cookie {@link #COOKIE_NAME}
+     * @return ID del usuario, o null si el token no es válido o el modo es sesión HTTP
+     */
+    public String verifyToken(String token) {
+        return signer != null ? signer.verify(token) : null;
+    }
+
+    public User getLoggedUser(Request req) {
+        String id = getLoggedUserId(req);
+        if (id == null) return null;
+        return userService.getForView(id);
+    }
+
+    private void writeCookie(Response res, String value, long maxAgeSeconds) {
+        if (res == null) return;
+        StringBuilder sb = new StringBuilder()
+                .append(COOKIE_NAME).append('=').append(value)
+                .append("; Path=/; Max-Age=").append(maxAgeSeconds)
+                .append("; HttpOnly; SameSite=Lax");
+        if (secureCookie) sb.append("; Secure");
+        res.raw().addHeader("Set-Cookie", sb.toString());
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Firma y valida tokens de sesión sin estado (cookie firmada con HMAC-SHA256).
+ *
+ * Formato del token: {@code <versiónClave>.<userId base64url>.<expiración epoch s>.<firma base64url>}
+ *
+ * Responsabilidades:
+ * - Emitir tokens con el id de usuario, la expiración y la versión de clave
+ * - Validar tokens solo con CPU (sin consultar ningún almacén de sesiones)
+ * - Soportar rotación: se firma con la clave actual y se aceptan las anteriores
+ *
+ * Configuración (variable SESSION_KEYS): lista "versión:secretoBase64" separada
+ * por comas; la primera es la clave activa. Si no se define, se genera una clave
+ * aleatoria al arrancar (válida solo para una instancia).
+ *
+ * @see SessionManager
+ */
+public class SessionTokenSigner {
+    private static final Logger logger = LoggerFactory.getLogger(SessionTokenSigner.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64D = Base64.getUrlDecoder();
+
+    private final Map<String, Mac> prototypes;
+    private final String currentVersion;
+    private final long ttlSeconds;
+    private final LongSupplier clockSeconds;
+
+    /**
+     * Crea un firmador con las claves indicadas.
+     *
+     * @param keys Claves por versión; la primera entrada es la clave activa
+     * @param ttlSeconds Vida de los tokens emitidos, en segundos
+     */
+    public SessionTokenSigner(LinkedHashMap<String, byte[]> keys, long ttlSeconds) {
+        this(keys, ttlSeconds, () -> System.currentTimeMillis() / 1000L);
+    }
+
+    SessionTokenSigner(LinkedHashMap<String, byte[]> keys, long ttlSeconds, LongSupplier clockSeconds) {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos una clave de sesión");
+        }
+        this.prototypes = new HashMap<>();
+        for (Map.Entry<String, byte[]> e : keys.entrySet()) {
+            if (e.getKey().contains(".")) {
+                throw new IllegalArgumentException("La versión de clave no puede contener '.'");
+            }
+            this.prototypes.put(e.getKey(), newMac(new SecretKeySpec(e.getValue(), ALGORITHM)));
+        }
+        this.currentVersion = keys.keySet().iterator().next();
+        this.ttlSeconds = ttlSeconds;
+        this.clockSeconds = clockSeconds;
+    }
+
+    /**
+     * Construye el firmador a partir de las variables de entorno
+     * SESSION_KEYS y SESSION_TTL_SECONDS.
+     *
+     * @return Firmador configurado
+     */
+    public static SessionTokenSigner fromEnv() {
+        long ttl = Long.parseLong(System.getenv().getOrDefault("SESSION_TTL_SECONDS", "86400"));
+        String spec = System.getenv("SESSION_KEYS");
+        LinkedHashMap<String, byte[]> keys = new LinkedHashMap<>();
+        if (spec != null && !spec.isBlank()) {
+            for (String part : spec.split(",")) {
+                String[] kv = part.trim().split(":", 2);
+                if (kv.length != 2) {
+                    throw new IllegalArgumentException("Entrada inválida en SESSION_KEYS: " + part);
+                }
+                keys.put(kv[0].trim(), Base64.getDecoder().decode(kv[1].trim()));
+            }
+        } else {
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            keys.put("0", random);
+            logger.warn("⚠️ SESSION_KEYS no definida: se usa una clave aleatoria (no compartida entre instancias)");
+        }
+        return new SessionTokenSigner(keys, ttl);
+    }
+
+    /** @return Vida de los tokens en segundos */
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Emite un token firmado para el usuario indicado con la clave activa.
+     *
+     * @param userId ID del usuario autenticado
+     * @return Token compacto apto para una cookie
+     */
+    public String sign(String userId) {
+        long exp = clockSeconds.getAsLong() + ttlSeconds;
+        String payload = currentVersion + "." + B64.encodeToString(userId.getBytes(StandardCharsets.UTF_8)) + "." + exp;
+        return payload + "." + B64.encodeToString(mac(currentVersion, payload));
+    }
+
+    /**
+     * Valida un token y devuelve el id de usuario que contiene.
+     *
+     * @param token Token leído de la cookie
+     * @return ID del usuario, o null si el token es inválido, está manipulado,
+     *         expiró o usa una versión de clave desconocida
+     */
+    public String verify(String token) {
+        if (token == null || token.isEmpty()) return null;
+        int sigDot = token.lastIndexOf('.');
+        if (sigDot <= 0) return null;
+        String payload = token.substring(0, sigDot);
+        String[] parts = payload.split("\\.");
+        if (parts.length != 3 || !prototypes.containsKey(parts[0])) return null;
+
+        try {
+            byte[] expected = mac(parts[0], payload);
+            byte[] given = B64D.decode(token.substring(sigDot + 1));
+            if (!MessageDigest.isEqual(expected, given)) return null;
+            long exp = Long.parseLong(parts[2]);
+            if (exp < clockSeconds.getAsLong()) return null;
+            return new String(B64D.decode(parts[1]), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Firma con un clon del Mac prototipo de la versión. Mac no es thread-safe,
+     * pero clonar uno ya inicializado solo lee su estado y evita repetir
+     * getInstance/init en cada petición; a diferencia de un Mac por hilo, sirve
+     * igual con hilos virtuales, que no se reutilizan entre peticiones.
+     */
+    private byte[] mac(String version, String payload) {
+        Mac prototype = prototypes.get(version);
+        byte[] data = payload.getBytes(StandardCharsets.UTF_8);
+        try {
+            return ((Mac) prototype.clone()).doFinal(data);
+        } catch (CloneNotSupportedException e) {
+            // Proveedor sin clonación: se serializa el uso del prototipo
+            synchronized (prototype) {
+                return prototype.doFinal(data);
+            }
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac m = Mac.getInstance(ALGORITHM);
+            m.init(key);
+            return m;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo inicializar " + ALGORITHM, e);
+        }
+    }
+}
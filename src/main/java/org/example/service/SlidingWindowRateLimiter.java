@@ -0,0 +1,180 @@
+package org.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador de tasa por clave con ventana deslizante y memoria acotada.
+ *
+ * Cada ventana se cuenta en un count-min sketch ({@code depth × width}
+ * contadores atómicos), por lo que la memoria es fija sin importar cuántas
+ * claves distintas (IPs, emails) lleguen. La ventana deslizante se aproxima
+ * ponderando la ventana anterior según el tiempo transcurrido de la actual.
+ *
+ * Responsabilidades:
+ * - Decidir sin bloqueos si una petición para una clave supera el límite
+ * - Rotar ventanas con CAS, sin locks en el camino caliente
+ * - Sugerir un Retry-After cuando se rechaza
+ *
+ * Cada fila usa un hash independiente (MurmurHash3 de 32 bits sobre los bytes
+ * UTF-8 con una semilla distinta), así dos claves con el mismo
+ * {@link String#hashCode()} (p. ej. prefijos "Aa"/"BB") no colisionan en todas
+ * las filas.
+ *
+ * Nota: el sketch puede sobreestimar (colisiones) pero nunca subestima,
+ * así que un atacante no puede evadir el límite.
+ */
+public class SlidingWindowRateLimiter {
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int limit;
+    private final long windowMillis;
+    private final int width;
+    private final LongSupplier clock;
+    private final AtomicReference<State> state;
+
+    /**
+     * @param limit Peticiones permitidas por clave dentro de la ventana
+     * @param windowMillis Duración de la ventana en milisegundos
+     * @param width Contadores por fila del sketch (se redondea a potencia de 2)
+     */
+    public SlidingWindowRateLimiter(int limit, long windowMillis, int width) {
+        this(limit, windowMillis, width, System::currentTimeMillis);
+    }
+
+    SlidingWindowRateLimiter(int limit, long windowMillis, int width, LongSupplier clock) {
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        int w = Math.max(16, width);
+        this.width = Integer.bitCount(w) == 1 ? w : Integer.highestOneBit(w) << 1;
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.state = new AtomicReference<>(new State(now - now % windowMillis, newCounters(), newCounters()));
+    }
+
+    /**
+     * Registra un intento para la clave y decide si se permite.
+     *
+     * @param key Clave a limitar (IP, email normalizado...)
+     * @return true si el intento está dentro del límite
+     */
+    public boolean tryAcquire(String key) {
+        if (key == null) return true;
+        long now = clock.getAsLong();
+        State s = current(now);
+        int[] counts = counts(s, key, true);
+        double elapsed = (double) (now - s.windowStart) / windowMillis;
+        double estimate = counts[1] * (1.0 - elapsed) + counts[0];
+        return estimate <= limit;
+    }
+
+    /**
+     * Calcula cuánto debe esperar la clave para que su próximo intento se
+     * permita, con la misma estimación ponderada que {@link #tryAcquire}:
+     * dentro de la ventana actual el peso de la anterior baja con el tiempo, y
+     * si la actual ya está llena hay que esperar a que, desde la siguiente,
+     * su propio peso decaiga lo suficiente.
+     *
+     * @param key Clave rechazada
+     * @return Segundos sugeridos antes de reintentar tras un rechazo
+     */
+    public long retryAfterSeconds(String key) {
+        long now = clock.getAsLong();
+        State s = current(now);
+        long allowedAt = now;
+        if (key != null) {
+            int[] counts = counts(s, key, false);
+            // El reintento contará uno más: prev·(1 - t) + cur + 1 <= limit
+            int room = limit - counts[0] - 1;
+            if (room >= 0) {
+                if (counts[1] > room) {
+                    allowedAt = s.windowStart + (long) Math.ceil((1.0 - (double) room / counts[1]) * windowMillis);
+                }
+            } else {
+                // En la siguiente ventana la actual pasa a ser la anterior: cur·(1 - t) + 1 <= limit
+                double weight = limit >= 1 ? 1.0 - (double) (limit - 1) / counts[0] : 1.0;
+                allowedAt = s.windowStart + windowMillis + (long) Math.ceil(weight * windowMillis);
+            }
+        }
+        long remaining = allowedAt - now;
+        return Math.max(1, (remaining + 999) / 1000);
+    }
+
+    /** @return {cur, prev}: mínimo de cada ventana sobre las filas del sketch */
+    private int[] counts(State s, String key, boolean increment) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int cur = Integer.MAX_VALUE;
+        int prev = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int idx = row * width + (murmur3(bytes, SEEDS[row]) & (width - 1));
+            cur = Math.min(cur, increment ? s.current.incrementAndGet(idx) : s.current.get(idx));
+            prev = Math.min(prev, s.previous.get(idx));
+        }
+        return new int[] {cur, prev};
+    }
+
+    private State current(long now) {
+        while (true) {
+            State s = state.get();
+            if (now < s.windowStart + windowMillis) return s;
+            long start = now - now % windowMillis;
+            // Si pasó más de una ventana completa, la anterior está vacía
+            AtomicIntegerArray previous = start - s.windowStart == windowMillis ? s.current : newCounters();
+            State next = new State(start, newCounters(), previous);
+            if (state.compareAndSet(s, next)) return next;
+        }
+    }
+
+    /** MurmurHash3 x86 de 32 bits */
+    static int murmur3(byte[] data, int seed) {
+        int h = seed;
+        int blocks = data.length >>> 2;
+        for (int i = 0; i < blocks; i++) {
+            int j = i << 2;
+            int k = (data[j] & 0xff) | (data[j + 1] & 0xff) << 8 | (data[j + 2] & 0xff) << 16 | (data[j + 3] & 0xff) << 24;
+            h ^= mixK(k);
+            h = Integer.rotateLeft(h, 13) * 5 + 0xe6546b64;
+        }
+        int tail = blocks << 2;
+        int k = 0;
+        switch (data.length & 3) {
+            case 3: k ^= (data[tail + 2] & 0xff) << 16; // fall through
+            case 2: k ^= (data[tail + 1] & 0xff) << 8;  // fall through
+            case 1: k ^= data[tail] & 0xff;
+                h ^= mixK(k);
+            default: break;
+        }
+        h ^= data.length;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int mixK(int k) {
+        k *= 0xcc9e2d51;
+        k = Integer.rotateLeft(k, 15);
+        return k * 0x1b873593;
+    }
+
+    private AtomicIntegerArray newCounters() {
+        return new AtomicIntegerArray(DEPTH * width);
+    }
+
+    private static final class State {
+        final long windowStart;
+        final AtomicIntegerArray current;
+        final AtomicIntegerArray previous;
+
+        State(long windowStart, AtomicIntegerArray current, AtomicIntegerArray previous) {
+            this.windowStart = windowStart;
+            this.current = current;
+            this.previous = previous;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.service;
+
+import org.example.model.User;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché local, acotada y con expiración (TTL) de los datos de usuario que
+ * necesitan las vistas (id, nombre y email).
+ *
+ * Responsabilidades:
+ * - Evitar una consulta a la tabla users en cada página renderizada
+ * - Limitar la memoria usada mediante desalojo LRU al superar el máximo de entradas
+ * - Expirar entradas antiguas para acotar la ventana de datos obsoletos
+ *
+ * Nota: Nunca almacena el hash de la contraseña; las entradas son copias
+ * sin el campo password.
+ *
+ * @see UserService#getForView(String)
+ * @see SessionManager
+ */
+public class UserCache {
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * Crea una caché con el tamaño máximo y TTL indicados.
+     *
+     * @param maxEntries Número máximo de usuarios en caché
+     * @param ttlMillis Tiempo de vida de cada entrada en milisegundos
+     */
+    public UserCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    UserCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Obtiene la vista cacheada de un usuario.
+     *
+     * @param id ID del usuario
+     * @return Copia sin contraseña, o null si no está o expiró
+     */
+    public synchronized User get(String id) {
+        if (id == null) return null;
+        Entry e = entries.get(id);
+        if (e == null) return null;
+        if (clock.getAsLong() - e.loadedAt > ttlMillis) {
+            entries.remove(id);
+            return null;
+        }
+        return copy(e.user);
+    }
+
+    /**
+     * Guarda la vista de un usuario (sin contraseña).
+     *
+     * @param user Usuario a cachear
+     */
+    public synchronized void put(User user) {
+        if (user == null || user.getId() == null) return;
+        entries.put(user.getId(), new Entry(copy(user), clock.getAsLong()));
+    }
+
+    /**
+     * Elimina un usuario de la caché (llamado tras update/delete).
+     *
+     * @param id ID del usuario a invalidar
+     */
+    public synchronized void invalidate(String id) {
+        if (id != null) entries.remove(id);
+    }
+
+    /** Vacía la caché completa */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /** @return Número de entradas actualmente en caché */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static User copy(User u) {
+        return new User(u.getId(), u.getName(), u.getEmail());
+    }
+
+    private static final class Entry {
+        final User user;
+        final long loadedAt;
+
+        Entry(User user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
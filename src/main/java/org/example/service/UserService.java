@@ -1,63 +1,127 @@
 package org.example.service;
 
-import org.example.DatabaseManager;
+import org.example.metrics.CacheLookupEvent;
 import org.example.model.User;
+import org.example.repository.JdbcUserRepository;
+import org.example.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Servicio de gestión de usuarios.
  *
  * Proporciona operaciones CRUD (Create, Read, Update, Delete) para usuarios
- * en la base de datos PostgreSQL, incluyendo búsquedas y autenticación.
+ * sobre un {@link UserRepository} (PostgreSQL o motor en memoria), incluyendo
+ * búsquedas y autenticación.
  *
  * Responsabilidades:
  * - Obtener, crear, actualizar y eliminar usuarios
  * - Buscar usuarios por nombre, email o ID
  * - Verificar existencia de usuarios
- * - Gestionar conexiones a base de datos a través de DatabaseManager
+ * - Mantener la caché de vistas coherente con las escrituras
  *
  * Nota: Todas las operaciones se registran en logs para auditoría y debugging.
  *
- * @see DatabaseManager
+ * @see UserRepository
  * @see User
  */
 public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
+    /** Caché de vistas de usuario (sin contraseña) usada por SessionManager */
+    private final UserCache viewCache = new UserCache(
+            Integer.parseInt(System.getenv().getOrDefault("USER_CACHE_MAX", "10000")),
+            Long.parseLong(System.getenv().getOrDefault("USER_CACHE_TTL_SECONDS", "60")) * 1000L);
+
+    private final UserRepository repository;
+
+    /** Usa el repositorio PostgreSQL */
+    public UserService() {
+        this(null);
+    }
+
+    /**
+     * @param repository Almacenamiento de usuarios (null = PostgreSQL)
+     */
+    public UserService(UserRepository repository) {
+        this.repository = repository != null ? repository : new JdbcUserRepository();
+    }
+
     /**
      * Obtiene todos los usuarios del sistema.
      *
      * @return Colección de todos los usuarios ordenados por fecha de creación (más recientes primero)
      */
     public Collection<User> getAll() {
-        List<User> users = new ArrayList<>();
-        String sql = "SELECT id, name, email, created_at FROM users ORDER BY created_at DESC";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                User user = new User();
-                user.setId(rs.getString("id"));
-                user.setName(rs.getString("name"));
-                user.setEmail(rs.getString("email"));
-                users.add(user);
-            }
+        List<User> users = repository.findAll();
+        logger.debug("📋 Se obtuvieron {} usuarios", users.size());
+        return users;
+    }
+
+    /**
+     * Página de usuarios con la proyección mínima (id, name, email).
+     */
+    public static class UserPage {
+        private final List<Map<String, String>> users;
+        private final String nextCursor;
+
+        UserPage(List<Map<String, String>> users, String nextCursor) {
+            this.users = users;
+            this.nextCursor = nextCursor;
+        }
+
+        /** @return Filas de la página (id, name, email) */
+        public List<Map<String, String>> getUsers() { return users; }
 
-            logger.debug("📋 Se obtuvieron {} usuarios", users.size());
+        /** @return Cursor para la siguiente página, o null si es la última */
+        public String getNextCursor() { return nextCursor; }
+    }
 
-        } catch (SQLException e) {
-            logger.error("❌ Error al obtener usuarios", e);
+    /**
+     * Obtiene una página de usuarios usando paginación por cursor (keyset).
+     *
+     * Ordena por (created_at, id) descendente y continúa a partir del último
+     * registro de la página anterior, por lo que el coste no crece con el número
+     * de página. Las filas se proyectan directamente a (id, name, email): nunca
+     * se lee la columna password ni se construyen objetos User.
+     *
+     * @param cursor Cursor opaco devuelto por la página anterior (null para la primera)
+     * @param limit Tamaño de página
+     * @return Página de usuarios y cursor siguiente
+     * @throws IllegalArgumentException Si el cursor no es válido
+     */
+    public UserPage listPage(String cursor, int limit) {
+        Instant afterCreatedAt = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = decoded.indexOf('|');
+                afterCreatedAt = Instant.parse(decoded.substring(0, sep));
+                afterId = decoded.substring(sep + 1);
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
         }
 
-        return users;
+        UserRepository.Slice slice = repository.findPage(afterCreatedAt, afterId, limit);
+        String nextCursor = slice.hasMore() ? encodeCursor(slice.getLastCreatedAt(), slice.getLastId()) : null;
+        return new UserPage(slice.getRows(), nextCursor);
+    }
+
+    private static String encodeCursor(Instant createdAt, String id) {
+        if (createdAt == null || id == null) return null;
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
@@ -67,32 +131,52 @@ public class UserService {
      * @return Usuario encontrado, o null si no existe
      */
     public User get(String id) {
-        String sql = "SELECT id, name, email, password FROM users WHERE id = ?";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, id);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    User user = new User();
-                    user.setId(rs.getString("id"));
-                    user.setName(rs.getString("name"));
-                    user.setEmail(rs.getString("email"));
-                    user.setPassword(rs.getString("password"));
-
-                    logger.debug("✅ Usuario encontrado: {}", id);
-                    return user;
-                }
-            }
+        User user = repository.findById(id);
+        if (user != null) {
+            logger.debug("✅ Usuario encontrado: {}", id);
+        } else {
+            logger.debug("⚠️ Usuario no encontrado: {}", id);
+        }
+        return user;
+    }
 
-        } catch (SQLException e) {
-            logger.error("❌ Error al buscar usuario: {}", id, e);
+    /**
+     * Obtiene los datos de un usuario necesarios para las vistas (id, nombre, email).
+     *
+     * Consulta primero la caché local; solo si no hay entrada vigente se
+     * ejecuta un SELECT que no lee la columna password. Si la base de datos no
+     * está disponible (circuito abierto) devuelve null en lugar de propagar el 503.
+     *
+     * @param id Identificador único del usuario
+     * @return Usuario sin contraseña, o null si no existe
+     */
+    public User getForView(String id) {
+        if (id == null) return null;
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        User cached = viewCache.get(id);
+        event.commit("user-view", cached != null);
+        if (cached != null) return cached;
+
+        User user;
+        try {
+            user = repository.findViewById(id);
+        } catch (ServiceBusyException e) {
+            // Base de datos no disponible: la página se sirve como anónima en vez de fallar
+            logger.debug("Vista de usuario {} no disponible: {}", id, e.getMessage());
+            return null;
         }
+        if (user != null) viewCache.put(user);
+        return user;
+    }
 
-        logger.debug("⚠️ Usuario no encontrado: {}", id);
-        return null;
+    /**
+     * Precarga la vista de un usuario recién autenticado en la caché.
+     *
+     * @param user Usuario autenticado (la contraseña no se almacena)
+     */
+    public void cacheForView(User user) {
+        viewCache.put(user);
     }
 
     /**
@@ -102,26 +186,40 @@ public class UserService {
      * @throws RuntimeException Si ocurre un error en la base de datos
      */
     public void add(User user) {
-        String sql = "INSERT INTO users (id, name, email, password) VALUES (?, ?, ?, ?)";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, user.getId());
-            pstmt.setString(2, user.getName());
-            pstmt.setString(3, user.getEmail());
-            pstmt.setString(4, user.getPassword());
-
-            int rows = pstmt.executeUpdate();
+        repository.insert(user);
+        logger.info("✅ Usuario creado: {} ({})", user.getName(), user.getId());
+    }
 
-            if (rows > 0) {
-                logger.info("✅ Usuario creado: {} ({})", user.getName(), user.getId());
-            }
+    /**
+     * Resultado de {@link #insertIfAbsent(User)}.
+     */
+    public enum InsertResult {
+        /** El usuario se insertó correctamente */
+        CREATED,
+        /** Ya existe un usuario con el mismo ID */
+        DUPLICATE_ID,
+        /** Ya existe un usuario con el mismo email */
+        DUPLICATE_EMAIL
+    }
 
-        } catch (SQLException e) {
-            logger.error("❌ Error al crear usuario: {}", user.getId(), e);
-            throw new RuntimeException("Error al crear usuario: " + e.getMessage());
+    /**
+     * Inserta un usuario en una sola sentencia y un solo viaje a la base de datos.
+     *
+     * En PostgreSQL usa {@code INSERT ... ON CONFLICT DO NOTHING RETURNING} dentro
+     * de un CTE (ver JdbcUserRepository). Dos registros concurrentes con el mismo
+     * email no producen un error de restricción: uno obtiene CREATED y el otro
+     * DUPLICATE_EMAIL.
+     *
+     * @param user Usuario a registrar (con contraseña ya hasheada)
+     * @return Resultado de la inserción
+     * @throws RuntimeException Si ocurre un error en la base de datos
+     */
+    public InsertResult insertIfAbsent(User user) {
+        InsertResult result = repository.insertIfAbsent(user);
+        if (result == InsertResult.CREATED) {
+            logger.info("✅ Usuario creado: {} ({})", user.getName(), user.getId());
         }
+        return result;
     }
 
     /**
@@ -135,29 +233,27 @@ public class UserService {
      * @throws RuntimeException Si ocurre un error en la base de datos
      */
     public void update(String id, User user) {
-        String sql = "UPDATE users SET name = ?, email = ? WHERE id = ?";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, user.getName());
-            pstmt.setString(2, user.getEmail());
-            pstmt.setString(3, id);
-
-            int rows = pstmt.executeUpdate();
-
-            if (rows > 0) {
-                logger.info("✅ Usuario actualizado: {}", id);
-            } else {
-                logger.warn("⚠️ No se encontró usuario para actualizar: {}", id);
-            }
+        boolean updated = repository.update(id, user);
+        viewCache.invalidate(id);
 
-        } catch (SQLException e) {
-            logger.error("❌ Error al actualizar usuario: {}", id, e);
-            throw new RuntimeException("Error al actualizar usuario: " + e.getMessage());
+        if (updated) {
+            logger.info("✅ Usuario actualizado: {}", id);
+        } else {
+            logger.warn("⚠️ No se encontró usuario para actualizar: {}", id);
         }
     }
 
+    /**
+     * Reemplaza el hash de contraseña de un usuario (p. ej. migración a PBKDF2).
+     *
+     * @param id Identificador del usuario
+     * @param passwordHash Nuevo hash ya calculado
+     * @throws RuntimeException Si ocurre un error en la base de datos
+     */
+    public void updatePassword(String id, String passwordHash) {
+        repository.updatePassword(id, passwordHash);
+    }
+
     /**
      * Elimina un usuario de la base de datos.
      *
@@ -165,24 +261,13 @@ public class UserService {
      * @throws RuntimeException Si ocurre un error en la base de datos
      */
     public void delete(String id) {
-        String sql = "DELETE FROM users WHERE id = ?";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, id);
-
-            int rows = pstmt.executeUpdate();
-
-            if (rows > 0) {
-                logger.info("✅ Usuario eliminado: {}", id);
-            } else {
-                logger.warn("⚠️ No se encontró usuario para eliminar: {}", id);
-            }
+        boolean deleted = repository.delete(id);
+        viewCache.invalidate(id);
 
-        } catch (SQLException e) {
-            logger.error("❌ Error al eliminar usuario: {}", id, e);
-            throw new RuntimeException("Error al eliminar usuario: " + e.getMessage());
+        if (deleted) {
+            logger.info("✅ Usuario eliminado: {}", id);
+        } else {
+            logger.warn("⚠️ No se encontró usuario para eliminar: {}", id);
         }
     }
 
@@ -193,59 +278,38 @@ public class UserService {
      * @return true si el usuario existe, false en caso contrario
      */
     public boolean exists(String id) {
-        String sql = "SELECT COUNT(*) FROM users WHERE id = ?";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, id);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
-
-        } catch (SQLException e) {
-            logger.error("❌ Error al verificar existencia de usuario: {}", id, e);
-        }
-
-        return false;
+        return repository.exists(id);
     }
 
+    /** Límite de resultados por defecto para {@link #search(String)} */
+    public static final int DEFAULT_SEARCH_LIMIT = 50;
+
     /**
      * Busca usuarios por nombre o email (búsqueda case-insensitive).
      *
      * @param query Término de búsqueda (se busca en nombre y email)
-     * @return Colección de usuarios que coinciden con la búsqueda
+     * @return Hasta {@link #DEFAULT_SEARCH_LIMIT} usuarios que coinciden con la búsqueda
      */
     public Collection<User> search(String query) {
-        List<User> users = new ArrayList<>();
-        String sql = "SELECT id, name, email FROM users WHERE LOWER(name) LIKE ? OR LOWER(email) LIKE ?";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            String searchPattern = "%" + query.toLowerCase() + "%";
-            pstmt.setString(1, searchPattern);
-            pstmt.setString(2, searchPattern);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    User user = new User();
-                    user.setId(rs.getString("id"));
-                    user.setName(rs.getString("name"));
-                    user.setEmail(rs.getString("email"));
-                    users.add(user);
-                }
-            }
-
-            logger.debug("🔍 Búsqueda '{}' encontró {} usuarios", query, users.size());
-
-        } catch (SQLException e) {
-            logger.error("❌ Error al buscar usuarios", e);
-        }
+        return search(query, DEFAULT_SEARCH_LIMIT);
+    }
 
+    /**
+     * Busca usuarios cuyo nombre o email contenga el término (prefijo o subcadena).
+     *
+     * En PostgreSQL la consulta se apoya en los índices GIN de trigramas sobre
+     * {@code LOWER(name)} y {@code LOWER(email)}, por lo que no recorre toda la
+     * tabla. Los comodines {@code %} y {@code _} del término se escapan para que
+     * se busquen literalmente.
+     *
+     * @param query Término de búsqueda (se busca en nombre y email)
+     * @param limit Número máximo de resultados
+     * @return Colección de usuarios que coinciden con la búsqueda
+     */
+    public Collection<User> search(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) return new ArrayList<>();
+        List<User> users = repository.search(query, limit);
+        logger.debug("🔍 Búsqueda '{}' encontró {} usuarios", query, users.size());
         return users;
     }
 
@@ -256,28 +320,6 @@ public class UserService {
      * @return Usuario encontrado con contraseña hasheada, o null si no existe
      */
     public User findByEmail(String email) {
-        String sql = "SELECT id, name, email, password FROM users WHERE email = ? LIMIT 1";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, email);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    User user = new User();
-                    user.setId(rs.getString("id"));
-                    user.setName(rs.getString("name"));
-                    user.setEmail(rs.getString("email"));
-                    user.setPassword(rs.getString("password"));
-                    return user;
-                }
-            }
-
-        } catch (SQLException e) {
-            logger.error("❌ Error al buscar usuario por email: {}", email, e);
-        }
-
-        return null;
+        return repository.findByEmail(email);
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package org.example.tracing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Traza de una petición: sus spans (JDBC, espera de pool, render) en orden.
+ *
+ * La construye y la usa un único hilo; al cerrarse ya no cambia y puede
+ * leerse desde el endpoint de depuración.
+ */
+public class Trace {
+    /** Máximo de spans por traza: un bucle N+1 no debe crecer sin límite */
+    static final int MAX_SPANS = 500;
+
+    final long id;
+    final String method;
+    final String path;
+    final long startedAtMillis;
+    final long startNanos;
+    final List<Span> spans = new ArrayList<>(16);
+    int droppedSpans;
+    int status;
+    long durationNanos;
+
+    Trace(long id, String method, String path, long startedAtMillis, long startNanos) {
+        this.id = id;
+        this.method = method;
+        this.path = path;
+        this.startedAtMillis = startedAtMillis;
+        this.startNanos = startNanos;
+    }
+
+    void add(String kind, String name, long startNanos, long durationNanos) {
+        if (spans.size() >= MAX_SPANS) {
+            droppedSpans++;
+            return;
+        }
+        spans.add(new Span(kind, name, startNanos - this.startNanos, durationNanos));
+    }
+
+    /** @return Duración total de la petición en nanosegundos (0 si sigue abierta) */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Vista serializable de la traza, con los spans y un resumen por sentencia SQL
+     * (cuántas veces se ejecutó y cuánto tardó en total: un N+1 salta a la vista).
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("id", id);
+        out.put("method", method);
+        out.put("path", path);
+        out.put("status", status);
+        out.put("startedAt", startedAtMillis);
+        out.put("durationMs", durationNanos / 1_000_000.0);
+        List<Map<String, Object>> spanViews = new ArrayList<>(spans.size());
+        Map<String, Map<String, Object>> byQuery = new LinkedHashMap<>();
+        for (Span s : spans) {
+            Map<String, Object> v = new LinkedHashMap<>();
+            v.put("kind", s.kind);
+            v.put("name", s.name);
+            v.put("offsetMs", s.offsetNanos / 1_000_000.0);
+            v.put("durationMs", s.durationNanos / 1_000_000.0);
+            spanViews.add(v);
+            if ("jdbc".equals(s.kind)) {
+                Map<String, Object> q = byQuery.computeIfAbsent(s.name, k -> {
+                    Map<String, Object> m = new LinkedHashMap<>();
+                    m.put("sql", k);
+                    m.put("count", 0);
+                    m.put("totalMs", 0.0);
+                    return m;
+                });
+                q.put("count", (Integer) q.get("count") + 1);
+                q.put("totalMs", (Double) q.get("totalMs") + s.durationNanos / 1_000_000.0);
+            }
+        }
+        out.put("queries", new ArrayList<>(byQuery.values()));
+        out.put("spans", spanViews);
+        out.put("droppedSpans", droppedSpans);
+        return out;
+    }
+
+    /** Tramo de trabajo dentro de la petición */
+    static final class Span {
+        final String kind;
+        final String name;
+        final long offsetNanos;
+        final long durationNanos;
+
+        Span(String kind, String name, long offsetNanos, long durationNanos) {
+            this.kind = kind;
+            this.name = name;
+            this.offsetNanos = offsetNanos;
+            this.durationNanos = durationNanos;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.tracing;
+
+import org.example.logging.RateLimitedLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.Request;
+import spark.Response;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Trazado ligero en proceso de las peticiones HTTP.
+ *
+ * Responsabilidades:
+ * - Abrir una traza por petición (filtros {@link #begin} / {@link #end}) en el hilo que la atiende
+ * - Añadir spans hijos por cada sentencia JDBC y espera de pool (envolviendo la
+ *   conexión en {@code DatabaseManager.getConnection}) y por cada render de plantilla
+ * - Guardar las trazas lentas en un buffer circular acotado, expuesto en /status/traces
+ * - Avisar de las sentencias lentas (como mucho un aviso por segundo)
+ *
+ * Si TRACING=off, o fuera de una petición, todas las llamadas son no-ops y las
+ * conexiones no se envuelven.
+ *
+ * Configuración: TRACING (on), TRACE_SLOW_MS (250), TRACE_SLOW_QUERY_MS (50),
+ * TRACE_BUFFER_SIZE (50).
+ */
+public final class Tracer {
+    private static final Logger logger = LoggerFactory.getLogger(Tracer.class);
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+    private static final AtomicLong ids = new AtomicLong();
+    private static final RateLimitedLog slowQueryLog = new RateLimitedLog(1000);
+
+    private static volatile boolean enabled =
+            !"off".equalsIgnoreCase(System.getenv().getOrDefault("TRACING", "on"));
+    private static volatile long slowTraceNanos =
+            Long.parseLong(System.getenv().getOrDefault("TRACE_SLOW_MS", "250")) * 1_000_000L;
+    private static volatile long slowQueryNanos =
+            Long.parseLong(System.getenv().getOrDefault("TRACE_SLOW_QUERY_MS", "50")) * 1_000_000L;
+    private static volatile AtomicReferenceArray<Trace> slow =
+            new AtomicReferenceArray<>(Math.max(1, Integer.parseInt(System.getenv().getOrDefault("TRACE_BUFFER_SIZE", "50"))));
+    private static final AtomicLong slowCount = new AtomicLong();
+
+    private Tracer() { }
+
+    /** Ajusta la configuración (pruebas). */
+    static void configure(boolean on, long slowTraceMillis, long slowQueryMillis, int bufferSize) {
+        enabled = on;
+        slowTraceNanos = slowTraceMillis * 1_000_000L;
+        slowQueryNanos = slowQueryMillis * 1_000_000L;
+        slow = new AtomicReferenceArray<>(Math.max(1, bufferSize));
+        slowCount.set(0);
+    }
+
+    /** Filtro before: abre la traza de la petición. */
+    public static void begin(Request req, Response res) {
+        begin(req.requestMethod(), req.pathInfo());
+    }
+
+    static void begin(String method, String path) {
+        if (!enabled) return;
+        CURRENT.set(new Trace(ids.incrementAndGet(), method, path, System.currentTimeMillis(), System.nanoTime()));
+    }
+
+    /** Filtro afterAfter: cierra la traza y la guarda si fue lenta. */
+    public static void end(Request req, Response res) {
+        end(res.raw().getStatus());
+    }
+
+    static Trace end(int status) {
+        Trace trace = CURRENT.get();
+        if (trace == null) return null;
+        CURRENT.remove();
+        trace.status = status;
+        trace.durationNanos = System.nanoTime() - trace.startNanos;
+        if (trace.durationNanos >= slowTraceNanos) {
+            AtomicReferenceArray<Trace> buffer = slow;
+            buffer.set((int) (slowCount.getAndIncrement() % buffer.length()), trace);
+        }
+        return trace;
+    }
+
+    /** @return true si el hilo está atendiendo una petición trazada */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /** @return Marca de inicio para {@link #endSpan} (0 si no hay traza activa) */
+    public static long startSpan() {
+        return CURRENT.get() != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Cierra un span abierto con {@link #startSpan}.
+     *
+     * @param kind Tipo ("jdbc", "pool", "render")
+     * @param name Detalle (SQL, nombre del pool o de la plantilla)
+     * @param start Valor devuelto por {@link #startSpan}
+     */
+    public static void endSpan(String kind, String name, long start) {
+        if (start == 0) return;
+        Trace trace = CURRENT.get();
+        if (trace == null) return;
+        long duration = System.nanoTime() - start;
+        trace.add(kind, name, start, duration);
+        if ("jdbc".equals(kind) && duration >= slowQueryNanos) {
+            long omitted = slowQueryLog.tryAcquire();
+            if (omitted >= 0) {
+                logger.warn("🐢 Sentencia lenta ({} ms) en {} {}: {} ({} avisos omitidos)",
+                        duration / 1_000_000, trace.method, trace.path, name, omitted);
+            }
+        }
+    }
+
+    /**
+     * Registra la espera por una conexión y la envuelve para trazar sus sentencias.
+     *
+     * @param conn Conexión del pool
+     * @param pool Nombre del pool
+     * @param acquireStartNanos Inicio de la espera (System.nanoTime)
+     * @return La conexión envuelta, o la misma si no hay traza activa
+     */
+    public static Connection traceConnection(Connection conn, String pool, long acquireStartNanos) {
+        Trace trace = CURRENT.get();
+        if (trace == null) return conn;
+        trace.add("pool", pool, acquireStartNanos, System.nanoTime() - acquireStartNanos);
+        return TracingJdbc.wrap(conn);
+    }
+
+    /** @return Trazas lentas retenidas, de la más reciente a la más antigua */
+    public static List<Map<String, Object>> slowTraces() {
+        AtomicReferenceArray<Trace> buffer = slow;
+        long count = slowCount.get();
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (long i = count - 1; i >= 0 && i >= count - buffer.length(); i--) {
+            Trace t = buffer.get((int) (i % buffer.length()));
+            if (t != null) out.add(t.toMap());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.tracing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Envoltorios JDBC que crean un span "jdbc" por cada ejecución de sentencia.
+ *
+ * Solo se usan con una traza activa (ver {@link Tracer#traceConnection}).
+ */
+final class TracingJdbc {
+    private static final int MAX_SQL = 300;
+
+    private TracingJdbc() { }
+
+    static Connection wrap(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(TracingJdbc.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(conn, method, args);
+                    if (result instanceof Statement) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                        return wrapStatement((Statement) result, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private static Object wrapStatement(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) return invoke(statement, method, args);
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            long start = Tracer.startSpan();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                Tracer.endSpan("jdbc", abbreviate(sql), start);
+            }
+        };
+        return Proxy.newProxyInstance(TracingJdbc.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    static String abbreviate(String sql) {
+        if (sql == null) return "(batch)";
+        String compact = sql.replaceAll("\\s+", " ").trim();
+        return compact.length() <= MAX_SQL ? compact : compact.substring(0, MAX_SQL) + "…";
+    }
+}
@@ -0,0 +1,12 @@
+-- Índices para las consultas calientes
+-- OfferService.getByItemId / getHighestOffer: WHERE item_id = ? ORDER BY amount DESC
+CREATE INDEX IF NOT EXISTS idx_offers_item_amount ON offers (item_id, amount DESC);
+
+-- OfferService.getAll: ORDER BY created_at DESC
+CREATE INDEX IF NOT EXISTS idx_offers_created_at ON offers (created_at);
+
+-- ItemService.getAll: ORDER BY created_at DESC
+CREATE INDEX IF NOT EXISTS idx_items_created_at ON items (created_at);
+
+-- UserService.listPage: paginación por cursor (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users (created_at DESC, id DESC);
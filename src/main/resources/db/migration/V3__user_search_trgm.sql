@@ -0,0 +1,6 @@
+-- migration:optional
+-- Índices de trigramas para UserService.search (requiere permisos para CREATE EXTENSION).
+-- Si falla, no se registra y se reintenta en el siguiente arranque.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_users_name_trgm ON users USING gin (LOWER(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING gin (LOWER(email) gin_trgm_ops);
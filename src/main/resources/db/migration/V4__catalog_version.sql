@@ -0,0 +1,22 @@
+-- Versión del catálogo compartida por todas las instancias (ETags de /api/items y /api/offers).
+-- Un trigger por sentencia la incrementa con cada escritura en items u ofertas, dentro
+-- de la misma transacción. El cuerpo de la función va en una sola línea sin ';' final
+-- porque MigrationRunner separa las sentencias por ';' al final de línea.
+CREATE TABLE IF NOT EXISTS catalog_version (
+    id INT PRIMARY KEY CHECK (id = 1),
+    version BIGINT NOT NULL
+);
+
+INSERT INTO catalog_version (id, version) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_catalog_version() RETURNS trigger AS $$
+BEGIN UPDATE catalog_version SET version = version + 1 WHERE id = 1; RETURN NULL; END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS items_catalog_version ON items;
+CREATE TRIGGER items_catalog_version AFTER INSERT OR UPDATE OR DELETE ON items
+    FOR EACH STATEMENT EXECUTE PROCEDURE bump_catalog_version();
+
+DROP TRIGGER IF EXISTS offers_catalog_version ON offers;
+CREATE TRIGGER offers_catalog_version AFTER INSERT OR UPDATE OR DELETE ON offers
+    FOR EACH STATEMENT EXECUTE PROCEDURE bump_catalog_version();
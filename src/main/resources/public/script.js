@@ -55,6 +55,10 @@
                             setTimeout(() => detailPrice.classList.remove('price-updated'), 600);
                         }
                     }
+                    // Aviso privado: otro usuario superó nuestra oferta
+                    if (data.type === 'outbid' && data.itemId) {
+                        showOutbidAlert(data.itemId, data.newPrice);
+                    }
                 } catch (e) {
                     console.error('❌ Error procesando mensaje WS:', e);
                 }
@@ -78,6 +82,22 @@
         }
     }
 
+    function showOutbidAlert(itemId, newPrice) {
+        const alertEl = document.createElement('div');
+        alertEl.className = 'alert alert-warning alert-dismissible fade show position-fixed top-0 end-0 m-3';
+        alertEl.style.zIndex = 1080;
+        alertEl.innerHTML = `
+            <strong>¡Tu oferta fue superada!</strong> Nuevo precio: ${newPrice}.
+            <a href="/items/${encodeURIComponent(itemId)}" class="alert-link">Ver artículo</a>
+            <button type="button" class="btn-close" data-bs-dismiss="alert"></button>
+        `;
+        document.body.appendChild(alertEl);
+        setTimeout(() => {
+            alertEl.classList.remove('show');
+            setTimeout(() => alertEl.remove(), 150);
+        }, 8000);
+    }
+
     connect();
 })();
 
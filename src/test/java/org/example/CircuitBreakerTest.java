@@ -0,0 +1,58 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    @Test
+    void se_abre_tras_fallos_consecutivos() {
+        // Arrange
+        CircuitBreaker breaker = new CircuitBreaker(3, 1000);
+
+        // Act
+        assertFalse(breaker.recordFailure());
+        assertFalse(breaker.recordFailure());
+        boolean opened = breaker.recordFailure();
+
+        // Assert
+        assertTrue(opened);
+        assertFalse(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void un_exito_reinicia_la_cuenta_y_reset_cierra() {
+        // Arrange
+        AtomicLong now = new AtomicLong(0);
+        CircuitBreaker breaker = new CircuitBreaker(2, 1500, now::get);
+
+        // Act & Assert
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        assertFalse(breaker.recordFailure());
+        assertTrue(breaker.recordFailure());
+        now.set(700);
+        assertEquals(700, breaker.openForMillis());
+        assertEquals(2, breaker.retryAfterSeconds());
+        breaker.reset();
+        assertTrue(breaker.allowRequest());
+        assertEquals(0, breaker.openForMillis());
+    }
+
+    @Test
+    void solo_cuentan_errores_de_disponibilidad() {
+        assertTrue(DatabaseManager.isAvailabilityError(new SQLTransientConnectionException("timeout")));
+        assertTrue(DatabaseManager.isAvailabilityError(new SQLException("connection refused", "08001")));
+        assertTrue(DatabaseManager.isAvailabilityError(new SQLException("cannot connect now", "57P03")));
+        assertFalse(DatabaseManager.isAvailabilityError(new SQLException("canceling statement", "57014")));
+        assertFalse(DatabaseManager.isAvailabilityError(new SQLTimeoutException("query timeout")));
+        assertFalse(DatabaseManager.isAvailabilityError(new SQLException("duplicate key", "23505")));
+    }
+}
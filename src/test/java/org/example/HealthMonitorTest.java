@@ -0,0 +1,64 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class HealthMonitorTest {
+
+    @Test
+    void listo_con_bd_accesible_y_circuito_cerrado() {
+        // Arrange
+        AtomicLong now = new AtomicLong(0);
+        HealthMonitor monitor = new HealthMonitor(() -> 3L, () -> "CLOSED",
+                () -> Map.of("bids", Map.of("active", 1)), 1000, now::get);
+
+        // Act
+        monitor.refresh();
+
+        // Assert
+        assertTrue(monitor.isReady());
+        assertTrue(monitor.readinessJson().contains("\"latencyMs\":3"));
+        assertTrue(monitor.readinessJson().contains("\"pools\""));
+    }
+
+    @Test
+    void no_listo_si_la_bd_falla_o_el_circuito_esta_abierto() {
+        // Arrange
+        AtomicBoolean down = new AtomicBoolean(true);
+        HealthMonitor monitor = new HealthMonitor(() -> {
+            if (down.get()) throw new SQLException("connection refused");
+            return 1L;
+        }, () -> "OPEN", Map::of, 1000, () -> 0L);
+
+        // Act & Assert
+        monitor.refresh();
+        assertFalse(monitor.isReady());
+        assertTrue(monitor.readinessJson().contains("connection refused"));
+        down.set(false);
+        monitor.refresh();
+        assertFalse(monitor.isReady(), "circuito abierto: aún no listo");
+        assertEquals("{\"status\":\"UP\"}", monitor.livenessJson());
+    }
+
+    @Test
+    void resultado_antiguo_se_reporta_como_no_listo() {
+        // Arrange
+        AtomicLong now = new AtomicLong(0);
+        HealthMonitor monitor = new HealthMonitor(null, () -> "CLOSED", Map::of, 1000, now::get);
+        monitor.refresh();
+        assertTrue(monitor.isReady());
+
+        // Act
+        now.set(5000);
+
+        // Assert
+        assertFalse(monitor.isReady());
+        assertTrue(monitor.readinessJson().contains("stale"));
+    }
+}
@@ -0,0 +1,99 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.*;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MigrationRunnerTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setupDb() throws Exception {
+        // BD H2 en memoria, nueva en cada prueba
+        conn = DriverManager.getConnection("jdbc:h2:mem:migrations" + System.nanoTime());
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        if (conn != null) conn.close();
+    }
+
+    private int countRows(String sql) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void aplica_migraciones_en_orden_y_las_registra() throws Exception {
+        // Arrange
+        MigrationRunner runner = new MigrationRunner("/db/test-migration",
+            List.of("V1__create_demo.sql", "V2__demo_index.sql"));
+
+        // Act
+        int applied = runner.migrate(conn);
+
+        // Assert
+        assertEquals(2, applied);
+        assertEquals(1, countRows("SELECT COUNT(*) FROM demo"));
+        assertEquals(2, countRows("SELECT COUNT(*) FROM schema_migrations"));
+    }
+
+    @Test
+    void segunda_ejecucion_no_aplica_nada() throws Exception {
+        // Arrange
+        MigrationRunner runner = new MigrationRunner("/db/test-migration",
+            List.of("V1__create_demo.sql", "V2__demo_index.sql"));
+        runner.migrate(conn);
+
+        // Act
+        int applied = runner.migrate(conn);
+
+        // Assert
+        assertEquals(0, applied);
+        assertEquals(1, countRows("SELECT COUNT(*) FROM demo")); // el INSERT no se repite
+    }
+
+    @Test
+    void checksum_modificado_detiene_el_arranque() throws Exception {
+        // Arrange
+        new MigrationRunner("/db/test-migration", List.of("V1__create_demo.sql")).migrate(conn);
+        try (Statement st = conn.createStatement()) {
+            st.execute("UPDATE schema_migrations SET checksum = 'otro' WHERE version = 1");
+        }
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+            () -> new MigrationRunner("/db/test-migration", List.of("V1__create_demo.sql")).migrate(conn));
+    }
+
+    @Test
+    void migracion_opcional_fallida_no_se_registra() throws Exception {
+        // Arrange
+        MigrationRunner runner = new MigrationRunner("/db/test-migration",
+            List.of("V1__create_demo.sql", "V3__optional_broken.sql"));
+
+        // Act
+        int applied = runner.migrate(conn);
+
+        // Assert
+        assertEquals(1, applied);
+        assertEquals(0, countRows("SELECT COUNT(*) FROM schema_migrations WHERE version = 3"));
+    }
+
+    @Test
+    void split_ignora_comentarios_y_separa_sentencias() {
+        // Act
+        List<String> statements = MigrationRunner.split("-- comentario\nCREATE TABLE a (id INT);\n\nCREATE TABLE b (id INT);\n");
+
+        // Assert
+        assertEquals(List.of("CREATE TABLE a (id INT)", "CREATE TABLE b (id INT)"), statements);
+    }
+}
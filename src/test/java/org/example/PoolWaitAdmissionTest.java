@@ -0,0 +1,61 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.example.DatabaseManager.Pool;
+import org.example.controller.AdmissionController;
+import org.example.controller.AdmissionController.RouteClass;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PoolWaitAdmissionTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @AfterEach
+    void restoreClock() {
+        DatabaseManager.setNanoClock(System::nanoTime);
+    }
+
+    @Test
+    void la_espera_media_decae_sin_muestras_nuevas() {
+        // Arrange
+        DatabaseManager.setNanoClock(now::get);
+        for (int i = 0; i < 20; i++) DatabaseManager.recordWait(Pool.CATALOG, 800_000_000L); // 800 ms
+
+        // Act
+        double busy = DatabaseManager.getAverageWaitMillis(Pool.CATALOG);
+        now.addAndGet(1_000_000_000L); // una vida media
+        double halved = DatabaseManager.getAverageWaitMillis(Pool.CATALOG);
+
+        // Assert
+        assertTrue(busy > 700, "busy=" + busy);
+        assertEquals(busy / 2, halved, 1.0);
+        assertEquals(0.0, DatabaseManager.getAverageWaitMillis(Pool.BIDS));
+    }
+
+    @Test
+    void la_navegacion_descartada_se_recupera_sin_pedir_conexiones() {
+        // Arrange: una ráfaga deja la espera media del catálogo por encima del umbral
+        DatabaseManager.setNanoClock(now::get);
+        AdmissionController admission = AdmissionController.fromEnv();
+        for (int i = 0; i < 20; i++) DatabaseManager.recordWait(Pool.CATALOG, 800_000_000L);
+        for (int i = 0; i < 20; i++) DatabaseManager.recordWait(Pool.ADMIN, 800_000_000L);
+
+        // Act
+        boolean browseDuringBurst = admission.tryAdmit(RouteClass.BROWSE);
+        boolean authDuringBurst = admission.tryAdmit(RouteClass.AUTH);
+        now.addAndGet(5_000_000_000L); // sin tráfico a esos pools
+        boolean browseAfter = admission.tryAdmit(RouteClass.BROWSE);
+        boolean authAfter = admission.tryAdmit(RouteClass.AUTH);
+
+        // Assert
+        assertFalse(browseDuringBurst);
+        assertFalse(authDuringBurst);
+        assertTrue(browseAfter);
+        assertTrue(authAfter);
+        assertTrue(admission.tryAdmit(RouteClass.BID));
+    }
+}
@@ -0,0 +1,63 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadPoolTest {
+
+    @Test
+    void tras_start_dispatching_las_tareas_van_al_ejecutor_virtual() throws Exception {
+        // Arrange
+        List<Runnable> dispatched = new ArrayList<>();
+        VirtualThreadPool pool = new VirtualThreadPool(4, dispatched::add);
+        pool.start();
+        try {
+            CountDownLatch ranOnPlatform = new CountDownLatch(1);
+
+            // Act
+            pool.execute(ranOnPlatform::countDown);
+            pool.startDispatching();
+            pool.execute(() -> { });
+
+            // Assert
+            assertTrue(ranOnPlatform.await(2, TimeUnit.SECONDS));
+            assertEquals(1, dispatched.size());
+            assertFalse(pool.tryExecute(() -> { }));
+            assertFalse(pool.isLowOnThreads());
+        } finally {
+            pool.stop();
+        }
+    }
+
+    @Test
+    void la_fabrica_virtual_solo_existe_desde_java_21() {
+        // Act & Assert
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreadPool.virtualThreadFactory("t-") != null);
+    }
+
+    @Test
+    void la_puerta_libera_el_permiso_una_sola_vez_al_cerrar() throws Exception {
+        // Arrange
+        ConnectionGate gate = new ConnectionGate(1);
+        assertTrue(gate.acquire(10));
+
+        // Act
+        Connection conn = gate.wrap(DriverManager.getConnection("jdbc:h2:mem:gate"));
+        boolean blockedWhileOpen = !gate.acquire(10);
+        conn.close();
+        conn.close();
+
+        // Assert
+        assertTrue(blockedWhileOpen);
+        assertTrue(conn.isClosed());
+        assertEquals(1, gate.availablePermits());
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.example.controller.AdmissionController.RouteClass;
+import org.junit.jupiter.api.Test;
+
+class AdmissionControllerTest {
+
+    @Test
+    void clasifica_rutas_por_prioridad() {
+        assertEquals(RouteClass.BID, AdmissionController.classify("POST", "/api/offers"));
+        assertEquals(RouteClass.AUTH, AdmissionController.classify("POST", "/login"));
+        assertEquals(RouteClass.BROWSE, AdmissionController.classify("GET", "/api/items"));
+        assertEquals(RouteClass.ADMIN, AdmissionController.classify("DELETE", "/api/items/1"));
+        assertEquals(RouteClass.OPS, AdmissionController.classify("GET", "/health"));
+    }
+
+    @Test
+    void rechaza_por_encima_del_limite_y_libera_huecos() {
+        // Arrange
+        AdmissionController admission = new AdmissionController(1, 1, 2, 1, c -> false);
+
+        // Act & Assert
+        assertTrue(admission.tryAdmit(RouteClass.BROWSE));
+        assertTrue(admission.tryAdmit(RouteClass.BROWSE));
+        assertFalse(admission.tryAdmit(RouteClass.BROWSE));
+        admission.release(RouteClass.BROWSE);
+        assertTrue(admission.tryAdmit(RouteClass.BROWSE));
+        assertEquals(1L, admission.getStats().get("browse").get("shed"));
+    }
+
+    @Test
+    void bajo_presion_descarta_navegacion_pero_no_pujas() {
+        // Arrange
+        AtomicBoolean pressure = new AtomicBoolean(true);
+        AdmissionController admission = new AdmissionController(4, 4, 4, 4,
+                c -> pressure.get() && c != RouteClass.BID);
+
+        // Act & Assert
+        assertFalse(admission.tryAdmit(RouteClass.BROWSE));
+        assertTrue(admission.tryAdmit(RouteClass.BID));
+        assertTrue(admission.tryAdmit(RouteClass.OPS));
+        pressure.set(false);
+        assertTrue(admission.tryAdmit(RouteClass.BROWSE));
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.controller;
+
+import static org.mockito.Mockito.*;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+import spark.Request;
+import spark.Response;
+
+class CompressionTest {
+
+    private static Response response(String body, int status) {
+        Response res = mock(Response.class);
+        HttpServletResponse raw = mock(HttpServletResponse.class);
+        when(res.raw()).thenReturn(raw);
+        when(res.body()).thenReturn(body);
+        when(res.status()).thenReturn(status);
+        return res;
+    }
+
+    @Test
+    void marca_gzip_si_el_cuerpo_supera_el_umbral_y_el_cliente_lo_acepta() {
+        // Arrange
+        Compression compression = new Compression(10);
+        Request req = mock(Request.class);
+        when(req.headers("Accept-Encoding")).thenReturn("gzip, deflate, br");
+        Response res = response("[{\"id\":\"item1\"}]", 200);
+
+        // Act
+        compression.compressLarge(req, res);
+
+        // Assert
+        verify(res.raw()).setHeader("Content-Encoding", "gzip");
+        verify(res.raw()).addHeader("Vary", "Accept-Encoding");
+    }
+
+    @Test
+    void no_comprime_cuerpos_pequenos_ni_clientes_sin_gzip() {
+        // Arrange
+        Compression compression = new Compression(10);
+        Request gzipClient = mock(Request.class);
+        when(gzipClient.headers("Accept-Encoding")).thenReturn("gzip");
+        Request plainClient = mock(Request.class);
+        Response small = response("{}", 200);
+        Response large = response("[{\"id\":\"item1\"}]", 200);
+
+        // Act
+        compression.compressLarge(gzipClient, small);
+        compression.compressLarge(plainClient, large);
+
+        // Assert
+        verify(small.raw(), never()).setHeader(eq("Content-Encoding"), anyString());
+        verify(large.raw(), never()).setHeader(eq("Content-Encoding"), anyString());
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.example.repository.DegradedReads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import spark.Request;
+import spark.Response;
+
+class EntityTagsTest {
+
+    @AfterEach
+    void limpiar() {
+        DegradedReads.reset();
+    }
+
+    /** Request simulada con atributos reales */
+    private static Request request(String ifNoneMatch) {
+        Request req = mock(Request.class);
+        Map<String, Object> attributes = new HashMap<>();
+        when(req.headers("If-None-Match")).thenReturn(ifNoneMatch);
+        doAnswer(inv -> attributes.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(req).attribute(anyString(), any());
+        when(req.attribute(anyString())).thenAnswer(inv -> attributes.get(inv.getArgument(0)));
+        return req;
+    }
+
+    @Test
+    void responde_304_antes_de_leer_los_datos_si_la_version_coincide() {
+        // Arrange
+        Request req = request("\"otra\", " + EntityTags.tag(42));
+        Response res = mock(Response.class);
+
+        // Act
+        boolean notModified = EntityTags.notModified(req, res, 42);
+
+        // Assert
+        assertTrue(notModified);
+        verify(res).header("ETag", EntityTags.tag(42));
+        verify(res).status(304);
+    }
+
+    @Test
+    void con_otra_version_el_cuerpo_completo_lleva_la_etag_leida_antes() {
+        // Arrange
+        Request req = request(EntityTags.tag(41));
+        Response res = mock(Response.class);
+
+        // Act
+        boolean notModified = EntityTags.notModified(req, res, 42);
+        String out = EntityTags.respond(req, res, "[]");
+
+        // Assert
+        assertFalse(notModified);
+        assertEquals("[]", out);
+        verify(res).header("ETag", EntityTags.tag(42));
+        verify(res, never()).status(304);
+        assertTrue(EntityTags.matches("W/" + EntityTags.tag(7), EntityTags.tag(7)));
+        assertTrue(EntityTags.matches("*", EntityTags.tag(7)));
+    }
+
+    @Test
+    void sin_version_o_con_datos_de_respaldo_no_emite_etag() {
+        // Arrange
+        Request unknown = request("*");
+        Request degraded = request(null);
+        Response res = mock(Response.class);
+
+        // Act
+        boolean unknownNotModified = EntityTags.notModified(unknown, res, -1);
+        EntityTags.respond(unknown, res, "[]");
+        EntityTags.notModified(degraded, res, 42);
+        DegradedReads.mark();
+        EntityTags.respond(degraded, res, "[]");
+
+        // Assert
+        assertFalse(unknownNotModified);
+        verify(res, never()).header(eq("ETag"), anyString());
+        verify(res, never()).status(304);
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.example.repository.DegradedReads;
+import org.junit.jupiter.api.Test;
+import spark.QueryParamsMap;
+import spark.Request;
+import spark.Response;
+
+class PageCacheTest {
+
+    @Test
+    void la_clave_ignora_el_orden_y_los_parametros_vacios() {
+        // Act
+        String a = PageCache.key("/items", Map.of("q", new String[]{"guitarra"}, "minPrice", new String[]{""}));
+        String b = PageCache.key("/items", Map.of("q", new String[]{" guitarra "}));
+        String c = PageCache.key("/items", Map.of("maxPrice", new String[]{"10"}, "q", new String[]{"guitarra"}));
+        String d = PageCache.key("/items", Map.of("q", new String[]{"guitarra"}, "maxPrice", new String[]{"10"}));
+
+        // Assert
+        assertEquals(a, b);
+        assertEquals(c, d);
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    void la_clave_ignora_los_parametros_que_no_son_filtros() {
+        // Act
+        String plain = PageCache.key("/items", Map.of("q", new String[]{"guitarra"}));
+        String noisy = PageCache.key("/items", Map.of("q", new String[]{"guitarra"}, "x", new String[]{"8f3a1c"}));
+
+        // Assert
+        assertEquals(plain, noisy);
+    }
+
+    @Test
+    void la_pagina_caduca_tras_el_ttl() {
+        // Arrange
+        AtomicLong now = new AtomicLong(0);
+        PageCache cache = new PageCache(() -> 0, req -> true, 10, 1000, now::get);
+        cache.store("/items?", 1, "<html>v1</html>");
+
+        // Act
+        now.set(999);
+        PageCache.Page fresh = cache.lookup("/items?", 1);
+        now.set(1000);
+        PageCache.Page expired = cache.lookup("/items?", 1);
+
+        // Assert
+        assertNotNull(fresh);
+        assertNull(expired);
+    }
+
+    @Test
+    void no_guarda_una_pagina_renderizada_con_datos_de_respaldo() throws Exception {
+        // Arrange
+        PageCache cache = new PageCache(() -> 0, req -> true, 10, 5000, () -> 0);
+        Request req = mock(Request.class);
+        QueryParamsMap query = mock(QueryParamsMap.class);
+        when(req.pathInfo()).thenReturn("/items");
+        when(req.queryMap()).thenReturn(query);
+        when(query.toMap()).thenReturn(Map.of());
+        Response res = mock(Response.class);
+        when(res.status()).thenReturn(200);
+        HttpServletResponse raw = mock(HttpServletResponse.class);
+        when(res.raw()).thenReturn(raw);
+        when(raw.getOutputStream()).thenReturn(mock(ServletOutputStream.class));
+
+        // Act
+        Object degraded = cache.serve(req, res, () -> {
+            DegradedReads.mark();
+            return "<html>respaldo</html>";
+        });
+        PageCache.Page afterDegraded = cache.lookup("/items?", 0);
+        cache.serve(req, res, () -> "<html>actual</html>");
+        PageCache.Page afterFresh = cache.lookup("/items?", 0);
+
+        // Assert
+        assertEquals("<html>respaldo</html>", degraded);
+        assertNull(afterDegraded);
+        assertNotNull(afterFresh);
+        DegradedReads.reset();
+    }
+
+    @Test
+    void una_nueva_version_del_catalogo_invalida_la_pagina() {
+        // Arrange
+        PageCache cache = new PageCache(() -> 0, req -> true, 10, 5000, () -> 0);
+        cache.store("/items?", 1, "<html>v1</html>");
+
+        // Act & Assert
+        assertNotNull(cache.lookup("/items?", 1));
+        assertNull(cache.lookup("/items?", 2));
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void guarda_la_variante_gzip_y_no_pisa_una_version_mas_nueva() throws Exception {
+        // Arrange
+        PageCache cache = new PageCache(() -> 0, req -> true, 10, 5000, () -> 0);
+        cache.store("/items/item1?", 5, "<html>nueva</html>");
+
+        // Act
+        cache.store("/items/item1?", 4, "<html>vieja</html>");
+        PageCache.Page page = cache.lookup("/items/item1?", 5);
+
+        // Assert
+        assertNotNull(page);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(page.gzip))) {
+            assertEquals("<html>nueva</html>", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.net.HttpCookie;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpSession;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.UpgradeRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PriceUpdateWebSocketTest {
+
+    private final PriceUpdateWebSocket socket = new PriceUpdateWebSocket();
+    private final List<Session> opened = new ArrayList<>();
+
+    @BeforeEach
+    void resolverEmails() {
+        PriceUpdateWebSocket.setUserEmailResolver(id -> Map.of("u-victima", "Victima@x.com", "u-7", "siete@x.com").get(id));
+    }
+
+    @AfterEach
+    void cerrar() {
+        for (Session session : opened) socket.onClose(session, 1000, "fin");
+        PriceUpdateWebSocket.setSessionTokenVerifier(null, null);
+        PriceUpdateWebSocket.setUserEmailResolver(null);
+    }
+
+    @Test
+    void una_sesion_anonima_no_recibe_el_aviso_privado_de_otro_usuario() throws Exception {
+        // Arrange
+        Session victim = connect("u-victima", Map.of());
+        Session attacker = connect(null, Map.of("email", List.of("victima@x.com"), "userId", List.of("u-victima")));
+        socket.onMessage(attacker, "{\"type\":\"identify\",\"email\":\"victima@x.com\",\"userId\":\"u-victima\"}");
+
+        // Act
+        int sent = PriceUpdateWebSocket.notifyOutbid("victima@x.com", "item-1", "$10.00 USD");
+
+        // Assert
+        assertEquals(1, sent);
+        verify(victim.getRemote()).sendString(contains("\"outbid\""));
+        verify(attacker.getRemote(), never()).sendString(contains("\"outbid\""));
+    }
+
+    @Test
+    void identifica_la_sesion_por_la_cookie_firmada() throws Exception {
+        // Arrange
+        PriceUpdateWebSocket.setSessionTokenVerifier("SID", token -> token.equals("valido") ? "u-7" : null);
+        Session forged = connectWithCookie("falso");
+        Session signed = connectWithCookie("valido");
+
+        // Act
+        int sent = PriceUpdateWebSocket.notifyOutbid("siete@x.com", "item-1", "$10.00 USD");
+
+        // Assert
+        assertEquals(1, sent);
+        verify(signed.getRemote()).sendString(contains("\"outbid\""));
+        verify(forged.getRemote(), never()).sendString(contains("\"outbid\""));
+    }
+
+    @Test
+    void una_sesion_retirada_en_la_difusion_sale_tambien_del_indice_de_usuarios() throws Exception {
+        // Arrange: conexión rota de la que nunca llegará onClose
+        Session broken = connect("u-victima", Map.of());
+        RemoteEndpoint remote = broken.getRemote();
+        doThrow(new IOException("broken pipe")).when(remote).sendString(anyString());
+        int indexedBefore = PriceUpdateWebSocket.getIndexedSessionCount();
+
+        // Act
+        PriceUpdateWebSocket.notifyPriceChange("item-1", "$10.00 USD");
+
+        // Assert
+        assertEquals(indexedBefore - 1, PriceUpdateWebSocket.getIndexedSessionCount());
+        assertEquals(0, PriceUpdateWebSocket.notifyOutbid("victima@x.com", "item-1", "$10.00 USD"));
+    }
+
+    private Session connect(String userId, Map<String, List<String>> params) {
+        UpgradeRequest upgrade = mock(UpgradeRequest.class);
+        when(upgrade.getParameterMap()).thenReturn(params);
+        if (userId != null) {
+            HttpSession httpSession = mock(HttpSession.class);
+            when(httpSession.getAttribute("userId")).thenReturn(userId);
+            when(upgrade.getSession()).thenReturn(httpSession);
+        }
+        return open(upgrade);
+    }
+
+    private Session connectWithCookie(String token) {
+        UpgradeRequest upgrade = mock(UpgradeRequest.class);
+        when(upgrade.getCookies()).thenReturn(List.of(new HttpCookie("SID", token)));
+        return open(upgrade);
+    }
+
+    private Session open(UpgradeRequest upgrade) {
+        Session session = mock(Session.class);
+        RemoteEndpoint remote = mock(RemoteEndpoint.class);
+        when(session.getUpgradeRequest()).thenReturn(upgrade);
+        when(session.getRemote()).thenReturn(remote);
+        when(session.isOpen()).thenReturn(true);
+        socket.onConnect(session);
+        opened.add(session);
+        return session;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class StaticAssetsTest {
+
+    @Test
+    void publica_los_estaticos_con_la_huella_de_su_contenido() {
+        // Act
+        StaticAssets assets = new StaticAssets("/public");
+
+        // Assert
+        assertTrue(assets.urls().get("script").matches("/assets/script\\.[0-9a-f]{10}\\.js"));
+        assertTrue(assets.urls().get("styles").matches("/assets/styles\\.[0-9a-f]{10}\\.css"));
+    }
+
+    @Test
+    void la_huella_cambia_con_el_contenido() {
+        // Act
+        String a = StaticAssets.fingerprint("body { color: red; }".getBytes(StandardCharsets.UTF_8));
+        String b = StaticAssets.fingerprint("body { color: blue; }".getBytes(StandardCharsets.UTF_8));
+
+        // Assert
+        assertEquals(a, StaticAssets.fingerprint("body { color: red; }".getBytes(StandardCharsets.UTF_8)));
+        assertNotEquals(a, b);
+    }
+}
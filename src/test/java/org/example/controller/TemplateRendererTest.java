@@ -0,0 +1,64 @@
+package org.example.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.example.model.Item;
+import org.junit.jupiter.api.Test;
+
+class TemplateRendererTest {
+
+    @Test
+    void reutiliza_el_fragmento_mientras_no_cambie_la_version() {
+        // Arrange
+        TemplateRenderer renderer = new TemplateRenderer("templates", 10);
+        Item item = new Item("item1", "Guitarra", "Fender", "$100.00 USD");
+        String version = TemplateRenderer.itemVersion(item.getName(), item.getDescription(), item.getPrice());
+
+        // Act
+        String first = renderer.fragment("item-card.mustache", item.getId(), version, item);
+        String second = renderer.fragment("item-card.mustache", item.getId(), version, item);
+
+        // Assert
+        assertSame(first, second);
+        assertTrue(first.contains("$100.00 USD"));
+        assertEquals(1L, renderer.getStats().get("hits"));
+        assertEquals(1L, renderer.getStats().get("misses"));
+    }
+
+    @Test
+    void un_cambio_de_precio_vuelve_a_renderizar_el_fragmento() {
+        // Arrange
+        TemplateRenderer renderer = new TemplateRenderer("templates", 10);
+        Item item = new Item("item1", "Guitarra", "Fender", "$100.00 USD");
+        renderer.fragment("item-card.mustache", item.getId(),
+                TemplateRenderer.itemVersion(item.getName(), item.getDescription(), item.getPrice()), item);
+
+        // Act
+        item.setPrice("$150.00 USD");
+        String html = renderer.fragment("item-card.mustache", item.getId(),
+                TemplateRenderer.itemVersion(item.getName(), item.getDescription(), item.getPrice()), item);
+
+        // Assert
+        assertTrue(html.contains("$150.00 USD"));
+        assertEquals(2L, renderer.getStats().get("misses"));
+        assertEquals(1, renderer.getStats().get("fragments"));
+    }
+
+    @Test
+    void la_pagina_inserta_los_fragmentos_sin_escaparlos_de_nuevo() {
+        // Arrange
+        TemplateRenderer renderer = new TemplateRenderer("templates", 10);
+        Item item = new Item("item1", "<b>Guitarra</b>", "Fender", "$100.00 USD");
+        String card = renderer.fragment("item-card.mustache", item.getId(), "v1", item);
+
+        // Act
+        String page = renderer.render("items-list.mustache", Map.of("cards", List.of(card)));
+
+        // Assert
+        assertTrue(page.contains("&lt;b&gt;Guitarra&lt;/b&gt;"));
+        assertTrue(page.contains("data-item-id=\"item1\""));
+    }
+}
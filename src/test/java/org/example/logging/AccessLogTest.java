@@ -0,0 +1,26 @@
+package org.example.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class AccessLogTest {
+
+    @Test
+    void muestrea_las_correctas_pero_registra_siempre_errores_y_lentas() {
+        // Arrange
+        AccessLog log = new AccessLog(10, 500);
+        int logged = 0;
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            if (log.shouldLog(200, 1_000_000)) logged++;
+        }
+
+        // Assert
+        assertEquals(10, logged);
+        assertTrue(log.shouldLog(503, 1_000_000));
+        assertTrue(log.shouldLog(404, 0));
+        assertTrue(log.shouldLog(200, 600_000_000L));
+    }
+}
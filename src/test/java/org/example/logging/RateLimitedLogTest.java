@@ -0,0 +1,26 @@
+package org.example.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class RateLimitedLogTest {
+
+    @Test
+    void deja_pasar_un_aviso_por_intervalo_y_cuenta_los_omitidos() {
+        // Arrange
+        AtomicLong now = new AtomicLong(0);
+        RateLimitedLog log = new RateLimitedLog(1000, now::get);
+
+        // Act & Assert
+        assertEquals(0, log.tryAcquire());
+        assertEquals(-1, log.tryAcquire());
+        assertEquals(-1, log.tryAcquire());
+        now.set(999_000_000L);
+        assertEquals(-1, log.tryAcquire());
+        now.set(1_000_000_000L);
+        assertEquals(3, log.tryAcquire());
+    }
+}
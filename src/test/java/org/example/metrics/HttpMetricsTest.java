@@ -0,0 +1,68 @@
+package org.example.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+import spark.Request;
+import spark.Response;
+import spark.route.HttpMethod;
+import spark.routematch.RouteMatch;
+
+class HttpMetricsTest {
+
+    private static RouteMatch route(HttpMethod method, String pattern) {
+        return new RouteMatch(null, pattern, pattern, "*/*", method);
+    }
+
+    @Test
+    void resuelve_la_ruta_al_patron_de_spark() {
+        // Arrange
+        HttpMetrics metrics = new HttpMetrics();
+        metrics.registerRoutes(List.of(
+                route(HttpMethod.before, "+/*paths"),
+                route(HttpMethod.get, "/items/:id"),
+                route(HttpMethod.get, "/status/:name"),
+                route(HttpMethod.get, "/status/pools"),
+                route(HttpMethod.patch, "/api/items/:id/price")));
+
+        // Act & Assert
+        assertEquals("/items/:id", metrics.resolve("GET", "/items/item1").route);
+        assertEquals("/items/:id", metrics.resolve("HEAD", "/items/item1/").route);
+        assertEquals("/status/pools", metrics.resolve("GET", "/status/pools").route);
+        assertEquals("/api/items/:id/price", metrics.resolve("PATCH", "/api/items/x/price").route);
+        assertEquals("other", metrics.resolve("GET", "/items").route);
+        assertEquals("other", metrics.resolve("POST", "/items/item1").route);
+    }
+
+    @Test
+    void registra_latencia_tiempo_en_bd_y_codigo() {
+        // Arrange
+        HttpMetrics metrics = new HttpMetrics();
+        metrics.registerRoutes(List.of(route(HttpMethod.get, "/api/items/:id")));
+        Request req = mock(Request.class);
+        when(req.requestMethod()).thenReturn("GET");
+        when(req.pathInfo()).thenReturn("/api/items/item1");
+        Response res = mock(Response.class);
+        HttpServletResponse raw = mock(HttpServletResponse.class);
+        when(res.raw()).thenReturn(raw);
+        when(raw.getStatus()).thenReturn(404);
+
+        // Act
+        metrics.start(req, res);
+        HttpMetrics.recordDbTime(2_000_000);
+        metrics.finish(req, res);
+        PrometheusText out = new PrometheusText();
+        metrics.writeTo(out);
+
+        // Assert
+        String text = out.toString();
+        assertTrue(text.contains("http_requests_total{method=\"GET\",route=\"/api/items/:id\",code=\"4xx\"} 1"));
+        assertTrue(text.contains("http_request_db_seconds_count{method=\"GET\",route=\"/api/items/:id\"} 1"));
+        assertTrue(text.contains("http_requests_in_flight{method=\"GET\",route=\"/api/items/:id\"} 0"));
+    }
+}
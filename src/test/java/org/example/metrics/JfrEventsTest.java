@@ -0,0 +1,83 @@
+package org.example.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+class JfrEventsTest {
+
+    @Test
+    void registra_los_campos_de_puja_y_broadcast_en_la_grabacion() throws Exception {
+        // Arrange
+        Path file = Files.createTempFile("eventos", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(BidEvent.class);
+            recording.enable(BroadcastEvent.class);
+            recording.start();
+
+            // Act
+            BidEvent bid = new BidEvent();
+            bid.begin();
+            bid.commit("item-1", BidEvent.ACCEPTED);
+            BroadcastEvent broadcast = new BroadcastEvent();
+            broadcast.begin();
+            broadcast.commit(3, 1, "{\"precio\":\"€\"}");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.deleteIfExists(file);
+        RecordedEvent recordedBid = find(events, "org.example.Bid");
+        assertEquals("item-1", recordedBid.getString("itemId"));
+        assertEquals("accepted", recordedBid.getString("outcome"));
+        RecordedEvent recordedBroadcast = find(events, "org.example.PriceBroadcast");
+        assertEquals(3, recordedBroadcast.getInt("recipients"));
+        assertEquals(1, recordedBroadcast.getInt("failures"));
+        assertEquals(16, recordedBroadcast.getLong("bytes")); // '€' ocupa 3 bytes
+    }
+
+    @Test
+    void no_registra_los_eventos_deshabilitados_en_la_grabacion() throws Exception {
+        // Arrange
+        Path file = Files.createTempFile("eventos", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(JdbcWorkEvent.class);
+            recording.disable(CacheLookupEvent.class);
+            recording.start();
+
+            // Act
+            CacheLookupEvent lookup = new CacheLookupEvent();
+            lookup.begin();
+            lookup.commit("pages", true);
+            JdbcWorkEvent work = new JdbcWorkEvent();
+            work.begin();
+            work.commit("catalog", false);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.deleteIfExists(file);
+        assertTrue(events.stream().noneMatch(e -> e.getEventType().getName().equals("org.example.CacheLookup")));
+        RecordedEvent recordedWork = find(events, "org.example.JdbcWork");
+        assertEquals("catalog", recordedWork.getString("pool"));
+        assertFalse(recordedWork.getBoolean("success"));
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Falta el evento " + name));
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void cada_valor_cae_en_una_cubeta_que_lo_contiene() {
+        // Act & Assert
+        for (long v = 0; v < 5_000_000; v = v * 2 + 7) {
+            int i = LatencyHistogram.index(v);
+            long upper = LatencyHistogram.upperBound(i);
+            long lower = i == 0 ? 0 : LatencyHistogram.upperBound(i - 1);
+            assertTrue(lower <= v && v < upper, "valor " + v + " fuera de [" + lower + ", " + upper + ")");
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE >>> 27));
+    }
+
+    @Test
+    void los_percentiles_tienen_error_relativo_acotado() {
+        // Arrange
+        LatencyHistogram h = new LatencyHistogram();
+
+        // Act
+        for (int i = 1; i <= 1000; i++) h.recordMicros(i * 100L); // 0,1 ms .. 100 ms
+
+        // Assert
+        assertEquals(1000, h.count());
+        long p50 = h.valueAtQuantile(0.5);
+        long p99 = h.valueAtQuantile(0.99);
+        assertTrue(p50 >= 50_000 && p50 <= 50_000 * 1.125, "p50=" + p50);
+        assertTrue(p99 >= 99_000 && p99 <= 99_000 * 1.125, "p99=" + p99);
+        assertEquals(1000, h.countAtOrBelow(200_000));
+        assertTrue(h.countAtOrBelow(1_000) <= 10);
+    }
+
+    @Test
+    void un_histograma_vacio_devuelve_cero() {
+        // Act & Assert
+        assertEquals(0, new LatencyHistogram().valueAtQuantile(0.99));
+    }
+}
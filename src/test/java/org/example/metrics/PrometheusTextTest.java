@@ -0,0 +1,84 @@
+package org.example.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class PrometheusTextTest {
+
+    private static List<Long> buckets(String text) {
+        List<Long> values = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            if (line.startsWith("lat_bucket")) values.add(Long.parseLong(line.substring(line.lastIndexOf(' ') + 1)));
+        }
+        return values;
+    }
+
+    @Test
+    void histograma_exporta_cubetas_acumuladas_sin_percentiles() {
+        // Arrange
+        LatencyHistogram h = new LatencyHistogram();
+        h.recordMicros(500);       // 0,5 ms
+        h.recordMicros(20_000);    // 20 ms
+        h.recordMicros(30_000_000); // 30 s, por encima de la última cubeta finita
+
+        // Act
+        String text = new PrometheusText().histogram("lat", new String[] {"route", "/x"}, h).toString();
+
+        // Assert
+        List<Long> values = buckets(text);
+        assertEquals(PrometheusText.BUCKETS_SECONDS.length + 1, values.size());
+        assertEquals(1, values.get(0));
+        assertEquals(2, values.get(PrometheusText.BUCKETS_SECONDS.length - 1));
+        assertTrue(text.contains("lat_bucket{route=\"/x\",le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("lat_count{route=\"/x\"} 3\n"));
+        assertFalse(text.contains("quantile"));
+    }
+
+    @Test
+    void cada_serie_le_cuenta_las_muestras_justo_por_debajo_de_su_limite() {
+        // Arrange: una muestra 1 µs por debajo de cada límite exportado
+        LatencyHistogram h = new LatencyHistogram();
+        for (long edge : PrometheusText.BUCKET_EDGES_MICROS) h.recordMicros(edge - 1);
+
+        // Act
+        String text = new PrometheusText().histogram("lat", new String[0], h).toString();
+
+        // Assert
+        List<Long> values = buckets(text);
+        for (int i = 0; i < PrometheusText.BUCKET_EDGES_MICROS.length; i++) {
+            assertEquals(i + 1, values.get(i), "le=" + PrometheusText.BUCKET_EDGES_MICROS[i]);
+            assertTrue(PrometheusText.BUCKET_EDGES_MICROS[i] >= PrometheusText.BUCKETS_SECONDS[i] * 1_000_000);
+        }
+        assertTrue(text.contains("lat_bucket{le=\"0.001024\"} 1\n"));
+    }
+
+    @Test
+    void inf_nunca_queda_por_debajo_de_una_cubeta_con_escrituras_concurrentes() throws Exception {
+        // Arrange
+        LatencyHistogram h = new LatencyHistogram();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            long v = 0;
+            while (running.get()) h.recordMicros(v++ % 2_000);
+        });
+        writer.start();
+
+        // Act & Assert
+        try {
+            for (int round = 0; round < 500; round++) {
+                List<Long> values = buckets(new PrometheusText().histogram("lat", new String[0], h).toString());
+                for (int i = 1; i < values.size(); i++) {
+                    assertTrue(values.get(i) >= values.get(i - 1), "cubetas no acumuladas: " + values);
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+}
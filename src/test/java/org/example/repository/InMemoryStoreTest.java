@@ -0,0 +1,149 @@
+package org.example.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.example.model.Item;
+import org.example.model.Offer;
+import org.example.model.User;
+import org.example.service.UserService;
+import org.example.service.UserService.InsertResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InMemoryStoreTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void ofertas_ordenadas_por_monto_y_con_id_generado() {
+        // Arrange
+        InMemoryStore store = new InMemoryStore(null, 0);
+        Offer low = new Offer("item1", "Ana", "ana@ex.com", 100.0);
+        Offer high = new Offer("item1", "Luis", "luis@ex.com", 250.0);
+        long before = store.items().catalogVersion();
+
+        // Act
+        store.offers().insert(low);
+        store.offers().insert(high);
+        store.offers().insert(new Offer("item2", "Eva", "eva@ex.com", 999.0));
+
+        // Assert
+        assertTrue(store.items().catalogVersion() > before);
+        List<Offer> offers = store.offers().findByItemId("item1", true);
+        assertEquals(2, offers.size());
+        assertEquals(250.0, offers.get(0).getAmount());
+        assertNotNull(low.getDbId());
+        assertEquals(3, store.offers().findAll().size());
+    }
+
+    @Test
+    void usuarios_unicos_por_id_y_email() {
+        // Arrange
+        UserRepository users = new InMemoryStore(null, 0).users();
+        User user = new User("u1", "Ana", "ana@ex.com");
+        user.setPassword("hash");
+
+        // Act & Assert
+        assertEquals(InsertResult.CREATED, users.insertIfAbsent(user));
+        assertEquals(InsertResult.DUPLICATE_EMAIL, users.insertIfAbsent(new User("u2", "Otra", "ana@ex.com")));
+        assertEquals(InsertResult.DUPLICATE_ID, users.insertIfAbsent(new User("u1", "Otra", "otra@ex.com")));
+        assertEquals("hash", users.findByEmail("ana@ex.com").getPassword());
+        assertNull(users.findViewById("u1").getPassword());
+    }
+
+    @Test
+    void paginacion_por_cursor_recorre_todos_sin_repetir() {
+        // Arrange
+        AtomicLong now = new AtomicLong(1_000);
+        InMemoryUserRepository users = new InMemoryUserRepository(new AtomicLong(), now::get);
+        for (int i = 0; i < 5; i++) {
+            now.addAndGet(i % 2); // algunos usuarios comparten created_at
+            users.insertIfAbsent(new User("u" + i, "User " + i, "u" + i + "@ex.com"));
+        }
+
+        // Act
+        UserRepository.Slice first = users.findPage(null, null, 3);
+        UserRepository.Slice second = users.findPage(first.getLastCreatedAt(), first.getLastId(), 3);
+
+        // Assert
+        assertEquals(List.of("u4", "u3", "u2"), first.getRows().stream().map(r -> r.get("id")).toList());
+        assertTrue(first.hasMore());
+        assertEquals(List.of("u1", "u0"), second.getRows().stream().map(r -> r.get("id")).toList());
+        assertFalse(second.hasMore());
+    }
+
+    @Test
+    void recorrer_todas_las_paginas_con_created_at_empatados_no_repite_ni_omite() {
+        // Arrange: 23 usuarios repartidos en solo 3 instantes distintos
+        AtomicLong now = new AtomicLong(1_000);
+        InMemoryUserRepository users = new InMemoryUserRepository(new AtomicLong(), now::get);
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 23; i++) {
+            if (i % 8 == 0) now.addAndGet(1);
+            users.insertIfAbsent(new User("u" + i, "User " + i, "u" + i + "@ex.com"));
+            expected.add("u" + i);
+        }
+        UserService service = new UserService(users);
+
+        // Act
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            UserService.UserPage page = service.listPage(cursor, 4);
+            page.getUsers().forEach(r -> seen.add(r.get("id")));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(6, pages);
+        assertEquals(23, seen.size());
+        assertEquals(expected, new HashSet<>(seen));
+    }
+
+    @Test
+    void busqueda_respeta_el_limite_y_ordena_por_nombre() {
+        // Arrange
+        UserRepository users = new InMemoryStore(null, 0).users();
+        for (String name : List.of("Carla", "Ana", "Bruno", "Zoe")) {
+            users.insertIfAbsent(new User(name, name, name.toLowerCase() + "@ex.com"));
+        }
+
+        // Act
+        List<User> found = users.search(" EX.COM ", 3);
+
+        // Assert
+        assertEquals(List.of("Ana", "Bruno", "Carla"), found.stream().map(User::getName).toList());
+    }
+
+    @Test
+    void snapshot_restaura_el_estado_al_reabrir() throws Exception {
+        // Arrange
+        Path file = tmp.resolve("store.json");
+        InMemoryStore store = new InMemoryStore(file, 0);
+        store.items().insert(new Item("i1", "Gorra", "Roja", "$10.00 USD"));
+        store.items().updatePrice("i1", "$12.00 USD");
+        store.offers().insert(new Offer("i1", "Ana", "ana@ex.com", 12.0));
+        store.users().insertIfAbsent(new User("u1", "Ana", "ana@ex.com"));
+
+        // Act
+        store.close();
+        InMemoryStore reopened = new InMemoryStore(file, 0);
+
+        // Assert
+        assertEquals("$12.00 USD", reopened.items().findById("i1", false).getPrice());
+        assertEquals(1, reopened.offers().findByItemId("i1", false).size());
+        assertTrue(reopened.users().exists("u1"));
+        reopened.offers().insert(new Offer("i1", "Luis", "luis@ex.com", 20.0));
+        assertEquals(2L, reopened.offers().findByItemId("i1", false).get(0).getDbId());
+    }
+}
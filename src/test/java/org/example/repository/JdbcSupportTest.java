@@ -0,0 +1,107 @@
+package org.example.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.model.Item;
+import org.example.model.User;
+import org.example.service.ServiceBusyException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class JdbcSupportTest {
+
+    private static Connection conn;
+
+    @BeforeAll
+    static void setupDb() throws Exception {
+        conn = DriverManager.getConnection("jdbc:h2:mem:jdbcsupport;DB_CLOSE_DELAY=-1");
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE items (id VARCHAR(50) PRIMARY KEY, name VARCHAR(200), "
+                    + "description TEXT, price VARCHAR(50))");
+            st.execute("CREATE TABLE users (id VARCHAR(50) PRIMARY KEY, name VARCHAR(200), "
+                    + "email VARCHAR(200), password VARCHAR(200))");
+            for (int i = 0; i < 25; i++) {
+                st.execute("INSERT INTO items VALUES ('i" + i + "', 'Item " + i + "', 'desc', '$" + i + ".00 USD')");
+            }
+            st.execute("INSERT INTO users VALUES ('u1', 'Ana', 'ana@ex.com', 'hash')");
+        }
+    }
+
+    @AfterAll
+    static void teardown() throws Exception {
+        if (conn != null) conn.close();
+    }
+
+    @Test
+    void mapea_por_nombre_de_columna_en_cualquier_orden() throws Exception {
+        // Act: columnas en orden distinto al de la tabla
+        Item item = JdbcSupport.queryOne(conn, "SELECT price, description, name, id FROM items WHERE id = ?",
+                ps -> ps.setString(1, "i3"), JdbcItemRepository.ITEM);
+
+        // Assert
+        assertEquals("i3", item.getId());
+        assertEquals("Item 3", item.getName());
+        assertEquals("$3.00 USD", item.getPrice());
+    }
+
+    @Test
+    void stream_entrega_todas_las_filas_y_restaura_autocommit() throws Exception {
+        // Arrange
+        List<String> ids = new ArrayList<>();
+
+        // Act
+        JdbcSupport.stream(conn, "SELECT id, name, description, price FROM items ORDER BY id",
+                JdbcSupport.Binder.NONE, JdbcItemRepository.ITEM, it -> ids.add(it.getId()));
+
+        // Assert
+        assertEquals(25, ids.size());
+        assertTrue(conn.getAutoCommit());
+    }
+
+    @Test
+    void mapper_con_password_y_sin_filas() throws Exception {
+        // Act
+        User user = JdbcSupport.queryOne(conn, "SELECT id, name, email, password FROM users WHERE id = ?",
+                ps -> ps.setString(1, "u1"), JdbcUserRepository.WITH_PASSWORD);
+        User missing = JdbcSupport.queryOne(conn, "SELECT id, name, email FROM users WHERE id = ?",
+                ps -> ps.setString(1, "nope"), JdbcUserRepository.VIEW);
+
+        // Assert
+        assertEquals("hash", user.getPassword());
+        assertEquals("ana@ex.com", user.getEmail());
+        assertNull(missing);
+    }
+
+    @Test
+    void con_el_breaker_cerrado_un_pool_saturado_no_sirve_datos_de_respaldo() {
+        // Arrange
+        DegradedReads.reset();
+        ServiceBusyException busy = new ServiceBusyException("Servicio ocupado (catalog)", 1);
+
+        // Act
+        ServiceBusyException thrown = assertThrows(ServiceBusyException.class, () -> JdbcSupport.fallbackOrThrow(busy));
+
+        // Assert
+        assertSame(busy, thrown);
+        assertFalse(DegradedReads.occurred());
+    }
+
+    @Test
+    void la_marca_de_lectura_degradada_se_reinicia_por_peticion() {
+        // Act
+        DegradedReads.mark();
+        boolean marked = DegradedReads.occurred();
+        DegradedReads.reset();
+
+        // Assert
+        assertTrue(marked);
+        assertFalse(DegradedReads.occurred());
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.example.DatabaseManager;
+import org.example.DatabaseManager.Pool;
+import org.example.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+class JdbcUserRepositoryTest {
+
+    private static final String URL = "jdbc:h2:mem:jdbcusers;DB_CLOSE_DELAY=-1";
+
+    private static Connection conn;
+    private MockedStatic<DatabaseManager> db;
+    private final JdbcUserRepository users = new JdbcUserRepository();
+
+    @BeforeAll
+    static void setupDb() throws Exception {
+        // 23 usuarios en solo 3 instantes distintos y uno con '%' en el nombre
+        conn = DriverManager.getConnection(URL);
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE users (id VARCHAR(50) PRIMARY KEY, name VARCHAR(200), "
+                    + "email VARCHAR(200), password VARCHAR(200), created_at TIMESTAMP)");
+            for (int i = 0; i < 23; i++) {
+                st.execute("INSERT INTO users VALUES ('u" + i + "', 'User " + i + "', 'u" + i + "@ex.com', 'hash', "
+                        + "TIMESTAMP '2026-10-19 08:00:00' + INTERVAL '" + (i / 8) + "' SECOND)");
+            }
+            st.execute("INSERT INTO users VALUES ('pct', 'Cien%', 'pct@otro.org', 'hash', TIMESTAMP '2026-01-01 00:00:00')");
+        }
+    }
+
+    @AfterAll
+    static void teardown() throws Exception {
+        if (conn != null) conn.close();
+    }
+
+    @BeforeEach
+    void mockPools() {
+        // Cada préstamo abre una conexión nueva a la misma BD H2
+        db = mockStatic(DatabaseManager.class);
+        db.when(() -> DatabaseManager.getConnection(any(Pool.class)))
+                .thenAnswer(inv -> DriverManager.getConnection(URL));
+    }
+
+    @AfterEach
+    void closeMock() {
+        db.close();
+    }
+
+    @Test
+    void pide_una_fila_extra_para_saber_si_hay_mas_paginas() {
+        // Act
+        UserRepository.Slice page = users.findPage(null, null, 24);
+        UserRepository.Slice full = users.findPage(null, null, 23);
+
+        // Assert
+        assertEquals(24, page.getRows().size());
+        assertFalse(page.hasMore());
+        assertEquals(23, full.getRows().size());
+        assertTrue(full.hasMore());
+    }
+
+    @Test
+    void recorrer_todas_las_paginas_con_created_at_empatados_no_repite_ni_omite() {
+        // Act
+        List<String> seen = new ArrayList<>();
+        UserRepository.Slice slice = users.findPage(null, null, 5);
+        slice.getRows().forEach(r -> seen.add(r.get("id")));
+        while (slice.hasMore()) {
+            slice = users.findPage(slice.getLastCreatedAt(), slice.getLastId(), 5);
+            slice.getRows().forEach(r -> seen.add(r.get("id")));
+        }
+
+        // Assert
+        assertEquals(24, seen.size());
+        assertEquals(24, new HashSet<>(seen).size());
+        assertEquals("u22", seen.get(0)); // (created_at, id) descendente
+        assertEquals("pct", seen.get(23));
+    }
+
+    @Test
+    void busqueda_respeta_el_limite_y_escapa_comodines() {
+        // Act
+        List<User> limited = users.search("EX.COM", 3);
+        List<User> literal = users.search("%", 10);
+
+        // Assert
+        assertEquals(3, limited.size());
+        assertEquals(List.of("pct"), literal.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void lecturas_van_al_pool_de_catalogo_y_autenticacion_al_de_administracion() {
+        // Act
+        users.findPage(null, null, 5);
+        users.search("ana", 5);
+        users.findViewById("u1");
+        User withPassword = users.findByEmail("u1@ex.com");
+
+        // Assert
+        assertEquals("hash", withPassword.getPassword());
+        db.verify(() -> DatabaseManager.getConnection(Pool.CATALOG), times(3));
+        db.verify(() -> DatabaseManager.getConnection(Pool.ADMIN));
+    }
+}
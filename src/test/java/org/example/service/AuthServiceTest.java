@@ -7,7 +7,6 @@ import org.example.model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -17,12 +16,14 @@ class AuthServiceTest {
     @Mock
     UserService userService;
 
-    @InjectMocks
+    /** Pocas iteraciones: PBKDF2 con las 210 000 de producción hace lentas las pruebas */
+    private final PasswordHasher hasher = new PasswordHasher(1, 4, 1000, 5000);
+
     AuthService authService;
 
     @BeforeEach
     void setUp() {
-        // Mock setup
+        authService = new AuthService(userService, hasher);
     }
 
     // ===== PRUEBAS DE REGISTRO (POSITIVAS) =====
@@ -30,9 +31,7 @@ class AuthServiceTest {
     @Test
     void registrar_usuario_valido_exitoso() {
         // Arrange
-        when(userService.exists("user1")).thenReturn(false);
-        when(userService.findByEmail("juan@example.com")).thenReturn(null);
-        doNothing().when(userService).add(any(User.class));
+        when(userService.insertIfAbsent(any(User.class))).thenReturn(UserService.InsertResult.CREATED);
 
         // Act
         User result = authService.register("user1", "Juan Pérez", "juan@example.com", "password123");
@@ -44,7 +43,7 @@ class AuthServiceTest {
         assertEquals("juan@example.com", result.getEmail());
         assertNotNull(result.getPassword());
         assertNotEquals("password123", result.getPassword()); // Password debe estar hasheado
-        verify(userService).add(any(User.class));
+        verify(userService).insertIfAbsent(any(User.class));
     }
 
     // ===== PRUEBAS DE REGISTRO (NEGATIVAS) =====
@@ -52,25 +51,24 @@ class AuthServiceTest {
     @Test
     void registrar_usuario_id_duplicado_lanza_excepcion() {
         // Arrange
-        when(userService.exists("user1")).thenReturn(true);
+        when(userService.insertIfAbsent(any(User.class))).thenReturn(UserService.InsertResult.DUPLICATE_ID);
 
         // Act & Assert
-        assertThrows(IllegalArgumentException.class,
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
             () -> authService.register("user1", "Juan", "juan@example.com", "pass"));
-        verify(userService, never()).add(any());
+        assertEquals("User already exists", ex.getMessage());
     }
 
     @Test
     void registrar_usuario_email_duplicado_lanza_excepcion() {
         // Arrange
-        when(userService.exists("user1")).thenReturn(false);
-        User existingUser = new User("other-id", "Other", "juan@example.com");
-        when(userService.findByEmail("juan@example.com")).thenReturn(existingUser);
+        when(userService.insertIfAbsent(any(User.class))).thenReturn(UserService.InsertResult.DUPLICATE_EMAIL);
 
         // Act & Assert
-        assertThrows(IllegalArgumentException.class,
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
             () -> authService.register("user1", "Juan", "juan@example.com", "pass"));
-        verify(userService, never()).add(any());
+        assertEquals("Email already registered", ex.getMessage());
+        verify(userService, never()).findByEmail(any());
     }
 
     // ===== PRUEBAS DE LOGIN (POSITIVAS) =====
@@ -94,6 +92,38 @@ class AuthServiceTest {
         assertEquals("Juan", result.getName());
     }
 
+    @Test
+    void login_con_hash_heredado_actualiza_a_pbkdf2() {
+        // Arrange
+        User storedUser = new User("user1", "Juan", "juan@example.com");
+        String legacyHash = hashPassword("password123");
+        storedUser.setPassword(legacyHash);
+        when(userService.findByEmail("juan@example.com")).thenReturn(storedUser);
+
+        // Act
+        User result = authService.login("juan@example.com", "password123");
+
+        // Assert
+        assertNotNull(result);
+        assertTrue(result.getPassword().startsWith("pbkdf2$"));
+        verify(userService).updatePassword(eq("user1"), startsWith("pbkdf2$"));
+    }
+
+    @Test
+    void login_con_hash_pbkdf2_no_recalcula() {
+        // Arrange
+        User storedUser = new User("user1", "Juan", "juan@example.com");
+        storedUser.setPassword(hasher.hash("password123"));
+        when(userService.findByEmail("juan@example.com")).thenReturn(storedUser);
+
+        // Act
+        User result = authService.login("juan@example.com", "password123");
+
+        // Assert
+        assertNotNull(result);
+        verify(userService, never()).updatePassword(any(), any());
+    }
+
     @Test
     void login_email_no_existe_retorna_nulo() {
         // Arrange
@@ -106,6 +136,21 @@ class AuthServiceTest {
         assertNull(result);
     }
 
+    @Test
+    void login_email_no_existe_verifica_contra_un_hash_de_relleno() {
+        // Arrange
+        PasswordHasher timedHasher = mock(PasswordHasher.class);
+        AuthService service = new AuthService(userService, timedHasher);
+        when(userService.findByEmail("no@exist.com")).thenReturn(null);
+
+        // Act
+        User result = service.login("no@exist.com", "password");
+
+        // Assert
+        assertNull(result);
+        verify(timedHasher).verifyDummy("password");
+    }
+
     @Test
     void login_password_incorrecto_retorna_nulo() {
         // Arrange
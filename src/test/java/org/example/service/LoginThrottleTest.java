@@ -0,0 +1,54 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import spark.Request;
+
+class LoginThrottleTest {
+
+    @Test
+    void toma_la_ip_del_cliente_de_la_ultima_entrada_de_la_cabecera_configurada() {
+        // Arrange
+        LoginThrottle throttle = throttle(new AtomicLong(0), "X-Forwarded-For");
+        Request req = mock(Request.class);
+        when(req.headers("X-Forwarded-For")).thenReturn("6.6.6.6, 203.0.113.7");
+        when(req.ip()).thenReturn("10.0.0.1");
+        Request direct = mock(Request.class);
+        when(direct.ip()).thenReturn("10.0.0.1");
+
+        // Act & Assert
+        assertEquals("203.0.113.7", throttle.clientIp(req));
+        assertEquals("10.0.0.1", throttle.clientIp(direct));
+    }
+
+    @Test
+    void retry_after_corresponde_al_limite_superado() {
+        // Arrange: ventana por IP de 60 s y por email de 600 s
+        AtomicLong now = new AtomicLong(0);
+        LoginThrottle throttle = throttle(now, null);
+        assertEquals(0, throttle.checkLogin("1.1.1.1", "ana@ex.com"));
+
+        // Act: el email ya agotó su límite, la IP no
+        long retryAfter = throttle.checkLogin("2.2.2.2", "Ana@Ex.com");
+
+        // Assert: con límite 1 el intento rechazado también cuenta, así que su
+        // peso solo desaparece al terminar la ventana siguiente
+        assertEquals(1_200, retryAfter);
+        assertEquals(0, throttle.checkRegister("2.2.2.2"));
+        assertEquals(120, throttle.checkRegister("2.2.2.2"));
+        now.set(120_000);
+        assertEquals(0, throttle.checkRegister("2.2.2.2"));
+    }
+
+    private static LoginThrottle throttle(AtomicLong now, String header) {
+        return new LoginThrottle(
+                new SlidingWindowRateLimiter(20, 60_000, 256, now::get),
+                new SlidingWindowRateLimiter(1, 600_000, 256, now::get),
+                new SlidingWindowRateLimiter(1, 60_000, 256, now::get),
+                header);
+    }
+}
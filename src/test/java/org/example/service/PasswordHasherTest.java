@@ -0,0 +1,90 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(1, 4, 1000, 5000);
+
+    @Test
+    void hash_pbkdf2_verifica_correctamente() {
+        // Act
+        String hash = hasher.hash("secreto");
+
+        // Assert
+        assertTrue(hash.startsWith("pbkdf2$1000$"));
+        assertTrue(hasher.verify("secreto", hash));
+        assertFalse(hasher.verify("otro", hash));
+    }
+
+    @Test
+    void verificacion_de_relleno_nunca_acepta() {
+        // Act & Assert
+        assertFalse(hasher.verifyDummy("secreto"));
+        assertFalse(hasher.verifyDummy("dummy"));
+    }
+
+    @Test
+    void hash_usa_sal_aleatoria() {
+        // Act & Assert
+        assertNotEquals(hasher.hash("secreto"), hasher.hash("secreto"));
+    }
+
+    @Test
+    void verifica_hash_sha256_heredado_y_pide_rehash() {
+        // Arrange
+        String legacy = "K7gNU3sdo+OL0wNhqoVWhr3g6s1xYv72ol/pe/Unols="; // SHA-256("secret")
+
+        // Act & Assert
+        assertTrue(hasher.verify("secret", legacy));
+        assertFalse(hasher.verify("Secret", legacy));
+        assertTrue(hasher.needsRehash(legacy));
+    }
+
+    @Test
+    void pide_rehash_si_hay_menos_iteraciones() {
+        // Arrange
+        PasswordHasher stronger = new PasswordHasher(1, 4, 2000, 5000);
+        String weak = hasher.hash("secreto");
+
+        // Act & Assert
+        assertFalse(hasher.needsRehash(weak));
+        assertTrue(stronger.needsRehash(weak));
+        assertTrue(stronger.verify("secreto", weak));
+    }
+
+    @Test
+    void un_hash_pbkdf2_mal_formado_no_verifica() {
+        // Act & Assert
+        assertFalse(hasher.verify("secreto", "pbkdf2$1000$no-es-base64!$xx"));
+        assertFalse(hasher.verify("secreto", "pbkdf2$mil$c2Fs$aGFzaA=="));
+        assertFalse(hasher.verify("secreto", "pbkdf2$0$c2Fs$aGFzaA=="));
+    }
+
+    @Test
+    void ejecutor_saturado_rechaza_con_service_busy() throws Exception {
+        // Arrange: un hilo y sin cola; el único hilo queda ocupado
+        PasswordHasher saturated = new PasswordHasher(1, 0, 1000, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread busy = new Thread(() -> saturated.submit(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }));
+        busy.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        ServiceBusyException e = assertThrows(ServiceBusyException.class, () -> saturated.verify("secreto", "x"));
+
+        // Assert
+        assertEquals(1, e.getRetryAfterSeconds());
+        release.countDown();
+        busy.join();
+    }
+}
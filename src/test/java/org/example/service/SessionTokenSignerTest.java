@@ -0,0 +1,105 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class SessionTokenSignerTest {
+
+    private static LinkedHashMap<String, byte[]> keys(String... versions) {
+        LinkedHashMap<String, byte[]> keys = new LinkedHashMap<>();
+        for (String v : versions) {
+            keys.put(v, ("secreto-de-prueba-" + v).getBytes(StandardCharsets.UTF_8));
+        }
+        return keys;
+    }
+
+    @Test
+    void token_firmado_se_valida_y_devuelve_user_id() {
+        // Arrange
+        SessionTokenSigner signer = new SessionTokenSigner(keys("1"), 3600);
+
+        // Act
+        String token = signer.sign("user-123");
+
+        // Assert
+        assertEquals("user-123", signer.verify(token));
+    }
+
+    @Test
+    void token_manipulado_es_rechazado() {
+        // Arrange
+        SessionTokenSigner signer = new SessionTokenSigner(keys("1"), 3600);
+        String token = signer.sign("user-123");
+        String otherUser = new SessionTokenSigner(keys("1"), 3600).sign("admin");
+
+        // Act
+        String forged = otherUser.substring(0, otherUser.lastIndexOf('.'))
+                + token.substring(token.lastIndexOf('.'));
+
+        // Assert
+        assertNull(signer.verify(forged));
+        assertNull(signer.verify("basura"));
+        assertNull(signer.verify(null));
+    }
+
+    @Test
+    void token_expirado_es_rechazado() {
+        // Arrange
+        AtomicLong now = new AtomicLong(1_000);
+        SessionTokenSigner signer = new SessionTokenSigner(keys("1"), 60, now::get);
+        String token = signer.sign("user-123");
+
+        // Act
+        now.addAndGet(61);
+
+        // Assert
+        assertNull(signer.verify(token));
+    }
+
+    @Test
+    void rotacion_acepta_tokens_de_clave_anterior() {
+        // Arrange
+        SessionTokenSigner oldSigner = new SessionTokenSigner(keys("1"), 3600);
+        String oldToken = oldSigner.sign("user-123");
+
+        // Act
+        SessionTokenSigner rotated = new SessionTokenSigner(keys("2", "1"), 3600);
+        String newToken = rotated.sign("user-123");
+
+        // Assert
+        assertEquals("user-123", rotated.verify(oldToken));
+        assertTrue(newToken.startsWith("2."));
+        assertNull(oldSigner.verify(newToken));
+    }
+
+    @Test
+    void firmas_concurrentes_no_comparten_estado_del_mac() throws Exception {
+        // Arrange
+        SessionTokenSigner signer = new SessionTokenSigner(keys("1"), 3600);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // Act: 8 hilos firmando y validando a la vez
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                String userId = "user-" + i;
+                results.add(pool.submit(() -> userId.equals(signer.verify(signer.sign(userId)))));
+            }
+
+            // Assert
+            for (Future<Boolean> r : results) assertTrue(r.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowRateLimiterTest {
+
+    @Test
+    void permite_hasta_el_limite_y_luego_rechaza() {
+        // Arrange
+        AtomicLong now = new AtomicLong(0);
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, 60_000, 256, now::get);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire("1.2.3.4"));
+        assertTrue(limiter.tryAcquire("1.2.3.4"));
+        assertTrue(limiter.tryAcquire("1.2.3.4"));
+        assertFalse(limiter.tryAcquire("1.2.3.4"));
+    }
+
+    @Test
+    void claves_distintas_tienen_contadores_independientes() {
+        // Arrange
+        AtomicLong now = new AtomicLong(0);
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, 60_000, 256, now::get);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire("a@ex.com"));
+        assertFalse(limiter.tryAcquire("a@ex.com"));
+        assertTrue(limiter.tryAcquire("b@ex.com"));
+    }
+
+    @Test
+    void ventana_anterior_pondera_segun_tiempo_transcurrido() {
+        // Arrange
+        AtomicLong now = new AtomicLong(0);
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, 1_000, 256, now::get);
+        for (int i = 0; i < 4; i++) limiter.tryAcquire("ip");
+
+        // Act: al inicio de la siguiente ventana la anterior aún pesa casi completa
+        now.set(1_100);
+        boolean earlyRetry = limiter.tryAcquire("ip");
+
+        // Assert
+        assertFalse(earlyRetry);
+        now.set(1_950);
+        assertTrue(limiter.tryAcquire("ip"));
+    }
+
+    @Test
+    void tras_dos_ventanas_sin_trafico_se_reinicia() {
+        // Arrange
+        AtomicLong now = new AtomicLong(0);
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, 1_000, 256, now::get);
+        limiter.tryAcquire("ip");
+        limiter.tryAcquire("ip");
+
+        // Act
+        now.set(2_500);
+
+        // Assert
+        assertTrue(limiter.tryAcquire("ip"));
+        assertTrue(limiter.retryAfterSeconds("ip") >= 1);
+    }
+
+    @Test
+    void retry_after_cubre_el_peso_de_la_ventana_anterior() {
+        // Arrange: 4 permitidos y 1 rechazado al final de la ventana
+        AtomicLong now = new AtomicLong(0);
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, 60_000, 256, now::get);
+        for (int i = 0; i < 4; i++) limiter.tryAcquire("ip");
+        now.set(59_000);
+        assertFalse(limiter.tryAcquire("ip"));
+
+        // Act
+        long retryAfter = limiter.retryAfterSeconds("ip");
+
+        // Assert: 5·(1 - t) + 1 <= 4 exige t >= 0,4 en la ventana siguiente
+        assertEquals(25, retryAfter);
+        now.set(59_000 + retryAfter * 1_000);
+        assertTrue(limiter.tryAcquire("ip"));
+    }
+
+    @Test
+    void retry_after_dentro_de_la_ventana_espera_a_que_la_anterior_pese_menos() {
+        // Arrange
+        AtomicLong now = new AtomicLong(0);
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, 60_000, 256, now::get);
+        for (int i = 0; i < 4; i++) limiter.tryAcquire("ip");
+        now.set(60_000);
+        assertFalse(limiter.tryAcquire("ip"));
+
+        // Act
+        long retryAfter = limiter.retryAfterSeconds("ip");
+
+        // Assert: 4·(1 - t) + 1 + 1 <= 4 exige t >= 0,5
+        assertEquals(30, retryAfter);
+        now.set(60_000 + retryAfter * 1_000);
+        assertTrue(limiter.tryAcquire("ip"));
+    }
+
+    @Test
+    void claves_con_el_mismo_hashcode_no_comparten_contador() {
+        // Arrange
+        AtomicLong now = new AtomicLong(0);
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, 60_000, 256, now::get);
+        String a = "AaAa@ex.com";
+        String b = "BBBB@ex.com";
+        assertEquals(a.hashCode(), b.hashCode());
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire(a));
+        assertFalse(limiter.tryAcquire(a));
+        assertTrue(limiter.tryAcquire(b));
+    }
+
+    @Test
+    void cada_fila_usa_un_hash_distinto() {
+        // Arrange
+        byte[] key = "1.2.3.4".getBytes(StandardCharsets.UTF_8);
+
+        // Act & Assert
+        assertNotEquals(SlidingWindowRateLimiter.murmur3(key, 1), SlidingWindowRateLimiter.murmur3(key, 2));
+        assertEquals(SlidingWindowRateLimiter.murmur3(key, 1), SlidingWindowRateLimiter.murmur3(key, 1));
+    }
+}
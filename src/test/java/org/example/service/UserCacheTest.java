@@ -0,0 +1,73 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.example.model.User;
+import org.junit.jupiter.api.Test;
+
+class UserCacheTest {
+
+    @Test
+    void cache_no_guarda_password() {
+        // Arrange
+        UserCache cache = new UserCache(10, 60_000);
+        User u = new User("user1", "Juan", "juan@example.com");
+        u.setPassword("hash-secreto");
+
+        // Act
+        cache.put(u);
+        User cached = cache.get("user1");
+
+        // Assert
+        assertNotNull(cached);
+        assertEquals("Juan", cached.getName());
+        assertNull(cached.getPassword());
+    }
+
+    @Test
+    void entrada_expira_tras_ttl() {
+        // Arrange
+        AtomicLong now = new AtomicLong(1_000);
+        UserCache cache = new UserCache(10, 500, now::get);
+        cache.put(new User("user1", "Juan", "juan@example.com"));
+
+        // Act
+        now.addAndGet(501);
+
+        // Assert
+        assertNull(cache.get("user1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void desaloja_la_entrada_menos_usada_al_superar_maximo() {
+        // Arrange
+        UserCache cache = new UserCache(2, 60_000);
+        cache.put(new User("a", "A", "a@ex.com"));
+        cache.put(new User("b", "B", "b@ex.com"));
+        cache.get("a"); // "a" pasa a ser la más reciente
+
+        // Act
+        cache.put(new User("c", "C", "c@ex.com"));
+
+        // Assert
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void invalidar_elimina_usuario() {
+        // Arrange
+        UserCache cache = new UserCache(10, 60_000);
+        cache.put(new User("user1", "Juan", "juan@example.com"));
+
+        // Act
+        cache.invalidate("user1");
+
+        // Assert
+        assertNull(cache.get("user1"));
+    }
+}
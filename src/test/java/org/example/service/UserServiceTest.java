@@ -0,0 +1,93 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.example.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UserServiceTest {
+
+    private UserRepository repository;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserRepository.class);
+        userService = new UserService(repository);
+    }
+
+    private static Map<String, String> row(String id) {
+        return Map.of("id", id, "name", "User " + id, "email", id + "@ex.com");
+    }
+
+    @Test
+    void el_cursor_devuelto_continua_desde_la_ultima_fila() {
+        // Arrange
+        Instant createdAt = Instant.parse("2026-10-19T08:00:00.123456Z");
+        when(repository.findPage(null, null, 2))
+                .thenReturn(new UserRepository.Slice(List.of(row("u3"), row("u2")), createdAt, "u2", true));
+        when(repository.findPage(createdAt, "u2", 2))
+                .thenReturn(new UserRepository.Slice(List.of(row("u1")), Instant.EPOCH, "u1", false));
+
+        // Act
+        UserService.UserPage first = userService.listPage(null, 2);
+        UserService.UserPage second = userService.listPage(first.getNextCursor(), 2);
+
+        // Assert
+        assertNotNull(first.getNextCursor());
+        assertEquals(2, first.getUsers().size());
+        assertEquals("u1", second.getUsers().get(0).get("id"));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void la_ultima_pagina_no_tiene_cursor_siguiente() {
+        // Arrange: exactamente "limit" filas y ninguna extra
+        when(repository.findPage(null, null, 2))
+                .thenReturn(new UserRepository.Slice(List.of(row("u2"), row("u1")), Instant.EPOCH, "u1", false));
+
+        // Act
+        UserService.UserPage page = userService.listPage(null, 2);
+
+        // Assert
+        assertEquals(2, page.getUsers().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void cursor_invalido_lanza_illegal_argument() {
+        // Arrange
+        String noBase64 = "%%%";
+        String noSeparator = Base64.getUrlEncoder().encodeToString("sin-separador".getBytes(StandardCharsets.UTF_8));
+        String badDate = Base64.getUrlEncoder().encodeToString("ayer|u1".getBytes(StandardCharsets.UTF_8));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.listPage(noBase64, 10));
+        assertThrows(IllegalArgumentException.class, () -> userService.listPage(noSeparator, 10));
+        assertThrows(IllegalArgumentException.class, () -> userService.listPage(badDate, 10));
+        verify(repository, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void busqueda_vacia_o_sin_limite_no_consulta_el_repositorio() {
+        // Act
+        boolean blank = userService.search("  ").isEmpty();
+        boolean zero = userService.search("ana", 0).isEmpty();
+        userService.search("ana");
+
+        // Assert
+        assertTrue(blank);
+        assertTrue(zero);
+        verify(repository).search("ana", UserService.DEFAULT_SEARCH_LIMIT);
+        verifyNoMoreInteractions(repository);
+    }
+}
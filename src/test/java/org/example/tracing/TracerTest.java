@@ -0,0 +1,84 @@
+package org.example.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TracerTest {
+
+    @AfterEach
+    void restaurar() {
+        Tracer.end(200);
+        Tracer.configure(true, 250, 50, 50);
+    }
+
+    @Test
+    void agrupa_las_sentencias_repetidas_de_una_peticion() throws Exception {
+        // Arrange
+        Tracer.configure(true, 0, 10_000, 10);
+        Tracer.begin("GET", "/items/1");
+
+        // Act
+        try (Connection conn = Tracer.traceConnection(
+                DriverManager.getConnection("jdbc:h2:mem:tracer;DB_CLOSE_DELAY=-1"), "catalog", System.nanoTime())) {
+            for (int i = 0; i < 3; i++) {
+                try (PreparedStatement ps = conn.prepareStatement("SELECT ?")) {
+                    ps.setInt(1, i);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        assertTrue(rs.next());
+                    }
+                }
+            }
+        }
+        Tracer.end(200);
+
+        // Assert
+        List<Map<String, Object>> traces = Tracer.slowTraces();
+        assertEquals(1, traces.size());
+        List<?> queries = (List<?>) traces.get(0).get("queries");
+        assertEquals(1, queries.size());
+        assertEquals("SELECT ?", ((Map<?, ?>) queries.get(0)).get("sql"));
+        assertEquals(3, ((Map<?, ?>) queries.get(0)).get("count"));
+        assertEquals(4, ((List<?>) traces.get(0).get("spans")).size()); // pool + 3 jdbc
+    }
+
+    @Test
+    void solo_retiene_las_trazas_lentas_en_un_buffer_acotado() {
+        // Arrange
+        Tracer.configure(true, 0, 10_000, 2);
+
+        // Act
+        for (String path : new String[]{"/a", "/b", "/c"}) {
+            Tracer.begin("GET", path);
+            Tracer.end(200);
+        }
+
+        // Assert
+        List<Map<String, Object>> traces = Tracer.slowTraces();
+        assertEquals(2, traces.size());
+        assertEquals("/c", traces.get(0).get("path"));
+        assertEquals("/b", traces.get(1).get("path"));
+    }
+
+    @Test
+    void sin_traza_activa_no_envuelve_la_conexion() throws Exception {
+        // Arrange
+        Tracer.configure(false, 0, 0, 10);
+        Tracer.begin("GET", "/items");
+
+        // Act & Assert
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:tracer2")) {
+            assertSame(conn, Tracer.traceConnection(conn, "catalog", System.nanoTime()));
+        }
+        assertEquals(0, Tracer.startSpan());
+        assertNull(Tracer.end(200));
+    }
+}
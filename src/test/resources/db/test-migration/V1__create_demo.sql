@@ -0,0 +1,4 @@
+CREATE TABLE demo (
+    id VARCHAR(50) PRIMARY KEY,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,3 @@
+-- índice de prueba
+CREATE INDEX IF NOT EXISTS idx_demo_created_at ON demo (created_at);
+INSERT INTO demo (id) VALUES ('seed');
@@ -0,0 +1,2 @@
+-- migration:optional
+CREATE EXTENSION IF NOT EXISTS extension_que_no_existe;